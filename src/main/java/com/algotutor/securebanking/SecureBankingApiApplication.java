@@ -1,12 +1,24 @@
 package com.algotutor.securebanking;
 
+import java.util.Arrays;
+
 import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+
+import com.algotutor.securebanking.command.RollupRebuildCommand;
 
 @SpringBootApplication
 public class SecureBankingApiApplication {
 
 	public static void main(String[] args) {
+		if (Arrays.asList(args).contains("--" + RollupRebuildCommand.OPTION)) {
+			// Maintenance run: no web server, so no postings race the rebuild; exits when it is done
+			System.exit(SpringApplication.exit(new SpringApplicationBuilder(SecureBankingApiApplication.class)
+					.web(WebApplicationType.NONE)
+					.run(args)));
+		}
 		SpringApplication.run(SecureBankingApiApplication.class, args);
 	}
 
@@ -7,21 +7,28 @@ import org.aspectj.lang.annotation.AfterThrowing;
 import org.aspectj.lang.annotation.Aspect;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 
 import com.algotutor.securebanking.annotation.Auditable;
+import com.algotutor.securebanking.audit.AuditEvent;
+import com.algotutor.securebanking.audit.AuditPipeline;
 
 /**
  * Simple Audit Aspect
- * Logs method executions marked with @Auditable
+ * Captures method executions marked with @Auditable and hands them to the
+ * asynchronous audit pipeline; the request thread only pays for an enqueue
  */
 @Aspect
 @Component
 public class AuditAspect {
     
-    private static final Logger auditLogger = LoggerFactory.getLogger("AUDIT");
+    private static final Logger logger = LoggerFactory.getLogger(AuditAspect.class);
+    
+    @Autowired
+    private AuditPipeline auditPipeline;
     
     @AfterReturning("@annotation(auditable)")
     public void logSuccess(JoinPoint joinPoint, Auditable auditable) {
@@ -38,17 +45,18 @@ public class AuditAspect {
             Authentication auth = SecurityContextHolder.getContext().getAuthentication();
             String username = (auth != null && auth.isAuthenticated()) ? auth.getName() : "anonymous";
             
-            auditLogger.info("AUDIT: User={}, Action={}, Resource={}, Method={}, Status={}, Error={}", 
+            auditPipeline.publish(new AuditEvent(
+                System.currentTimeMillis(),
                 username, 
                 auditable.action(), 
                 auditable.resource(), 
                 joinPoint.getSignature().getName(), 
                 status, 
-                error != null ? error : "N/A");
+                error));
                 
         } catch (Exception e) {
             // Don't let audit failures break the main functionality
-            System.err.println("Audit logging failed: " + e.getMessage());
+            logger.error("Audit capture failed: {}", e.getMessage());
         }
     }
-}
\ No newline at end of file
+}
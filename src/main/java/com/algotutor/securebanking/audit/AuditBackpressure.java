@@ -0,0 +1,11 @@
+package com.algotutor.securebanking.audit;
+
+/**
+ * What a request thread does when the audit queue is full
+ */
+public enum AuditBackpressure {
+	// Wait for the writer to free a slot (up to app.audit.block-timeout-ms), then drop
+	BLOCK,
+	// Drop the event immediately and count it
+	DROP
+}
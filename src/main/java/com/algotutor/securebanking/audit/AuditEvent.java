@@ -0,0 +1,12 @@
+package com.algotutor.securebanking.audit;
+
+/**
+ * One audited method execution, captured on the request thread and written
+ * later by the audit writer
+ *
+ * @param timestamp epoch milliseconds
+ * @param error     exception message for failures, otherwise null
+ */
+public record AuditEvent(long timestamp, String username, String action, String resource, String method,
+		String status, String error) {
+}
@@ -0,0 +1,150 @@
+package com.algotutor.securebanking.audit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import com.algotutor.securebanking.metrics.BankingMetrics;
+
+import io.micrometer.core.instrument.Gauge;
+
+/**
+ * Hands audit events from request threads to a single background writer.
+ *
+ * Request threads only enqueue into a bounded ring buffer. The writer drains
+ * it in batches and appends each batch to the {@link AuditSink}, which makes
+ * the whole batch durable at once. When the buffer is full the configured
+ * {@link AuditBackpressure} policy decides between waiting and dropping.
+ */
+@Component
+public class AuditPipeline implements SmartLifecycle {
+
+	private static final Logger logger = LoggerFactory.getLogger(AuditPipeline.class);
+
+	// How long the writer sleeps when the buffer is empty
+	private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+	private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+	private final AuditRingBuffer buffer;
+	private final AuditSink sink;
+	private final AuditBackpressure backpressure;
+	private final long blockTimeoutNanos;
+	private final int batchSize;
+	private final BankingMetrics bankingMetrics;
+
+	private volatile boolean running;
+	private Thread writer;
+
+	public AuditPipeline(AuditSink sink, @Value("${app.audit.queue-capacity:8192}") int queueCapacity,
+			@Value("${app.audit.batch-size:256}") int batchSize,
+			@Value("${app.audit.backpressure:DROP}") AuditBackpressure backpressure,
+			@Value("${app.audit.block-timeout-ms:50}") long blockTimeoutMs, BankingMetrics bankingMetrics) {
+		this.buffer = new AuditRingBuffer(queueCapacity);
+		this.sink = sink;
+		this.batchSize = batchSize;
+		this.backpressure = backpressure;
+		this.blockTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(blockTimeoutMs);
+		this.bankingMetrics = bankingMetrics;
+
+		Gauge.builder("banking.audit.queue.depth", buffer, AuditRingBuffer::size)
+				.description("Audit events waiting to be written")
+				.register(bankingMetrics.getMeterRegistry());
+		Gauge.builder("banking.audit.queue.capacity", buffer, AuditRingBuffer::capacity)
+				.description("Audit queue capacity")
+				.register(bankingMetrics.getMeterRegistry());
+	}
+
+	/**
+	 * Enqueues the event; never throws and never waits longer than the block timeout
+	 *
+	 * @return false when the event was dropped
+	 */
+	public boolean publish(AuditEvent event) {
+		if (buffer.offer(event)) {
+			return true;
+		}
+
+		if (backpressure == AuditBackpressure.BLOCK && running) {
+			long deadline = System.nanoTime() + blockTimeoutNanos;
+			while (System.nanoTime() < deadline) {
+				LockSupport.parkNanos(BLOCK_PARK_NANOS);
+				if (buffer.offer(event)) {
+					return true;
+				}
+			}
+		}
+
+		bankingMetrics.incrementAuditDropped();
+		return false;
+	}
+
+	@Override
+	public void start() {
+		running = true;
+		writer = new Thread(this::writeLoop, "audit-writer");
+		writer.setDaemon(true);
+		writer.start();
+	}
+
+	@Override
+	public void stop() {
+		running = false;
+		LockSupport.unpark(writer);
+		try {
+			writer.join(TimeUnit.SECONDS.toMillis(10));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		try {
+			sink.close();
+		} catch (Exception e) {
+			logger.error("Error closing audit sink: {}", e.getMessage());
+		}
+	}
+
+	@Override
+	public boolean isRunning() {
+		return running;
+	}
+
+	@Override
+	public int getPhase() {
+		// Start before and stop after the web server, so in-flight requests can still audit
+		return 0;
+	}
+
+	private void writeLoop() {
+		List<AuditEvent> batch = new ArrayList<>(batchSize);
+		while (running) {
+			if (buffer.drain(batch::add, batchSize) == 0) {
+				LockSupport.parkNanos(IDLE_PARK_NANOS);
+				continue;
+			}
+			writeBatch(batch);
+		}
+		// Flush whatever was accepted before shutdown
+		while (buffer.drain(batch::add, batchSize) > 0) {
+			writeBatch(batch);
+		}
+	}
+
+	private void writeBatch(List<AuditEvent> batch) {
+		long start = System.nanoTime();
+		try {
+			sink.write(batch);
+			bankingMetrics.recordAuditBatch(batch.size(), System.nanoTime() - start);
+		} catch (Exception e) {
+			bankingMetrics.incrementAuditWriteFailures(batch.size());
+			logger.error("Failed to write {} audit events: {}", batch.size(), e.getMessage());
+		} finally {
+			batch.clear();
+		}
+	}
+}
@@ -0,0 +1,92 @@
+package com.algotutor.securebanking.audit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded lock-free multi-producer, single-consumer ring buffer.
+ *
+ * Every slot carries a sequence number telling whose turn it is: a producer
+ * may fill slot {@code i} when its sequence equals the producer's claimed
+ * position, and the consumer may take it once the sequence is one past that.
+ * Producers only contend on a single CAS of the tail; a full buffer is
+ * reported to the caller instead of blocking.
+ */
+public class AuditRingBuffer {
+
+	private final int mask;
+	private final AtomicReferenceArray<AuditEvent> slots;
+	private final AtomicLongArray sequences;
+	private final AtomicLong tail = new AtomicLong();
+	private final AtomicLong head = new AtomicLong();
+
+	public AuditRingBuffer(int requestedCapacity) {
+		// Round up to a power of two so the slot index is a simple mask
+		int capacity = Integer.highestOneBit(Math.max(2, requestedCapacity) - 1) << 1;
+		this.mask = capacity - 1;
+		this.slots = new AtomicReferenceArray<>(capacity);
+		this.sequences = new AtomicLongArray(capacity);
+		for (int i = 0; i < capacity; i++) {
+			sequences.set(i, i);
+		}
+	}
+
+	/**
+	 * @return false when the buffer is full
+	 */
+	public boolean offer(AuditEvent event) {
+		while (true) {
+			long position = tail.get();
+			int index = (int) (position & mask);
+			long difference = sequences.get(index) - position;
+			if (difference == 0) {
+				if (tail.compareAndSet(position, position + 1)) {
+					slots.set(index, event);
+					// Publish: the consumer reads the slot only after seeing this sequence
+					sequences.lazySet(index, position + 1);
+					return true;
+				}
+			} else if (difference < 0) {
+				return false;
+			}
+			// Another producer claimed this position first; retry with the new tail
+		}
+	}
+
+	/**
+	 * Hands up to {@code maxEvents} events to the consumer, oldest first. Must
+	 * only be called from the single consumer thread.
+	 *
+	 * @return number of events drained
+	 */
+	public int drain(Consumer<AuditEvent> consumer, int maxEvents) {
+		long position = head.get();
+		int drained = 0;
+		while (drained < maxEvents) {
+			int index = (int) (position & mask);
+			if (sequences.get(index) != position + 1) {
+				// Empty, or the producer that claimed this slot has not published yet
+				break;
+			}
+			AuditEvent event = slots.get(index);
+			slots.lazySet(index, null);
+			// Hand the slot back to producers one lap later
+			sequences.lazySet(index, position + mask + 1);
+			position++;
+			drained++;
+			consumer.accept(event);
+		}
+		head.lazySet(position);
+		return drained;
+	}
+
+	public int size() {
+		return (int) Math.max(0, tail.get() - head.get());
+	}
+
+	public int capacity() {
+		return mask + 1;
+	}
+}
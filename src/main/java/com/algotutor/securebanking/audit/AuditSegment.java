@@ -0,0 +1,332 @@
+package com.algotutor.securebanking.audit;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * One append-only audit segment file.
+ *
+ * Records are {@code [int length][long timestamp][JSON event]}. Two in-memory
+ * indexes are kept while appending and rebuilt when the file is opened: a
+ * sparse time index with one entry per block of records, and the offsets of
+ * every record per user. Reads go through a read-only memory mapping; only the
+ * audit writer thread appends.
+ */
+class AuditSegment {
+
+	static final int HEADER_BYTES = Integer.BYTES + Long.BYTES;
+
+	// Records per sparse time index entry
+	private static final int BLOCK_RECORDS = 64;
+
+	private final Path path;
+	private final long start;
+	private final long bucket;
+	private final ObjectMapper objectMapper;
+
+	// All mutable state below is guarded by this
+	private FileChannel channel;
+	private MappedByteBuffer mapped;
+	private long size;
+	private int records;
+	private long minTimestamp = Long.MAX_VALUE;
+	private long maxTimestamp = Long.MIN_VALUE;
+
+	private final IntArray blockOffsets = new IntArray();
+	private final LongArray blockMinTimes = new LongArray();
+	// Running maximum up to and including each block, so it never decreases
+	private final LongArray blockMaxTimes = new LongArray();
+	private final Map<String, IntArray> userOffsets = new HashMap<>();
+
+	private AuditSegment(Path path, long start, long bucket, FileChannel channel, ObjectMapper objectMapper) {
+		this.path = path;
+		this.start = start;
+		this.bucket = bucket;
+		this.channel = channel;
+		this.objectMapper = objectMapper;
+	}
+
+	static AuditSegment create(Path path, long start, long bucket, ObjectMapper objectMapper) throws IOException {
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		return new AuditSegment(path, start, bucket, channel, objectMapper);
+	}
+
+	/**
+	 * Opens an existing segment read-only, rebuilding its indexes. A torn record
+	 * at the end (crash during a write) is cut off.
+	 */
+	static AuditSegment open(Path path, long start, long bucket, ObjectMapper objectMapper) throws IOException {
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		AuditSegment segment = new AuditSegment(path, start, bucket, channel, objectMapper);
+		segment.recover();
+		segment.seal();
+		return segment;
+	}
+
+	/**
+	 * Appends the batch and, when requested, syncs it to disk before returning
+	 */
+	void append(List<AuditEvent> events, boolean fsync) throws IOException {
+		List<byte[]> payloads = new ArrayList<>(events.size());
+		int total = 0;
+		for (AuditEvent event : events) {
+			byte[] payload = objectMapper.writeValueAsBytes(event);
+			payloads.add(payload);
+			total += HEADER_BYTES + payload.length;
+		}
+
+		ByteBuffer buffer = ByteBuffer.allocate(total);
+		for (int i = 0; i < events.size(); i++) {
+			buffer.putInt(payloads.get(i).length).putLong(events.get(i).timestamp()).put(payloads.get(i));
+		}
+		buffer.flip();
+
+		long position = size();
+		while (buffer.hasRemaining()) {
+			position += channel.write(buffer, position);
+		}
+		if (fsync) {
+			channel.force(false);
+		}
+
+		// Index only once the bytes are durable, so readers never see a record that may be lost
+		synchronized (this) {
+			int offset = (int) size;
+			for (int i = 0; i < events.size(); i++) {
+				index(offset, events.get(i));
+				offset += HEADER_BYTES + payloads.get(i).length;
+			}
+			size = offset;
+		}
+	}
+
+	/**
+	 * Stops appending; the file is mapped once and its channel released
+	 */
+	synchronized void seal() throws IOException {
+		if (channel == null) {
+			return;
+		}
+		mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+		channel.close();
+		channel = null;
+	}
+
+	/**
+	 * Adds up to {@code limit} matching events to {@code out}, newest first
+	 */
+	void collect(String username, String action, long from, long to, int limit, List<AuditEvent> out)
+			throws IOException {
+		ByteBuffer view;
+		int[] offsets;
+		int count;
+		int[] blocks;
+		long[] minTimes;
+		long[] maxTimes;
+		long end;
+		// Snapshot under the lock; later appends only add slots past the captured counts
+		// or widen the open block's time range, which at worst makes this scan one more block
+		synchronized (this) {
+			view = view();
+			end = size;
+			if (username != null) {
+				IntArray userIndex = userOffsets.get(username);
+				if (userIndex == null) {
+					return;
+				}
+				offsets = userIndex.values;
+				count = userIndex.size;
+				blocks = null;
+				minTimes = null;
+				maxTimes = null;
+			} else {
+				offsets = null;
+				count = blockOffsets.size;
+				blocks = blockOffsets.values;
+				minTimes = blockMinTimes.values;
+				maxTimes = blockMaxTimes.values;
+			}
+		}
+
+		int wanted = limit;
+		if (offsets != null) {
+			for (int i = count - 1; i >= 0 && wanted > 0; i--) {
+				long timestamp = view.getLong(offsets[i] + Integer.BYTES);
+				if (timestamp < from || timestamp > to) {
+					continue;
+				}
+				AuditEvent event = decode(view, offsets[i]);
+				if (action == null || action.equals(event.action())) {
+					out.add(event);
+					wanted--;
+				}
+			}
+			return;
+		}
+
+		List<AuditEvent> block = new ArrayList<>(BLOCK_RECORDS);
+		for (int b = count - 1; b >= 0 && wanted > 0; b--) {
+			if (maxTimes[b] < from) {
+				break;
+			}
+			if (minTimes[b] > to) {
+				continue;
+			}
+			int offset = blocks[b];
+			long blockEnd = b + 1 < count ? blocks[b + 1] : end;
+			block.clear();
+			while (offset < blockEnd) {
+				int length = view.getInt(offset);
+				long timestamp = view.getLong(offset + Integer.BYTES);
+				if (timestamp >= from && timestamp <= to) {
+					AuditEvent event = decode(view, offset);
+					if (action == null || action.equals(event.action())) {
+						block.add(event);
+					}
+				}
+				offset += HEADER_BYTES + length;
+			}
+			for (int i = block.size() - 1; i >= 0 && wanted > 0; i--) {
+				out.add(block.get(i));
+				wanted--;
+			}
+		}
+	}
+
+	/**
+	 * Raw record bytes, for copying the segment into a compacted one
+	 */
+	synchronized ByteBuffer contents() throws IOException {
+		ByteBuffer view = view();
+		view.limit((int) size);
+		return view;
+	}
+
+	/**
+	 * Releases the file; the mapping stays readable for queries still holding
+	 * this segment and is unmapped by the garbage collector
+	 */
+	synchronized void close() throws IOException {
+		seal();
+	}
+
+	Path getPath() {
+		return path;
+	}
+
+	long getStart() {
+		return start;
+	}
+
+	long getBucket() {
+		return bucket;
+	}
+
+	synchronized long size() {
+		return size;
+	}
+
+	synchronized int getRecords() {
+		return records;
+	}
+
+	synchronized long getMinTimestamp() {
+		return minTimestamp;
+	}
+
+	synchronized long getMaxTimestamp() {
+		return maxTimestamp;
+	}
+
+	private void recover() throws IOException {
+		long fileSize = channel.size();
+		ByteBuffer view = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+		int offset = 0;
+		while (offset + HEADER_BYTES <= fileSize) {
+			int length = view.getInt(offset);
+			if (length <= 0 || offset + HEADER_BYTES + (long) length > fileSize) {
+				break;
+			}
+			index(offset, decode(view, offset));
+			offset += HEADER_BYTES + length;
+		}
+		size = offset;
+		if (offset < fileSize) {
+			channel.truncate(offset);
+		}
+	}
+
+	// Caller holds the lock
+	private void index(int offset, AuditEvent event) {
+		long timestamp = event.timestamp();
+		if (records % BLOCK_RECORDS == 0) {
+			long previousMax = blockMaxTimes.size > 0 ? blockMaxTimes.values[blockMaxTimes.size - 1] : Long.MIN_VALUE;
+			blockOffsets.add(offset);
+			blockMinTimes.add(timestamp);
+			blockMaxTimes.add(Math.max(previousMax, timestamp));
+		} else {
+			int last = blockOffsets.size - 1;
+			blockMinTimes.values[last] = Math.min(blockMinTimes.values[last], timestamp);
+			blockMaxTimes.values[last] = Math.max(blockMaxTimes.values[last], timestamp);
+		}
+		userOffsets.computeIfAbsent(event.username(), k -> new IntArray()).add(offset);
+		minTimestamp = Math.min(minTimestamp, timestamp);
+		maxTimestamp = Math.max(maxTimestamp, timestamp);
+		records++;
+	}
+
+	// Caller holds the lock
+	private ByteBuffer view() throws IOException {
+		if (mapped == null || mapped.capacity() < size) {
+			// Only the active segment grows; it is remapped when a reader needs the new records
+			mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+		}
+		return mapped.duplicate();
+	}
+
+	private AuditEvent decode(ByteBuffer view, int offset) throws IOException {
+		byte[] payload = new byte[view.getInt(offset)];
+		view.get(offset + HEADER_BYTES, payload);
+		return objectMapper.readValue(payload, AuditEvent.class);
+	}
+
+	/**
+	 * Append-only growable arrays; growing copies into a new array, so a captured
+	 * (array, size) pair stays readable without holding the lock
+	 */
+	private static final class IntArray {
+		private int[] values = new int[16];
+		private int size;
+
+		void add(int value) {
+			if (size == values.length) {
+				values = Arrays.copyOf(values, size * 2);
+			}
+			values[size++] = value;
+		}
+	}
+
+	private static final class LongArray {
+		private long[] values = new long[16];
+		private int size;
+
+		void add(long value) {
+			if (size == values.length) {
+				values = Arrays.copyOf(values, size * 2);
+			}
+			values[size++] = value;
+		}
+	}
+}
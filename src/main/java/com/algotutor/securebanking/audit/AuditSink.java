@@ -0,0 +1,18 @@
+package com.algotutor.securebanking.audit;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Durable destination for audit events. Only ever called from the audit
+ * writer thread, one batch at a time.
+ */
+public interface AuditSink {
+
+	/**
+	 * Appends the batch; when this returns the events must be durable
+	 */
+	void write(List<AuditEvent> events) throws IOException;
+
+	void close() throws IOException;
+}
@@ -0,0 +1,64 @@
+package com.algotutor.securebanking.audit;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Append-only NDJSON audit file. A whole batch goes out in one write followed
+ * by a single fsync, so the cost of durability is shared by every event in it.
+ * Used instead of the queryable {@link SegmentedAuditStore} when
+ * {@code app.audit.store=file}.
+ */
+@Component
+@ConditionalOnProperty(name = "app.audit.store", havingValue = "file")
+public class FileAuditSink implements AuditSink {
+
+	private final ObjectMapper objectMapper;
+	private final boolean fsync;
+	private final FileChannel channel;
+
+	public FileAuditSink(ObjectMapper objectMapper, @Value("${app.audit.file:logs/audit.log}") Path file,
+			@Value("${app.audit.fsync:true}") boolean fsync) throws IOException {
+		this.objectMapper = objectMapper;
+		this.fsync = fsync;
+		if (file.getParent() != null) {
+			Files.createDirectories(file.getParent());
+		}
+		this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.APPEND);
+	}
+
+	@Override
+	public void write(List<AuditEvent> events) throws IOException {
+		ByteArrayOutputStream lines = new ByteArrayOutputStream(events.size() * 160);
+		for (AuditEvent event : events) {
+			lines.write(objectMapper.writeValueAsBytes(event));
+			lines.write('\n');
+		}
+
+		ByteBuffer buffer = ByteBuffer.wrap(lines.toByteArray());
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		if (fsync) {
+			channel.force(false);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+}
@@ -0,0 +1,296 @@
+package com.algotutor.securebanking.audit;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Durable, queryable audit store made of time-partitioned segment files.
+ *
+ * The audit writer appends to a single active segment and starts a new one
+ * when the configured time bucket ends or the segment reaches its size cap.
+ * Sealed segments are immutable and memory-mapped, which lets retention and
+ * compaction replace or delete them from another thread without ever
+ * blocking the writer.
+ *
+ * Files are named {@code audit-<start millis>.seg}; a compacted segment is
+ * {@code audit-<first start>-<last start>.seg}.
+ */
+@Component
+@ConditionalOnProperty(name = "app.audit.store", havingValue = "segmented", matchIfMissing = true)
+public class SegmentedAuditStore implements AuditSink {
+
+	private static final Logger logger = LoggerFactory.getLogger(SegmentedAuditStore.class);
+
+	private static final Pattern SEGMENT_NAME = Pattern.compile("audit-(\\d{13})(?:-(\\d{13}))?\\.seg");
+	private static final long DAY_MILLIS = Duration.ofDays(1).toMillis();
+
+	private final Path directory;
+	private final long segmentMillis;
+	private final long maxSegmentBytes;
+	private final boolean fsync;
+	private final ObjectMapper objectMapper;
+
+	// Keyed by segment start; the active segment is always the last entry
+	private final ConcurrentSkipListMap<Long, AuditSegment> segments = new ConcurrentSkipListMap<>();
+
+	// Written only by the audit writer thread
+	private volatile AuditSegment active;
+
+	public SegmentedAuditStore(ObjectMapper objectMapper, @Value("${app.audit.dir:logs/audit}") Path directory,
+			@Value("${app.audit.segment-duration:PT1H}") Duration segmentDuration,
+			@Value("${app.audit.segment-max-bytes:268435456}") long maxSegmentBytes,
+			@Value("${app.audit.fsync:true}") boolean fsync) throws IOException {
+		this.objectMapper = objectMapper;
+		this.directory = directory;
+		this.segmentMillis = segmentDuration.toMillis();
+		// Offsets inside a segment are ints
+		this.maxSegmentBytes = Math.min(maxSegmentBytes, Integer.MAX_VALUE / 2);
+		this.fsync = fsync;
+		Files.createDirectories(directory);
+		load();
+	}
+
+	@Override
+	public void write(List<AuditEvent> events) throws IOException {
+		if (events.isEmpty()) {
+			return;
+		}
+		int from = 0;
+		for (int i = 0; i < events.size(); i++) {
+			long bucket = bucketOf(events.get(i).timestamp());
+			if (active == null || active.getBucket() != bucket || active.size() >= maxSegmentBytes) {
+				if (i > from) {
+					active.append(events.subList(from, i), fsync);
+					from = i;
+				}
+				roll(events.get(i).timestamp(), bucket);
+			}
+		}
+		active.append(events.subList(from, events.size()), fsync);
+	}
+
+	@Override
+	public void close() throws IOException {
+		for (AuditSegment segment : segments.values()) {
+			segment.close();
+		}
+	}
+
+	/**
+	 * Events matching every non-null filter with {@code from <= timestamp <= to},
+	 * newest first. A username narrows the scan to that user's records through
+	 * the per-user index; otherwise the sparse time index skips blocks outside
+	 * the range.
+	 */
+	public List<AuditEvent> query(String username, String action, long from, long to, int limit) throws IOException {
+		List<AuditEvent> results = new ArrayList<>(Math.min(limit, 1024));
+		for (AuditSegment segment : segments.descendingMap().values()) {
+			if (results.size() >= limit) {
+				break;
+			}
+			if (segment.getRecords() == 0 || segment.getMinTimestamp() > to || segment.getMaxTimestamp() < from) {
+				continue;
+			}
+			segment.collect(username, action, from, to, limit - results.size(), results);
+		}
+		return results;
+	}
+
+	/**
+	 * Deletes sealed segments whose newest event is older than the cutoff
+	 *
+	 * @return number of segments removed
+	 */
+	public int applyRetention(long cutoff) {
+		int removed = 0;
+		for (AuditSegment segment : segments.values()) {
+			if (segment == active || segment.getMaxTimestamp() >= cutoff) {
+				continue;
+			}
+			if (segments.remove(segment.getStart(), segment)) {
+				delete(segment);
+				removed++;
+			}
+		}
+		return removed;
+	}
+
+	/**
+	 * Merges the sealed segments of each UTC day that ended before the cutoff into
+	 * as few segments as the size cap allows, so old history is kept in few,
+	 * large files that can still be mapped and indexed with int offsets
+	 *
+	 * @return number of segments merged away
+	 */
+	public int compact(long cutoff) throws IOException {
+		Map<Long, List<AuditSegment>> days = new LinkedHashMap<>();
+		for (AuditSegment segment : segments.values()) {
+			if (segment == active || segment.getMaxTimestamp() >= cutoff) {
+				continue;
+			}
+			days.computeIfAbsent(Math.floorDiv(segment.getStart(), DAY_MILLIS), k -> new ArrayList<>()).add(segment);
+		}
+
+		int merged = 0;
+		for (List<AuditSegment> day : days.values()) {
+			for (List<AuditSegment> run : capped(day)) {
+				if (run.size() > 1) {
+					merge(run);
+					merged += run.size() - 1;
+				}
+			}
+		}
+		return merged;
+	}
+
+	// Consecutive runs of segments whose combined size stays within maxSegmentBytes
+	private List<List<AuditSegment>> capped(List<AuditSegment> day) {
+		List<List<AuditSegment>> runs = new ArrayList<>();
+		List<AuditSegment> run = new ArrayList<>();
+		long runBytes = 0;
+		for (AuditSegment segment : day) {
+			long size = segment.size();
+			if (!run.isEmpty() && runBytes + size > maxSegmentBytes) {
+				runs.add(run);
+				run = new ArrayList<>();
+				runBytes = 0;
+			}
+			run.add(segment);
+			runBytes += size;
+		}
+		if (!run.isEmpty()) {
+			runs.add(run);
+		}
+		return runs;
+	}
+
+	private void merge(List<AuditSegment> run) throws IOException {
+		long first = run.get(0).getStart();
+		long last = run.get(run.size() - 1).getStart();
+		Path target = directory.resolve(String.format("audit-%013d-%013d.seg", first, last));
+		Path temporary = directory.resolve(target.getFileName() + ".tmp");
+
+		try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			for (AuditSegment segment : run) {
+				ByteBuffer contents = segment.contents();
+				while (contents.hasRemaining()) {
+					out.write(contents);
+				}
+			}
+			out.force(true);
+		}
+		Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+		// Swap in the merged segment before retiring the originals: a concurrent query may
+		// briefly see an event twice, but never misses one
+		AuditSegment compacted = AuditSegment.open(target, first, bucketOf(first), objectMapper);
+		segments.put(first, compacted);
+		for (AuditSegment segment : run) {
+			if (segment.getStart() != first) {
+				segments.remove(segment.getStart(), segment);
+			}
+			if (!segment.getPath().equals(target)) {
+				delete(segment);
+			}
+		}
+	}
+
+	private void roll(long timestamp, long bucket) throws IOException {
+		if (active != null) {
+			active.seal();
+		}
+		// Keys must be unique even when a size-based roll happens within the same millisecond
+		long start = Math.max(timestamp, segments.isEmpty() ? timestamp : segments.lastKey() + 1);
+		Path path = directory.resolve(String.format("audit-%013d.seg", start));
+		AuditSegment segment = AuditSegment.create(path, start, bucket, objectMapper);
+		// Mark it active first so maintenance never treats the new, empty segment as expired
+		active = segment;
+		segments.put(start, segment);
+	}
+
+	private void load() throws IOException {
+		List<Path> plain = new ArrayList<>();
+		Map<Path, long[]> compacted = new LinkedHashMap<>();
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+			for (Path file : files) {
+				String name = file.getFileName().toString();
+				if (name.endsWith(".tmp")) {
+					// Left behind by an interrupted compaction; the originals are still in place
+					Files.deleteIfExists(file);
+					continue;
+				}
+				Matcher matcher = SEGMENT_NAME.matcher(name);
+				if (!matcher.matches()) {
+					continue;
+				}
+				if (matcher.group(2) != null) {
+					compacted.put(file, new long[] { Long.parseLong(matcher.group(1)), Long.parseLong(matcher.group(2)) });
+				} else {
+					plain.add(file);
+				}
+			}
+		}
+
+		// A compaction that crashed before deleting its inputs leaves files covered by a wider one
+		List<long[]> ranges = new ArrayList<>(compacted.values());
+		for (Map.Entry<Path, long[]> entry : compacted.entrySet()) {
+			long[] range = entry.getValue();
+			if (ranges.stream().anyMatch(other -> other != range && covers(other, range[0]) && covers(other, range[1]))) {
+				Files.deleteIfExists(entry.getKey());
+			} else {
+				segments.put(range[0], AuditSegment.open(entry.getKey(), range[0], bucketOf(range[0]), objectMapper));
+			}
+		}
+		for (Path file : plain) {
+			Matcher matcher = SEGMENT_NAME.matcher(file.getFileName().toString());
+			matcher.matches();
+			long start = Long.parseLong(matcher.group(1));
+			if (ranges.stream().anyMatch(range -> covers(range, start))) {
+				Files.deleteIfExists(file);
+			} else {
+				segments.put(start, AuditSegment.open(file, start, bucketOf(start), objectMapper));
+			}
+		}
+		logger.info("Opened audit store at {} with {} segments", directory, segments.size());
+	}
+
+	private boolean covers(long[] range, long start) {
+		return start >= range[0] && start <= range[1];
+	}
+
+	private void delete(AuditSegment segment) {
+		try {
+			segment.close();
+			Files.deleteIfExists(segment.getPath());
+		} catch (IOException e) {
+			logger.error("Error deleting audit segment {}: {}", segment.getPath(), e.getMessage());
+		}
+	}
+
+	private long bucketOf(long timestamp) {
+		return timestamp - Math.floorMod(timestamp, segmentMillis);
+	}
+}
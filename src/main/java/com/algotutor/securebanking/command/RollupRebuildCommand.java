@@ -0,0 +1,36 @@
+package com.algotutor.securebanking.command;
+
+import com.algotutor.securebanking.service.TransactionRollupService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Regenerates the transaction rollups when the application is started with
+ * {@code --rebuild-rollups}. Such a run starts without a web server (see
+ * {@link com.algotutor.securebanking.SecureBankingApiApplication}), so the node
+ * accepts no postings while the rollups are replaced, and exits afterwards.
+ */
+@Component
+public class RollupRebuildCommand implements ApplicationRunner {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RollupRebuildCommand.class);
+    
+    public static final String OPTION = "rebuild-rollups";
+    
+    @Autowired
+    private TransactionRollupService transactionRollupService;
+    
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption(OPTION)) {
+            return;
+        }
+        logger.info("Rollup rebuild requested on the command line");
+        int written = transactionRollupService.rebuild();
+        logger.info("Rollup rebuild finished, {} rows written", written);
+    }
+}
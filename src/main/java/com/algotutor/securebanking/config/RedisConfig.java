@@ -1,22 +1,50 @@
 package com.algotutor.securebanking.config;
 
 import java.time.Duration;
+import java.util.List;
+import java.util.Set;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.connection.RedisClusterConfiguration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisSentinelConfiguration;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.connection.lettuce.LettucePoolingClientConfiguration;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import com.algotutor.securebanking.entity.RefreshToken;
+
+import io.lettuce.core.cluster.ClusterClientOptions;
+import io.lettuce.core.cluster.ClusterTopologyRefreshOptions;
+
+/**
+ * Redis connections and templates.
+ *
+ * {@code app.redis.mode} selects the topology: {@code standalone} connects to
+ * {@code spring.data.redis.host}/{@code port}, {@code sentinel} asks the
+ * sentinels in {@code app.redis.sentinel.nodes} for the current master,
+ * and {@code cluster} discovers the cluster from
+ * {@code app.redis.cluster.nodes}. Keys that scripts or multi-key
+ * commands use together carry hash tags (see {@link RedisKeys}), so the same
+ * code runs in all three modes.
+ */
 @Configuration
 public class RedisConfig {
 
+    private static final Logger logger = LoggerFactory.getLogger(RedisConfig.class);
+
+    @Value("${app.redis.mode:standalone}")
+    private String mode;
+
 	@Value("${spring.data.redis.host:localhost}")
     private String redisHost;
     
@@ -29,9 +57,51 @@ public class RedisConfig {
     @Value("${spring.data.redis.timeout:2000ms}")
     private Duration timeout;
     
+    @Value("${app.redis.sentinel.master:}")
+    private String sentinelMaster;
+    
+    @Value("${app.redis.sentinel.nodes:}")
+    private List<String> sentinelNodes;
+    
+    @Value("${app.redis.sentinel.password:}")
+    private String sentinelPassword;
+    
+    @Value("${app.redis.cluster.nodes:}")
+    private List<String> clusterNodes;
+    
+    @Value("${app.redis.cluster.max-redirects:3}")
+    private int clusterMaxRedirects;
+    
+    @Value("${app.redis.cluster.topology-refresh:PT30S}")
+    private Duration clusterTopologyRefresh;
+    
     @Bean
     @Primary
     public RedisConnectionFactory redisConnectionFactory() {
+        LettucePoolingClientConfiguration.LettucePoolingClientConfigurationBuilder clientConfig =
+            LettucePoolingClientConfiguration.builder().commandTimeout(timeout);
+        
+        LettuceConnectionFactory factory = switch (mode.toLowerCase()) {
+            case "standalone" -> new LettuceConnectionFactory(standaloneConfiguration(), clientConfig.build());
+            case "sentinel" -> new LettuceConnectionFactory(sentinelConfiguration(), clientConfig.build());
+            case "cluster" -> {
+                // Follow failovers and resharding: refresh the slot map periodically and on
+                // MOVED/ASK redirects or reconnects
+                ClusterTopologyRefreshOptions refresh = ClusterTopologyRefreshOptions.builder()
+                    .enablePeriodicRefresh(clusterTopologyRefresh)
+                    .enableAllAdaptiveRefreshTriggers()
+                    .build();
+                clientConfig.clientOptions(ClusterClientOptions.builder().topologyRefreshOptions(refresh).build());
+                yield new LettuceConnectionFactory(clusterConfiguration(), clientConfig.build());
+            }
+            default -> throw new IllegalStateException(
+                "Unknown app.redis.mode '" + mode + "', expected standalone, sentinel or cluster");
+        };
+        logger.info("Redis mode: {}", mode);
+        return factory;
+    }
+    
+    private RedisStandaloneConfiguration standaloneConfiguration() {
         RedisStandaloneConfiguration config = new RedisStandaloneConfiguration();
         config.setHostName(redisHost);
         config.setPort(redisPort);
@@ -39,15 +109,35 @@ public class RedisConfig {
         if (!redisPassword.isEmpty()) {
             config.setPassword(redisPassword);
         }
-        
-        // Configure connection pooling
-        LettucePoolingClientConfiguration clientConfig = LettucePoolingClientConfiguration.builder()
-            .commandTimeout(timeout)
-            .build();
-        
-        return new LettuceConnectionFactory(config, clientConfig);
+        return config;
+    }
+    
+    private RedisSentinelConfiguration sentinelConfiguration() {
+        if (sentinelMaster.isEmpty() || sentinelNodes.isEmpty()) {
+            throw new IllegalStateException(
+                "Sentinel mode needs app.redis.sentinel.master and app.redis.sentinel.nodes");
+        }
+        RedisSentinelConfiguration config = new RedisSentinelConfiguration(sentinelMaster, Set.copyOf(sentinelNodes));
+        if (!redisPassword.isEmpty()) {
+            config.setPassword(redisPassword);
+        }
+        if (!sentinelPassword.isEmpty()) {
+            config.setSentinelPassword(sentinelPassword);
+        }
+        return config;
     }
     
+    private RedisClusterConfiguration clusterConfiguration() {
+        if (clusterNodes.isEmpty()) {
+            throw new IllegalStateException("Cluster mode needs app.redis.cluster.nodes");
+        }
+        RedisClusterConfiguration config = new RedisClusterConfiguration(clusterNodes);
+        config.setMaxRedirects(clusterMaxRedirects);
+        if (!redisPassword.isEmpty()) {
+            config.setPassword(redisPassword);
+        }
+        return config;
+    }
     
     @Bean
     @Primary
@@ -70,6 +160,26 @@ public class RedisConfig {
         return template;
     }
     
+    /**
+     * Refresh tokens use a compact binary value encoding; see
+     * {@link RefreshTokenRedisSerializer}
+     */
+    @Bean
+    public RefreshTokenRedisSerializer refreshTokenRedisSerializer() {
+        return new RefreshTokenRedisSerializer();
+    }
+    
+    @Bean
+    public RedisTemplate<String, RefreshToken> refreshTokenRedisTemplate(RedisConnectionFactory connectionFactory,
+            RefreshTokenRedisSerializer refreshTokenRedisSerializer) {
+        RedisTemplate<String, RefreshToken> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(new StringRedisSerializer());
+        template.setValueSerializer(refreshTokenRedisSerializer);
+        template.afterPropertiesSet();
+        return template;
+    }
+    
     @Bean
     public RedisTemplate<String, String> stringRedisTemplate(RedisConnectionFactory connectionFactory) {
         RedisTemplate<String, String> template = new RedisTemplate<>();
@@ -85,4 +195,15 @@ public class RedisConfig {
         return template;
     }
     
+    /**
+     * Pub/sub subscriptions (e.g. cache invalidation broadcasts). Subscribing
+     * happens in the background and is retried, so startup does not wait for Redis.
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        return container;
+    }
+    
 }
@@ -0,0 +1,59 @@
+package com.algotutor.securebanking.config;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Hash tags for keys that are used together in one command or script, so a
+ * Redis Cluster keeps them in one slot.
+ *
+ * Everything a user owns is tagged with the user's tag, the first
+ * {@value #TAG_LENGTH} hex characters of the SHA-1 of the username (scripts
+ * compute the same value with {@code redis.sha1hex}). Refresh tokens start with
+ * their owner's tag, so a token key is tagged with the token's own first
+ * characters and still lands in the owner's slot when all the client sends is
+ * the token.
+ */
+public final class RedisKeys {
+
+	public static final int TAG_LENGTH = 4;
+
+	private RedisKeys() {
+	}
+
+	/**
+	 * Slot tag of everything the user owns
+	 */
+	public static String userTag(String username) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-1").digest(username.getBytes(StandardCharsets.UTF_8));
+			return HexFormat.of().formatHex(digest, 0, TAG_LENGTH / 2);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-1 not available", e);
+		}
+	}
+
+	/**
+	 * {@code prefix{tag}id}
+	 */
+	public static String tagged(String prefix, String tag, String id) {
+		return prefix + "{" + tag + "}" + id;
+	}
+
+	/**
+	 * Key of something the user owns, e.g. {@code user_tokens:{1f3a}alice}
+	 */
+	public static String userKey(String prefix, String username) {
+		return tagged(prefix, userTag(username), username);
+	}
+
+	/**
+	 * Key of a token that starts with its slot tag, e.g.
+	 * {@code refresh_token:{1f3a}1f3a6b0e-...}
+	 */
+	public static String tokenKey(String prefix, String token) {
+		return tagged(prefix, token.substring(0, Math.min(TAG_LENGTH, token.length())), token);
+	}
+}
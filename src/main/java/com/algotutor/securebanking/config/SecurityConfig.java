@@ -1,6 +1,7 @@
 package com.algotutor.securebanking.config;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -25,6 +26,8 @@ import com.algotutor.securebanking.security.JwtAuthenticationEntryPoint;
 import com.algotutor.securebanking.security.JwtAuthenticationFilter;
 import com.algotutor.securebanking.service.impl.UserDetailsServiceImpl;
 
+import jakarta.servlet.DispatcherType;
+
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity(prePostEnabled = true)
@@ -63,12 +66,16 @@ public class SecurityConfig {
 	// API Security (JWT)
 	// =======================
 	@Bean
+	@ConditionalOnWebApplication
 	public SecurityFilterChain apiFilterChain(HttpSecurity http) throws Exception {
 		http.securityMatcher("/api/**") // <--- important: restrict this chain only to /api/**
 				.cors(AbstractHttpConfigurer::disable).csrf(AbstractHttpConfigurer::disable)
 				.exceptionHandling(exception -> exception.authenticationEntryPoint(unauthorizedHandler))
 				.sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
-				.authorizeHttpRequests(auth -> auth.requestMatchers("/api/auth/**", "/api/public/**").permitAll()
+				// ASYNC re-dispatch of an already authorized request (streaming exports);
+				// the stateless JWT context is not carried over to it
+				.authorizeHttpRequests(auth -> auth.dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+						.requestMatchers("/api/auth/**", "/api/public/**").permitAll()
 						.requestMatchers("/swagger-ui/**", "/swagger-ui.html", "/v3/api-docs/**",
 								"/swagger-resources/**", "/webjars/**")
 						.permitAll().requestMatchers("/h2-console/**").permitAll().requestMatchers("/api/admin/**")
@@ -88,6 +95,7 @@ public class SecurityConfig {
 	// Actuator Security (Basic Auth)
 	// =======================
 	@Bean
+	@ConditionalOnWebApplication
 	public SecurityFilterChain actuatorFilterChain(HttpSecurity http) throws Exception {
 		http.securityMatcher("/actuator/**") // <--- isolate actuator paths
 				.authorizeHttpRequests(auth -> auth.requestMatchers("/actuator/health", "/actuator/health/**")
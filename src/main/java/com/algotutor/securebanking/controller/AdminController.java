@@ -0,0 +1,69 @@
+package com.algotutor.securebanking.controller;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.algotutor.securebanking.dto.admin.AuditEventDto;
+import com.algotutor.securebanking.dto.admin.SessionRevocationJobDto;
+import com.algotutor.securebanking.dto.admin.SessionRevocationRequest;
+import com.algotutor.securebanking.service.AuditService;
+import com.algotutor.securebanking.service.SessionRevocationService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+
+@RestController
+@RequestMapping("/api/admin")
+@PreAuthorize("hasRole('ADMIN')")
+@SecurityRequirement(name = "bearerAuth")
+@Tag(name = "Admin Operations", description = "Administrative operations")
+public class AdminController {
+
+	@Autowired
+	private AuditService auditService;
+
+	@Autowired
+	private SessionRevocationService sessionRevocationService;
+
+	@GetMapping("/audit")
+	@Operation(summary = "Query audit trail", description = "Audit events filtered by user, action and time range "
+			+ "(ISO date-times, inclusive), newest first")
+	public ResponseEntity<List<AuditEventDto>> getAuditEvents(@RequestParam(required = false) String username,
+			@RequestParam(required = false) String action,
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+			@RequestParam(required = false) Integer limit) {
+		return ResponseEntity.ok(auditService.findEvents(username, action, from, to, limit));
+	}
+
+	@PostMapping("/sessions/revocations")
+	@Operation(summary = "Revoke sessions in bulk", description = "Starts a background job revoking the sessions of "
+			+ "the listed users (or of every user) issued before issuedBefore (default: now); returns the job to poll")
+	public ResponseEntity<SessionRevocationJobDto> revokeSessions(@Valid @RequestBody SessionRevocationRequest request,
+			Authentication authentication) {
+		return ResponseEntity.status(HttpStatus.ACCEPTED)
+				.body(sessionRevocationService.startRevocation(request, authentication.getName()));
+	}
+
+	@GetMapping("/sessions/revocations/{id}")
+	@Operation(summary = "Session revocation progress", description = "Status and counters of a bulk revocation job")
+	public ResponseEntity<SessionRevocationJobDto> getSessionRevocation(@PathVariable String id) {
+		return ResponseEntity.ok(sessionRevocationService.getJob(id));
+	}
+}
@@ -7,6 +7,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -52,8 +53,12 @@ public class AuthController {
 	
 	@PostMapping("/logout")
     @Operation(summary = "User logout", description = "Logs out the current user")
-    public ResponseEntity<Map<String, String>> logoutUser(Authentication authentication) {
-        authService.logout(authentication.getName());
+    public ResponseEntity<Map<String, String>> logoutUser(Authentication authentication,
+            @RequestHeader(value = "Authorization", required = false) String authorization) {
+        String accessToken = authorization != null && authorization.startsWith("Bearer ")
+                ? authorization.substring(7)
+                : null;
+        authService.logout(authentication.getName(), accessToken);
         return ResponseEntity.ok(Map.of("message", "User logged out successfully"));
     }
 	
@@ -1,8 +1,13 @@
 package com.algotutor.securebanking.controller;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -11,17 +16,32 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.algotutor.securebanking.dto.banking.AccountDto;
+import com.algotutor.securebanking.dto.banking.BalanceDto;
+import com.algotutor.securebanking.dto.banking.BatchTransferRequest;
+import com.algotutor.securebanking.dto.banking.BatchTransferResponse;
 import com.algotutor.securebanking.dto.banking.DepositRequest;
+import com.algotutor.securebanking.dto.banking.ExportFormat;
 import com.algotutor.securebanking.dto.banking.TransactionDto;
+import com.algotutor.securebanking.dto.banking.TransactionPageDto;
+import com.algotutor.securebanking.dto.banking.TransactionTotalDto;
 import com.algotutor.securebanking.dto.banking.TransferRequest;
 import com.algotutor.securebanking.dto.banking.WithdrawalRequest;
+import com.algotutor.securebanking.service.AccountOwnershipService;
 import com.algotutor.securebanking.service.AccountService;
+import com.algotutor.securebanking.service.BalanceCheckpointService;
+import com.algotutor.securebanking.service.IdempotencyService;
+import com.algotutor.securebanking.service.TransactionExportService;
 import com.algotutor.securebanking.service.TransactionService;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -37,9 +57,28 @@ public class CustomerController {
 	@Autowired
 	private AccountService accountService;
 
+	@Autowired
+	private AccountOwnershipService accountOwnershipService;
+
 	@Autowired
 	private TransactionService transactionService;
 
+	@Autowired
+	private IdempotencyService idempotencyService;
+
+	@Autowired
+	private TransactionExportService transactionExportService;
+
+	@Autowired
+	private BalanceCheckpointService balanceCheckpointService;
+
+	private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+	private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+	// Lower bound used when an export does not specify 'from'
+	private static final LocalDateTime EXPORT_EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
 	@GetMapping("/accounts")
 	@Operation(summary = "Get customer accounts", description = "Retrieves all accounts belonging to the authenticated customer")
 	public ResponseEntity<List<AccountDto>> getMyAccounts(Authentication authentication) {
@@ -53,11 +92,7 @@ public class CustomerController {
 			Authentication authentication) {
 
 		// Verify account belongs to the authenticated user
-		List<AccountDto> userAccounts = accountService.getUserAccounts(authentication.getName());
-		boolean accountBelongsToUser = userAccounts.stream()
-				.anyMatch(account -> account.getAccountNumber().equals(accountNumber));
-
-		if (!accountBelongsToUser) {
+		if (!accountOwnershipService.isOwner(authentication.getName(), accountNumber)) {
 			return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
 		}
 
@@ -65,47 +100,106 @@ public class CustomerController {
 		return ResponseEntity.ok(account);
 	}
 
+	@GetMapping("/accounts/{accountNumber}/balance")
+	@Operation(summary = "Get historical balance", description = "Returns the account balance including every transaction up to 'asOf' "
+			+ "(ISO date-time, defaults to now)")
+	public ResponseEntity<BalanceDto> getBalanceAsOf(@PathVariable String accountNumber,
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf,
+			Authentication authentication) {
+
+		// Verify account belongs to the authenticated user
+		if (!accountOwnershipService.isOwner(authentication.getName(), accountNumber)) {
+			return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+		}
+
+		BalanceDto balance = balanceCheckpointService.getBalanceAsOf(accountNumber,
+				asOf != null ? asOf : LocalDateTime.now());
+		return ResponseEntity.ok(balance);
+	}
+
+	@GetMapping("/accounts/{accountNumber}/totals")
+	@Operation(summary = "Get transaction totals", description = "Count and sum per transaction type between 'from' and 'to' (inclusive, ISO dates)")
+	public ResponseEntity<List<TransactionTotalDto>> getTotalsByType(@PathVariable String accountNumber,
+			@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+			@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+			Authentication authentication) {
+
+		// Verify account belongs to the authenticated user
+		if (!accountOwnershipService.isOwner(authentication.getName(), accountNumber)) {
+			return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+		}
+
+		return ResponseEntity.ok(transactionService.getTotalsByType(accountNumber, from, to));
+	}
+
 	@GetMapping("/accounts/{accountNumber}/transactions")
-	@Operation(summary = "Get account transactions", description = "Retrieves transaction history for a specific account")
+	@Operation(summary = "Get account transactions", description = "Retrieves one page of transaction history for a specific account, newest first. "
+			+ "Pass the X-Next-Cursor response header back as 'cursor' to fetch the next page")
 	public ResponseEntity<List<TransactionDto>> getAccountTransactions(@PathVariable String accountNumber,
+			@RequestParam(required = false) Integer size, @RequestParam(required = false) String cursor,
 			Authentication authentication) {
 
 		// Verify account belongs to the authenticated user
-		List<AccountDto> userAccounts = accountService.getUserAccounts(authentication.getName());
-		boolean accountBelongsToUser = userAccounts.stream()
-				.anyMatch(account -> account.getAccountNumber().equals(accountNumber));
+		if (!accountOwnershipService.isOwner(authentication.getName(), accountNumber)) {
+			return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+		}
 
-		if (!accountBelongsToUser) {
+		TransactionPageDto page = transactionService.getAccountTransactionsPage(accountNumber, size, cursor);
+		return pageResponse(page);
+	}
+
+	@GetMapping("/accounts/{accountNumber}/transactions/export")
+	@Operation(summary = "Export account transactions", description = "Streams the account's transactions between 'from' and 'to' (inclusive, ISO date-time) "
+			+ "as NDJSON or CSV, newest first")
+	public ResponseEntity<StreamingResponseBody> exportAccountTransactions(@PathVariable String accountNumber,
+			@RequestParam(defaultValue = "NDJSON") ExportFormat format,
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+			Authentication authentication) {
+
+		// Verify account belongs to the authenticated user
+		if (!accountOwnershipService.isOwner(authentication.getName(), accountNumber)) {
 			return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
 		}
 
-		List<TransactionDto> transactions = transactionService.getAccountTransactions(accountNumber);
-		return ResponseEntity.ok(transactions);
+		LocalDateTime startDate = from != null ? from : EXPORT_EPOCH;
+		LocalDateTime endDate = to != null ? to : LocalDateTime.now();
+
+		StreamingResponseBody body = outputStream -> transactionExportService.exportAccountTransactions(accountNumber,
+				startDate, endDate, format, outputStream);
+
+		return ResponseEntity.ok()
+				.contentType(format.getMediaType())
+				.header(HttpHeaders.CONTENT_DISPOSITION,
+						"attachment; filename=\"transactions-" + accountNumber + "." + format.getExtension() + "\"")
+				.body(body);
 	}
 
 	@GetMapping("/transactions")
-	@Operation(summary = "Get all customer transactions", description = "Retrieves all transactions for the authenticated customer")
-	public ResponseEntity<List<TransactionDto>> getMyTransactions(Authentication authentication) {
-		List<TransactionDto> transactions = transactionService.getUserTransactions(authentication.getName());
-		return ResponseEntity.ok(transactions);
+	@Operation(summary = "Get all customer transactions", description = "Retrieves one page of transactions across the customer's accounts, newest first. "
+			+ "Pass the X-Next-Cursor response header back as 'cursor' to fetch the next page")
+	public ResponseEntity<List<TransactionDto>> getMyTransactions(@RequestParam(required = false) Integer size,
+			@RequestParam(required = false) String cursor, Authentication authentication) {
+		TransactionPageDto page = transactionService.getUserTransactionsPage(authentication.getName(), size, cursor);
+		return pageResponse(page);
 	}
 	
 	@PostMapping("/accounts/deposit")
 	@Operation(summary = "Deposit money", description = "Deposits money into customer's account")
 	public ResponseEntity<TransactionDto> deposit(
 	        @Valid @RequestBody DepositRequest depositRequest,
+	        @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
 	        Authentication authentication) {
 	    
 	    // Verify account belongs to the authenticated user
-	    List<AccountDto> userAccounts = accountService.getUserAccounts(authentication.getName());
-	    boolean accountBelongsToUser = userAccounts.stream()
-	        .anyMatch(account -> account.getAccountNumber().equals(depositRequest.getAccountNumber()));
-	    
-	    if (!accountBelongsToUser) {
+	    if (!accountOwnershipService.isOwner(authentication.getName(), depositRequest.getAccountNumber())) {
 	        return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
 	    }
 	    
-	    TransactionDto transaction = transactionService.deposit(depositRequest);
+	    TransactionDto transaction = idempotencyService.execute(
+	        "deposit:" + authentication.getName(), idempotencyKey, depositRequest,
+	        new TypeReference<TransactionDto>() {},
+	        () -> transactionService.deposit(depositRequest));
 	    return ResponseEntity.ok(transaction);
 	}
 	
@@ -113,18 +207,18 @@ public class CustomerController {
 	@Operation(summary = "Withdraw money", description = "Withdraws money from customer's account")
 	public ResponseEntity<TransactionDto> withdraw(
 	        @Valid @RequestBody WithdrawalRequest withdrawalRequest,
+	        @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
 	        Authentication authentication) {
 	    
 	    // Verify account belongs to the authenticated user
-	    List<AccountDto> userAccounts = accountService.getUserAccounts(authentication.getName());
-	    boolean accountBelongsToUser = userAccounts.stream()
-	        .anyMatch(account -> account.getAccountNumber().equals(withdrawalRequest.getAccountNumber()));
-	    
-	    if (!accountBelongsToUser) {
+	    if (!accountOwnershipService.isOwner(authentication.getName(), withdrawalRequest.getAccountNumber())) {
 	        return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
 	    }
 	    
-	    TransactionDto transaction = transactionService.withdraw(withdrawalRequest);
+	    TransactionDto transaction = idempotencyService.execute(
+	        "withdraw:" + authentication.getName(), idempotencyKey, withdrawalRequest,
+	        new TypeReference<TransactionDto>() {},
+	        () -> transactionService.withdraw(withdrawalRequest));
 	    return ResponseEntity.ok(transaction);
 	}
 	
@@ -132,21 +226,40 @@ public class CustomerController {
 	@Operation(summary = "Transfer money", description = "Transfers money between accounts")
 	public ResponseEntity<List<TransactionDto>> transfer(
 	        @Valid @RequestBody TransferRequest transferRequest,
+	        @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
 	        Authentication authentication) {
 	    
 	    // Verify from account belongs to the authenticated user
-	    List<AccountDto> userAccounts = accountService.getUserAccounts(authentication.getName());
-	    boolean fromAccountBelongsToUser = userAccounts.stream()
-	        .anyMatch(account -> account.getAccountNumber().equals(transferRequest.getFromAccountNumber()));
-	    
-	    if (!fromAccountBelongsToUser) {
+	    if (!accountOwnershipService.isOwner(authentication.getName(), transferRequest.getFromAccountNumber())) {
 	        return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
 	    }
 	    
-	    List<TransactionDto> transactions = transactionService.transfer(transferRequest);
+	    List<TransactionDto> transactions = idempotencyService.execute(
+	        "transfer:" + authentication.getName(), idempotencyKey, transferRequest,
+	        new TypeReference<List<TransactionDto>>() {},
+	        () -> transactionService.transfer(transferRequest));
 	    return ResponseEntity.ok(transactions);
 	}
 	
+	@PostMapping("/accounts/transfer/batch")
+	@Operation(summary = "Batch transfer money", description = "Applies many transfers in one request; each item succeeds or fails independently")
+	public ResponseEntity<BatchTransferResponse> transferBatch(
+	        @Valid @RequestBody BatchTransferRequest batchRequest,
+	        Authentication authentication) {
+	    
+	    // Verify every from account belongs to the authenticated user (single lookup)
+	    Set<String> userAccountNumbers = accountOwnershipService.getOwnedAccountNumbers(authentication.getName());
+	    boolean allFromAccountsBelongToUser = batchRequest.getTransfers().stream()
+	        .allMatch(transfer -> userAccountNumbers.contains(transfer.getFromAccountNumber()));
+	    
+	    if (!allFromAccountsBelongToUser) {
+	        return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+	    }
+	    
+	    BatchTransferResponse response = transactionService.transferBatch(batchRequest.getTransfers());
+	    return ResponseEntity.ok(response);
+	}
+	
 	@GetMapping("/transactions/{transactionId}")
 	@Operation(summary = "Get transaction details", description = "Retrieves details of a specific transaction")
 	public ResponseEntity<TransactionDto> getTransaction(
@@ -156,16 +269,18 @@ public class CustomerController {
 	    TransactionDto transaction = transactionService.getTransactionById(transactionId);
 	    
 	    // Verify transaction belongs to the authenticated user
-	    List<AccountDto> userAccounts = accountService.getUserAccounts(authentication.getName());
-	    boolean transactionBelongsToUser = userAccounts.stream()
-	        .anyMatch(account -> account.getAccountNumber().equals(transaction.getAccountNumber()));
-	    
-	    if (!transactionBelongsToUser) {
+	    if (!accountOwnershipService.isOwner(authentication.getName(), transaction.getAccountNumber())) {
 	        return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
 	    }
 	    
 	    return ResponseEntity.ok(transaction);
 	}
 
-
+	private ResponseEntity<List<TransactionDto>> pageResponse(TransactionPageDto page) {
+		ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+		if (page.getNextCursor() != null) {
+			response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+		}
+		return response.body(page.getItems());
+	}
 }
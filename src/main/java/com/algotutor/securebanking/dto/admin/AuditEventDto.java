@@ -0,0 +1,31 @@
+package com.algotutor.securebanking.dto.admin;
+
+import java.time.LocalDateTime;
+
+import lombok.Data;
+
+@Data
+public class AuditEventDto {
+
+    private LocalDateTime timestamp;
+    private String username;
+    private String action;
+    private String resource;
+    private String method;
+    private String status;
+    private String error;
+    
+    // Constructors
+    public AuditEventDto() {}
+    
+    public AuditEventDto(LocalDateTime timestamp, String username, String action, String resource, String method,
+                         String status, String error) {
+        this.timestamp = timestamp;
+        this.username = username;
+        this.action = action;
+        this.resource = resource;
+        this.method = method;
+        this.status = status;
+        this.error = error;
+    }
+}
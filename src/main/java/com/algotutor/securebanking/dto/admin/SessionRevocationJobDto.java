@@ -0,0 +1,24 @@
+package com.algotutor.securebanking.dto.admin;
+
+import java.time.LocalDateTime;
+
+import lombok.Data;
+
+@Data
+public class SessionRevocationJobDto {
+
+    private String id;
+    private String status;
+    private String requestedBy;
+    private LocalDateTime issuedBefore;
+    private long usersTotal;
+    private long usersProcessed;
+    private long usersAffected;
+    private long tokensRevoked;
+    private LocalDateTime createdAt;
+    private LocalDateTime finishedAt;
+    private String error;
+
+    // Constructors
+    public SessionRevocationJobDto() {}
+}
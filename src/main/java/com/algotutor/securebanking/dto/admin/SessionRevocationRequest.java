@@ -0,0 +1,26 @@
+package com.algotutor.securebanking.dto.admin;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+public class SessionRevocationRequest {
+
+    // Users whose sessions are revoked; every user when omitted
+    private List<@NotBlank String> usernames;
+
+    // Without usernames, only sessions issued before this time are revoked; defaults to the
+    // time of the request. Listed users always lose every session
+    private LocalDateTime issuedBefore;
+
+    // Constructors
+    public SessionRevocationRequest() {}
+
+    public SessionRevocationRequest(List<String> usernames, LocalDateTime issuedBefore) {
+        this.usernames = usernames;
+        this.issuedBefore = issuedBefore;
+    }
+}
@@ -0,0 +1,27 @@
+package com.algotutor.securebanking.dto.banking;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import lombok.Data;
+
+@Data
+public class BalanceDto {
+
+    private String accountNumber;
+    private BigDecimal balance;
+    private LocalDateTime asOf;
+    
+    // Checkpoint the balance was derived from; null when computed from the full history
+    private LocalDateTime checkpointAt;
+    
+    // Constructors
+    public BalanceDto() {}
+    
+    public BalanceDto(String accountNumber, BigDecimal balance, LocalDateTime asOf, LocalDateTime checkpointAt) {
+        this.accountNumber = accountNumber;
+        this.balance = balance;
+        this.asOf = asOf;
+        this.checkpointAt = checkpointAt;
+    }
+}
@@ -0,0 +1,21 @@
+package com.algotutor.securebanking.dto.banking;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+@Data
+public class BatchTransferRequest {
+
+	@NotEmpty(message = "At least one transfer is required")
+	private List<@Valid TransferRequest> transfers;
+
+	// Constructors
+	public BatchTransferRequest() {}
+
+	public BatchTransferRequest(List<TransferRequest> transfers) {
+		this.transfers = transfers;
+	}
+}
@@ -0,0 +1,54 @@
+package com.algotutor.securebanking.dto.banking;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Data;
+
+@Data
+public class BatchTransferResponse {
+
+	private int total;
+	private int succeeded;
+	private int failed;
+	private List<ItemResult> results = new ArrayList<>();
+
+	public BatchTransferResponse() {}
+
+	public void addResult(ItemResult result) {
+		results.add(result);
+		total++;
+		if (result.isSuccess()) {
+			succeeded++;
+		} else {
+			failed++;
+		}
+	}
+
+	@Data
+	public static class ItemResult {
+		private int index;
+		private boolean success;
+		private String error;
+		private List<TransactionDto> transactions;
+
+		// Constructors
+		public ItemResult() {}
+
+		public static ItemResult success(int index, List<TransactionDto> transactions) {
+			ItemResult result = new ItemResult();
+			result.index = index;
+			result.success = true;
+			result.transactions = transactions;
+			return result;
+		}
+
+		public static ItemResult failure(int index, String error) {
+			ItemResult result = new ItemResult();
+			result.index = index;
+			result.success = false;
+			result.error = error;
+			return result;
+		}
+	}
+}
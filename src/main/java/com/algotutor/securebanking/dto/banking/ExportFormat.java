@@ -0,0 +1,24 @@
+package com.algotutor.securebanking.dto.banking;
+
+import org.springframework.http.MediaType;
+
+public enum ExportFormat {
+	NDJSON("application/x-ndjson", "ndjson"),
+	CSV("text/csv", "csv");
+
+	private final String contentType;
+	private final String extension;
+
+	ExportFormat(String contentType, String extension) {
+		this.contentType = contentType;
+		this.extension = extension;
+	}
+
+	public MediaType getMediaType() {
+		return MediaType.parseMediaType(contentType);
+	}
+
+	public String getExtension() {
+		return extension;
+	}
+}
@@ -17,6 +17,7 @@ public class TransactionDto {
     private LocalDateTime createdAt;
     private String accountNumber;
     private String targetAccountNumber;
+    private BigDecimal balanceAfter;
     
     // Constructors
     public TransactionDto() {}
@@ -32,4 +33,11 @@ public class TransactionDto {
         this.targetAccountNumber = targetAccountNumber;
     }
     
+    public TransactionDto(Long id, BigDecimal amount, TransactionType type, String description, 
+                         LocalDateTime createdAt, String accountNumber, String targetAccountNumber,
+                         BigDecimal balanceAfter) {
+        this(id, amount, type, description, createdAt, accountNumber, targetAccountNumber);
+        this.balanceAfter = balanceAfter;
+    }
+    
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.algotutor.securebanking.dto.banking;
+
+import java.util.List;
+
+import lombok.Data;
+
+@Data
+public class TransactionPageDto {
+
+    private List<TransactionDto> items;
+    
+    // Opaque cursor for the next page; null when this is the last page
+    private String nextCursor;
+    
+    // Constructors
+    public TransactionPageDto() {}
+    
+    public TransactionPageDto(List<TransactionDto> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,24 @@
+package com.algotutor.securebanking.dto.banking;
+
+import java.math.BigDecimal;
+
+import com.algotutor.securebanking.entity.TransactionType;
+
+import lombok.Data;
+
+@Data
+public class TransactionTotalDto {
+
+    private TransactionType type;
+    private long count;
+    private BigDecimal total;
+    
+    // Constructors
+    public TransactionTotalDto() {}
+    
+    public TransactionTotalDto(TransactionType type, long count, BigDecimal total) {
+        this.type = type;
+        this.count = count;
+        this.total = total;
+    }
+}
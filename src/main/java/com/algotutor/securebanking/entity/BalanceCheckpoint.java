@@ -0,0 +1,61 @@
+package com.algotutor.securebanking.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+/**
+ * Balance of an account at a point in time: the sum of every transaction
+ * created strictly before {@code asOf}. Written once per account per day the
+ * account had activity, so a historical balance only needs the transactions
+ * after the nearest checkpoint.
+ */
+@Entity
+@Table(name = "balance_checkpoints", uniqueConstraints = {
+		@UniqueConstraint(name = "uk_balance_checkpoints_account_as_of", columnNames = { "account_id", "as_of" }) })
+@Data
+public class BalanceCheckpoint {
+
+	@Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "balance_checkpoints_seq")
+    @SequenceGenerator(name = "balance_checkpoints_seq", sequenceName = "balance_checkpoints_seq", allocationSize = 50)
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "account_id", nullable = false)
+    private Account account;
+    
+    // Exclusive upper bound of the transactions included in the balance
+    @NotNull
+    @Column(name = "as_of", nullable = false)
+    private LocalDateTime asOf;
+    
+    @NotNull
+    @Column(precision = 15, scale = 2)
+    private BigDecimal balance;
+    
+    @Column(updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+    
+    // Constructors
+    public BalanceCheckpoint() {}
+    
+    public BalanceCheckpoint(Account account, LocalDateTime asOf, BigDecimal balance) {
+        this.account = account;
+        this.asOf = asOf;
+        this.balance = balance;
+    }
+}
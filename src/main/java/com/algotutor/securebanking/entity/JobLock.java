@@ -0,0 +1,26 @@
+package com.algotutor.securebanking.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+/**
+ * One row per scheduled job that must run on a single node at a time. A node
+ * runs the job only while it holds this row locked; the others skip the run.
+ */
+@Entity
+@Table(name = "job_locks")
+@Data
+public class JobLock {
+
+	@Id
+    private String name;
+    
+    // Constructors
+    public JobLock() {}
+    
+    public JobLock(String name) {
+        this.name = name;
+    }
+}
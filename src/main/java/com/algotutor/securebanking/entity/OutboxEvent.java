@@ -0,0 +1,60 @@
+package com.algotutor.securebanking.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+/**
+ * An account event waiting to be relayed to downstream consumers. Written in
+ * the same database transaction as the posting it describes and deleted once
+ * it has been published.
+ */
+@Entity
+@Table(name = "outbox_events", indexes = {
+		// The relay reads one partition at a time in id order
+		@Index(name = "idx_outbox_events_partition_id", columnList = "partition_key, id") })
+@Data
+public class OutboxEvent {
+
+	// Not pooled: ids are drawn while the posting holds the account row lock, so
+	// for any one account they increase in commit order even across nodes
+	@Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_events_seq")
+    @SequenceGenerator(name = "outbox_events_seq", sequenceName = "outbox_events_seq", allocationSize = 1)
+    private Long id;
+    
+    // Derived from the account number, so all of an account's events share one relay partition
+    @Column(name = "partition_key", nullable = false)
+    private int partitionKey;
+    
+    // Account number the event belongs to
+    @Column(nullable = false)
+    private String aggregateId;
+    
+    @Column(nullable = false)
+    private String eventType;
+    
+    @Column(nullable = false, length = 4000)
+    private String payload;
+    
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+    
+    // Constructors
+    public OutboxEvent() {}
+    
+    public OutboxEvent(int partitionKey, String aggregateId, String eventType, String payload) {
+        this.partitionKey = partitionKey;
+        this.aggregateId = aggregateId;
+        this.eventType = eventType;
+        this.payload = payload;
+    }
+}
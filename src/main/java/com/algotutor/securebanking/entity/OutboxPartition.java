@@ -0,0 +1,27 @@
+package com.algotutor.securebanking.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+/**
+ * One row per outbox relay partition. A relay owns a partition for as long as
+ * it holds this row locked, which keeps each account's events in order when
+ * several nodes relay at once.
+ */
+@Entity
+@Table(name = "outbox_partitions")
+@Data
+public class OutboxPartition {
+
+	@Id
+    private Integer id;
+    
+    // Constructors
+    public OutboxPartition() {}
+    
+    public OutboxPartition(Integer id) {
+        this.id = id;
+    }
+}
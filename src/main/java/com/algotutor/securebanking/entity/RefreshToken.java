@@ -38,6 +38,10 @@ public class RefreshToken {
 	private String ipAddress;
 	private String userAgent;
 
+	// Dictionary id of the user agent in the binary Redis encoding
+	@JsonIgnore
+	private Long userAgentId;
+
 	public RefreshToken(String token, String username, Long userId, LocalDateTime expiryDate, String ipAddress,
 			String userAgent) {
 		this.token = token;
@@ -11,20 +11,27 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+		// Backs keyset pagination of an account's history: (account, newest first, tie-break on id)
+		@Index(name = "idx_transactions_account_created_id", columnList = "account_id, created_at, id"),
+		// Finds the accounts touched on a given day for balance checkpoints
+		@Index(name = "idx_transactions_created_at", columnList = "created_at") })
 @Data
 public class Transaction {
 
 	@Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transactions_seq")
+    @SequenceGenerator(name = "transactions_seq", sequenceName = "transactions_seq", allocationSize = 50)
     private Long id;
     
     @NotNull
@@ -37,6 +44,11 @@ public class Transaction {
     
     private String description;
     
+    // Balance of 'account' right after this posting; null only on rows written
+    // before the column existed, until the backfill job has run
+    @Column(precision = 15, scale = 2)
+    private BigDecimal balanceAfter;
+    
     @Column(updatable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
     
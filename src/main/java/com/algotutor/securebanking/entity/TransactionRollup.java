@@ -0,0 +1,65 @@
+package com.algotutor.securebanking.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Data;
+
+/**
+ * Count and sum of one account's transactions of one type on one day.
+ * Maintained in the same database transaction as each posting, so totals over
+ * any date range are a read of at most one row per type and day.
+ */
+@Entity
+@Table(name = "transaction_rollups", uniqueConstraints = {
+		@UniqueConstraint(name = "uk_transaction_rollups_account_type_day", columnNames = { "account_id", "type",
+				"bucket_date" }) })
+@Data
+public class TransactionRollup {
+
+	@Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transaction_rollups_seq")
+    @SequenceGenerator(name = "transaction_rollups_seq", sequenceName = "transaction_rollups_seq", allocationSize = 50)
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "account_id", nullable = false)
+    private Account account;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TransactionType type;
+    
+    @Column(name = "bucket_date", nullable = false)
+    private LocalDate bucketDate;
+    
+    private long transactionCount;
+    
+    @Column(precision = 19, scale = 2)
+    private BigDecimal total = BigDecimal.ZERO;
+    
+    // Constructors
+    public TransactionRollup() {}
+    
+    public TransactionRollup(Account account, TransactionType type, LocalDate bucketDate, long transactionCount,
+                             BigDecimal total) {
+        this.account = account;
+        this.type = type;
+        this.bucketDate = bucketDate;
+        this.transactionCount = transactionCount;
+        this.total = total;
+    }
+}
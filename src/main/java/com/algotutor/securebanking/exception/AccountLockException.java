@@ -0,0 +1,12 @@
+package com.algotutor.securebanking.exception;
+
+public class AccountLockException extends RuntimeException {
+    
+    public AccountLockException(String message) {
+        super(message);
+    }
+    
+    public AccountLockException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
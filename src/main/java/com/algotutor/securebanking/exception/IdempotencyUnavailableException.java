@@ -0,0 +1,12 @@
+package com.algotutor.securebanking.exception;
+
+public class IdempotencyUnavailableException extends RuntimeException {
+    
+    public IdempotencyUnavailableException(String message) {
+        super(message);
+    }
+    
+    public IdempotencyUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,309 @@
+package com.algotutor.securebanking.metrics;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Custom banking metrics exposed through Micrometer (Prometheus)
+ */
+@Component
+public class BankingMetrics {
+
+	private final MeterRegistry meterRegistry;
+
+	// Authentication
+	private final Counter authAttempts;
+	private final Counter authSuccesses;
+	private final Counter authFailures;
+	private final Timer authTimer;
+	private final Counter jwtCacheHits;
+	private final Counter jwtCacheMisses;
+	private final Counter blacklistFiltered;
+	private final Counter blacklistLookups;
+
+	// Refresh token sweeper
+	private final Counter tokenSweepScanned;
+	private final Counter tokenSweepRemoved;
+
+	// Refresh token local tier
+	private final Counter tokenLocalHits;
+	private final Counter tokenLocalMisses;
+
+	// Account locking
+	private final Timer lockWaitTimer;
+	private final Counter lockContentions;
+	private final Counter lockTimeouts;
+
+	// Idempotency replay cache
+	private final Counter idempotencyHits;
+	private final Counter idempotencyMisses;
+	private final Counter idempotencyCollisions;
+	private final Counter idempotencyStoreFailures;
+
+	// Account read model
+	private final Counter accountCacheHits;
+	private final Counter accountCacheMisses;
+
+	// Audit pipeline
+	private final DistributionSummary auditBatchSize;
+	private final Timer auditWriteTimer;
+	private final Counter auditDropped;
+	private final Counter auditWriteFailures;
+
+	// Outbox relay
+	private final Counter outboxPublished;
+	private final Timer outboxPublishTimer;
+	private final Timer outboxLag;
+	private final Counter outboxPublishFailures;
+
+	public BankingMetrics(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+
+		this.authAttempts = Counter.builder("banking.auth.attempts")
+				.description("Total authentication attempts")
+				.register(meterRegistry);
+		this.authSuccesses = Counter.builder("banking.auth.successes")
+				.description("Successful authentications")
+				.register(meterRegistry);
+		this.authFailures = Counter.builder("banking.auth.failures")
+				.description("Failed authentications")
+				.register(meterRegistry);
+		this.authTimer = Timer.builder("banking.auth.duration")
+				.description("Time taken to authenticate a user")
+				.publishPercentileHistogram()
+				.register(meterRegistry);
+		this.jwtCacheHits = Counter.builder("banking.auth.jwt.cache.hits")
+				.description("Bearer tokens accepted from the verified-token cache")
+				.register(meterRegistry);
+		this.jwtCacheMisses = Counter.builder("banking.auth.jwt.cache.misses")
+				.description("Bearer tokens whose signature had to be verified")
+				.register(meterRegistry);
+		this.blacklistFiltered = Counter.builder("banking.auth.blacklist.filtered")
+				.description("Token revocation checks answered by the local Bloom filter")
+				.register(meterRegistry);
+		this.blacklistLookups = Counter.builder("banking.auth.blacklist.lookups")
+				.description("Token revocation checks that had to ask Redis")
+				.register(meterRegistry);
+
+		this.tokenSweepScanned = Counter.builder("banking.tokens.sweep.scanned")
+				.description("Redis keys examined by the refresh token sweeper")
+				.register(meterRegistry);
+		this.tokenSweepRemoved = Counter.builder("banking.tokens.sweep.removed")
+				.description("Expired refresh tokens and dangling user token set members removed")
+				.register(meterRegistry);
+
+		this.tokenLocalHits = Counter.builder("banking.tokens.local.hits")
+				.description("Refresh token lookups answered by the local tier while Redis was unavailable")
+				.register(meterRegistry);
+		this.tokenLocalMisses = Counter.builder("banking.tokens.local.misses")
+				.description("Refresh token lookups the local tier could not answer while Redis was unavailable")
+				.register(meterRegistry);
+
+		this.lockWaitTimer = Timer.builder("banking.account.lock.wait")
+				.description("Time spent waiting for account locks")
+				.publishPercentileHistogram()
+				.register(meterRegistry);
+		this.lockContentions = Counter.builder("banking.account.lock.contention")
+				.description("Account lock acquisitions that found the stripe already held")
+				.register(meterRegistry);
+		this.lockTimeouts = Counter.builder("banking.account.lock.timeouts")
+				.description("Account lock acquisitions that gave up waiting")
+				.register(meterRegistry);
+
+		this.idempotencyHits = Counter.builder("banking.idempotency.hits")
+				.description("Requests answered from a stored Idempotency-Key response")
+				.register(meterRegistry);
+		this.idempotencyMisses = Counter.builder("banking.idempotency.misses")
+				.description("Requests with a new Idempotency-Key that were executed")
+				.register(meterRegistry);
+		this.idempotencyCollisions = Counter.builder("banking.idempotency.collisions")
+				.description("Duplicate requests that arrived while the original was still in flight")
+				.register(meterRegistry);
+		this.idempotencyStoreFailures = Counter.builder("banking.idempotency.store.failures")
+				.description("Executed requests whose response could not be stored for replay")
+				.register(meterRegistry);
+
+		this.accountCacheHits = Counter.builder("banking.account.cache.hits")
+				.description("Account reads answered from the Redis read model")
+				.register(meterRegistry);
+		this.accountCacheMisses = Counter.builder("banking.account.cache.misses")
+				.description("Account reads that fell back to the database")
+				.register(meterRegistry);
+
+		this.auditBatchSize = DistributionSummary.builder("banking.audit.batch.size")
+				.description("Audit events written per batch")
+				.register(meterRegistry);
+		this.auditWriteTimer = Timer.builder("banking.audit.write")
+				.description("Time to write and sync one audit batch")
+				.publishPercentileHistogram()
+				.register(meterRegistry);
+		this.auditDropped = Counter.builder("banking.audit.dropped")
+				.description("Audit events dropped because the queue was full")
+				.register(meterRegistry);
+		this.auditWriteFailures = Counter.builder("banking.audit.write.failures")
+				.description("Audit events lost because the sink failed")
+				.register(meterRegistry);
+
+		this.outboxPublished = Counter.builder("banking.outbox.published")
+				.description("Account events relayed from the outbox to the sink")
+				.register(meterRegistry);
+		this.outboxPublishTimer = Timer.builder("banking.outbox.publish")
+				.description("Time to publish one outbox batch to the sink")
+				.publishPercentileHistogram()
+				.register(meterRegistry);
+		this.outboxLag = Timer.builder("banking.outbox.lag")
+				.description("Time from posting to publication of an account event")
+				.publishPercentileHistogram()
+				.register(meterRegistry);
+		this.outboxPublishFailures = Counter.builder("banking.outbox.publish.failures")
+				.description("Outbox events in batches the sink rejected; they are retried")
+				.register(meterRegistry);
+	}
+
+	public MeterRegistry getMeterRegistry() {
+		return meterRegistry;
+	}
+
+	// Authentication
+
+	public void incrementAuthAttempts() {
+		authAttempts.increment();
+	}
+
+	public void incrementAuthSuccesses() {
+		authSuccesses.increment();
+	}
+
+	public void incrementAuthFailures() {
+		authFailures.increment();
+	}
+
+	public Timer.Sample startAuthTimer() {
+		return Timer.start(meterRegistry);
+	}
+
+	public void stopAuthTimer(Timer.Sample sample) {
+		sample.stop(authTimer);
+	}
+
+	public void incrementJwtCacheHits() {
+		jwtCacheHits.increment();
+	}
+
+	public void incrementJwtCacheMisses() {
+		jwtCacheMisses.increment();
+	}
+
+	public void incrementBlacklistFiltered() {
+		blacklistFiltered.increment();
+	}
+
+	public void incrementBlacklistLookups() {
+		blacklistLookups.increment();
+	}
+
+	// Refresh token sweeper
+
+	public void recordTokenSweep(long scanned, long removed) {
+		tokenSweepScanned.increment(scanned);
+		tokenSweepRemoved.increment(removed);
+	}
+
+	// Refresh token local tier
+
+	public void incrementTokenLocalHits() {
+		tokenLocalHits.increment();
+	}
+
+	public void incrementTokenLocalMisses() {
+		tokenLocalMisses.increment();
+	}
+
+	/**
+	 * Share of local tier lookups that found the token; 1 when there were none
+	 */
+	public double getTokenLocalHitRatio() {
+		double hits = tokenLocalHits.count();
+		double total = hits + tokenLocalMisses.count();
+		return total > 0 ? hits / total : 1.0;
+	}
+
+	// Account locking
+
+	public void recordLockWait(long waitNanos) {
+		lockWaitTimer.record(waitNanos, TimeUnit.NANOSECONDS);
+	}
+
+	public void incrementLockContention() {
+		lockContentions.increment();
+	}
+
+	public void incrementLockTimeouts() {
+		lockTimeouts.increment();
+	}
+
+	// Idempotency replay cache
+
+	public void incrementIdempotencyHits() {
+		idempotencyHits.increment();
+	}
+
+	public void incrementIdempotencyMisses() {
+		idempotencyMisses.increment();
+	}
+
+	public void incrementIdempotencyCollisions() {
+		idempotencyCollisions.increment();
+	}
+
+	public void incrementIdempotencyStoreFailures() {
+		idempotencyStoreFailures.increment();
+	}
+
+	// Account read model
+
+	public void incrementAccountCacheHits() {
+		accountCacheHits.increment();
+	}
+
+	public void incrementAccountCacheMisses() {
+		accountCacheMisses.increment();
+	}
+
+	// Audit pipeline
+
+	public void recordAuditBatch(int size, long writeNanos) {
+		auditBatchSize.record(size);
+		auditWriteTimer.record(writeNanos, TimeUnit.NANOSECONDS);
+	}
+
+	public void incrementAuditDropped() {
+		auditDropped.increment();
+	}
+
+	public void incrementAuditWriteFailures(int events) {
+		auditWriteFailures.increment(events);
+	}
+
+	// Outbox relay
+
+	public void recordOutboxBatch(int size, long publishNanos) {
+		outboxPublished.increment(size);
+		outboxPublishTimer.record(publishNanos, TimeUnit.NANOSECONDS);
+	}
+
+	public void recordOutboxLag(Duration lag) {
+		outboxLag.record(lag);
+	}
+
+	public void incrementOutboxPublishFailures(int events) {
+		outboxPublishFailures.increment(events);
+	}
+}
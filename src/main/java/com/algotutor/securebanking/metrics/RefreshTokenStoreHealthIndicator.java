@@ -0,0 +1,34 @@
+package com.algotutor.securebanking.metrics;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import com.algotutor.securebanking.service.impl.TieredRefreshTokenService;
+
+/**
+ * Reports the refresh token store's circuit breaker and replay backlog under
+ * /actuator/health. Always UP: an open breaker means the node is serving
+ * refresh tokens from its local tier, not that it is down (the redis
+ * component reports Redis itself).
+ */
+@Component
+public class RefreshTokenStoreHealthIndicator implements HealthIndicator {
+
+	@Autowired
+	private TieredRefreshTokenService refreshTokenStore;
+
+	@Autowired
+	private BankingMetrics bankingMetrics;
+
+	@Override
+	public Health health() {
+		return Health.up()
+				.withDetail("breaker", refreshTokenStore.getBreakerState())
+				.withDetail("replayBacklog", refreshTokenStore.getReplayBacklog())
+				.withDetail("localTokens", refreshTokenStore.getLocalSize())
+				.withDetail("localHitRatio", bankingMetrics.getTokenLocalHitRatio())
+				.build();
+	}
+}
@@ -0,0 +1,70 @@
+package com.algotutor.securebanking.outbox;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.algotutor.securebanking.entity.OutboxEvent;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Local stand-in for a message broker: appends each relayed event as one NDJSON
+ * line and syncs the batch before the relay deletes it from the outbox. Used
+ * when {@code app.outbox.sink=file}, e.g. for development without Redis.
+ */
+@Component
+@ConditionalOnProperty(name = "app.outbox.sink", havingValue = "file")
+public class FileOutboxSink implements OutboxSink {
+
+	private final ObjectMapper objectMapper;
+	private final FileChannel channel;
+
+	public FileOutboxSink(ObjectMapper objectMapper, @Value("${app.outbox.file:logs/outbox.log}") Path file)
+			throws IOException {
+		this.objectMapper = objectMapper;
+		if (file.getParent() != null) {
+			Files.createDirectories(file.getParent());
+		}
+		this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.APPEND);
+	}
+
+	@Override
+	public synchronized void publish(List<OutboxEvent> events) throws IOException {
+		ByteArrayOutputStream lines = new ByteArrayOutputStream(events.size() * 320);
+		for (OutboxEvent event : events) {
+			lines.write(objectMapper.writeValueAsBytes(new Line(event.getId(), event.getAggregateId(),
+					event.getEventType(), event.getCreatedAt(), event.getPayload())));
+			lines.write('\n');
+		}
+
+		ByteBuffer buffer = ByteBuffer.wrap(lines.toByteArray());
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		channel.force(false);
+	}
+
+	@PreDestroy
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	// The payload is already JSON and is embedded as-is
+	private record Line(Long eventId, String accountNumber, String type, LocalDateTime createdAt,
+			@JsonRawValue String payload) {
+	}
+}
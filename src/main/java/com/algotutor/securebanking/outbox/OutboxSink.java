@@ -0,0 +1,22 @@
+package com.algotutor.securebanking.outbox;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.algotutor.securebanking.entity.OutboxEvent;
+
+/**
+ * Destination the outbox relay publishes account events to. Batches arrive in
+ * id order and all events of one account come from the same partition, so a
+ * sink that preserves the order it is given keeps every account's events in
+ * posting order.
+ */
+public interface OutboxSink {
+
+	/**
+	 * Publishes the batch; the events are deleted from the outbox only after
+	 * this returns. A batch may be published again after a failure, so
+	 * consumers deduplicate on the event id.
+	 */
+	void publish(List<OutboxEvent> events) throws IOException;
+}
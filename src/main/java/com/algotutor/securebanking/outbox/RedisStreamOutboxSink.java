@@ -0,0 +1,66 @@
+package com.algotutor.securebanking.outbox;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisStreamCommands.XAddOptions;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.stereotype.Component;
+
+import com.algotutor.securebanking.entity.OutboxEvent;
+
+/**
+ * Appends outbox events to a Redis stream, one pipelined XADD per event, so a
+ * batch costs a single round trip. Entries are added in batch order, which
+ * keeps each account's events in order within the stream.
+ */
+@Component
+@ConditionalOnProperty(name = "app.outbox.sink", havingValue = "redis", matchIfMissing = true)
+public class RedisStreamOutboxSink implements OutboxSink {
+
+	@Autowired
+	private RedisTemplate<String, String> stringRedisTemplate;
+
+	@Value("${app.outbox.redis.stream:banking:account-events}")
+	private String stream;
+
+	// Approximate cap on the stream length; 0 leaves trimming to the consumers
+	@Value("${app.outbox.redis.max-length:1000000}")
+	private long maxLength;
+
+	@Override
+	public void publish(List<OutboxEvent> events) {
+		XAddOptions options = maxLength > 0 ? XAddOptions.maxlen(maxLength).approximateTrimming(true)
+				: XAddOptions.none();
+		// Any failed XADD fails the whole batch, which is then retried
+		stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+			@Override
+			@SuppressWarnings("unchecked")
+			public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+				RedisOperations<String, String> redis = (RedisOperations<String, String>) operations;
+				for (OutboxEvent event : events) {
+					redis.opsForStream().add(StreamRecords.newRecord().in(stream).ofMap(fields(event)), options);
+				}
+				return null;
+			}
+		});
+	}
+
+	private Map<String, String> fields(OutboxEvent event) {
+		Map<String, String> fields = new LinkedHashMap<>();
+		fields.put("eventId", String.valueOf(event.getId()));
+		fields.put("accountNumber", event.getAggregateId());
+		fields.put("type", event.getEventType());
+		fields.put("createdAt", event.getCreatedAt().toString());
+		fields.put("payload", event.getPayload());
+		return fields;
+	}
+}
@@ -0,0 +1,30 @@
+package com.algotutor.securebanking.repository;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+/**
+ * Guarded balance postings that return the new balance and row version from
+ * the UPDATE itself, so a posting leg is a single statement.
+ */
+public interface AccountBalanceRepository {
+
+	/**
+	 * Adds the amount to an active account; empty if no active account has the id
+	 */
+	Optional<BalanceVersion> creditActive(Long accountId, BigDecimal amount);
+
+	/**
+	 * Subtracts the amount from an active account holding at least that much;
+	 * empty if the account is missing, inactive or short of funds
+	 */
+	Optional<BalanceVersion> debitActiveIfSufficient(Long accountId, BigDecimal amount);
+
+	// Balance together with the row version it belongs to
+	interface BalanceVersion {
+
+		BigDecimal getBalance();
+
+		Long getVersion();
+	}
+}
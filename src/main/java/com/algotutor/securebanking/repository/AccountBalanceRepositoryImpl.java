@@ -0,0 +1,107 @@
+package com.algotutor.securebanking.repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+/**
+ * Reads the updated row back in the same statement where the database allows
+ * it: H2 through a data change delta table ({@code FROM FINAL TABLE (UPDATE ...)}),
+ * PostgreSQL through {@code UPDATE ... RETURNING}. Other databases get the
+ * UPDATE followed by a primary key read; the UPDATE holds the row lock until
+ * commit, so that read still sees exactly this posting's result.
+ */
+class AccountBalanceRepositoryImpl implements AccountBalanceRepository {
+
+	private static final String CREDIT = "UPDATE accounts SET balance = balance + :amount, version = version + 1 "
+			+ "WHERE id = :accountId AND active = TRUE";
+
+	private static final String DEBIT = "UPDATE accounts SET balance = balance - :amount, version = version + 1 "
+			+ "WHERE id = :accountId AND active = TRUE AND balance >= :amount";
+
+	private enum Returning {
+		DELTA_TABLE, RETURNING_CLAUSE, NONE
+	}
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	private volatile Returning returning;
+
+	@Override
+	public Optional<BalanceVersion> creditActive(Long accountId, BigDecimal amount) {
+		return post(CREDIT, accountId, amount);
+	}
+
+	@Override
+	public Optional<BalanceVersion> debitActiveIfSufficient(Long accountId, BigDecimal amount) {
+		return post(DEBIT, accountId, amount);
+	}
+
+	private Optional<BalanceVersion> post(String update, Long accountId, BigDecimal amount) {
+		Query query = switch (returning()) {
+		case DELTA_TABLE -> entityManager.createNativeQuery("SELECT balance, version FROM FINAL TABLE (" + update + ")");
+		case RETURNING_CLAUSE -> entityManager.createNativeQuery(update + " RETURNING balance, version");
+		case NONE -> null;
+		};
+
+		if (query == null) {
+			int updated = entityManager.createNativeQuery(update).setParameter("accountId", accountId)
+					.setParameter("amount", amount).executeUpdate();
+			if (updated == 0) {
+				return Optional.empty();
+			}
+			query = entityManager.createNativeQuery("SELECT balance, version FROM accounts WHERE id = :accountId");
+			query.setParameter("accountId", accountId);
+		} else {
+			query.setParameter("accountId", accountId).setParameter("amount", amount);
+		}
+
+		@SuppressWarnings("unchecked")
+		List<Object[]> rows = query.getResultList();
+		if (rows.isEmpty()) {
+			return Optional.empty();
+		}
+		Object[] row = rows.get(0);
+		return Optional.of(new PostedBalance((BigDecimal) row[0], ((Number) row[1]).longValue()));
+	}
+
+	private Returning returning() {
+		Returning detected = returning;
+		if (detected == null) {
+			Dialect dialect = entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+					.getJdbcServices().getDialect();
+			if (dialect instanceof H2Dialect) {
+				detected = Returning.DELTA_TABLE;
+			} else if (dialect instanceof PostgreSQLDialect) {
+				detected = Returning.RETURNING_CLAUSE;
+			} else {
+				detected = Returning.NONE;
+			}
+			returning = detected;
+		}
+		return detected;
+	}
+
+	private record PostedBalance(BigDecimal balance, Long version) implements BalanceVersion {
+
+		@Override
+		public BigDecimal getBalance() {
+			return balance;
+		}
+
+		@Override
+		public Long getVersion() {
+			return version;
+		}
+	}
+}
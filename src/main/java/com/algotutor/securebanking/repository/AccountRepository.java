@@ -1,5 +1,7 @@
 package com.algotutor.securebanking.repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -11,7 +13,7 @@ import com.algotutor.securebanking.entity.Account;
 import com.algotutor.securebanking.entity.User;
 
 @Repository
-public interface AccountRepository extends JpaRepository<Account, Long> {
+public interface AccountRepository extends JpaRepository<Account, Long>, AccountBalanceRepository {
 
 	List<Account> findByUserAndActiveTrue(User user);
 
@@ -19,6 +21,8 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
 
 	Optional<Account> findByAccountNumberAndActiveTrue(String accountNumber);
 
+	List<Account> findByAccountNumberInAndActiveTrue(Collection<String> accountNumbers);
+
 	@Query("SELECT a FROM Account a WHERE a.user.id = :userId AND a.active = true")
 	List<Account> findActiveAccountsByUserId(Long userId);
 
@@ -26,4 +30,13 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
 	Optional<Account> findByAccountNumberWithTransactions(String accountNumber);
 
 	Boolean existsByAccountNumber(String accountNumber);
+
+	@Query("SELECT a.accountNumber FROM Account a WHERE a.user.username = :username AND a.active = true")
+	List<String> findActiveAccountNumbersByUsername(String username);
+
+	@Query("SELECT a.id FROM Account a WHERE a.accountNumber = :accountNumber AND a.active = true")
+	Optional<Long> findActiveIdByAccountNumber(String accountNumber);
+
+	@Query("SELECT a.balance FROM Account a WHERE a.id = :accountId AND a.active = true")
+	Optional<BigDecimal> findActiveBalanceById(Long accountId);
 }
@@ -0,0 +1,27 @@
+package com.algotutor.securebanking.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.algotutor.securebanking.entity.BalanceCheckpoint;
+
+@Repository
+public interface BalanceCheckpointRepository extends JpaRepository<BalanceCheckpoint, Long> {
+
+	Optional<BalanceCheckpoint> findFirstByAccountIdAndAsOfLessThanEqualOrderByAsOfDesc(Long accountId,
+			LocalDateTime asOf);
+
+	// Latest checkpoint at or before asOf for each of the given accounts
+	@Query("SELECT c FROM BalanceCheckpoint c WHERE c.account.id IN :accountIds AND c.asOf = "
+			+ "(SELECT MAX(c2.asOf) FROM BalanceCheckpoint c2 WHERE c2.account.id = c.account.id AND c2.asOf <= :asOf)")
+	List<BalanceCheckpoint> findLatestByAccountIds(Collection<Long> accountIds, LocalDateTime asOf);
+
+	@Query("SELECT MAX(c.asOf) FROM BalanceCheckpoint c")
+	Optional<LocalDateTime> findLatestAsOf();
+}
@@ -0,0 +1,24 @@
+package com.algotutor.securebanking.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import com.algotutor.securebanking.entity.JobLock;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+@Repository
+public interface JobLockRepository extends JpaRepository<JobLock, String> {
+
+	// SELECT ... FOR UPDATE SKIP LOCKED: empty when another node is already running the job
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+	@Query("SELECT l FROM JobLock l WHERE l.name = :name")
+	Optional<JobLock> lockIfAvailable(String name);
+}
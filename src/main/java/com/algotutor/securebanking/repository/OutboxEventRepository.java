@@ -0,0 +1,23 @@
+package com.algotutor.securebanking.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.algotutor.securebanking.entity.OutboxEvent;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+	@Query("SELECT e FROM OutboxEvent e WHERE e.partitionKey = :partition ORDER BY e.id")
+	List<OutboxEvent> findBatchByPartition(int partition, Pageable pageable);
+
+	@Modifying
+	@Query("DELETE FROM OutboxEvent e WHERE e.id IN :ids")
+	int deleteByIdIn(Collection<Long> ids);
+}
@@ -0,0 +1,24 @@
+package com.algotutor.securebanking.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import com.algotutor.securebanking.entity.OutboxPartition;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+@Repository
+public interface OutboxPartitionRepository extends JpaRepository<OutboxPartition, Integer> {
+
+	// SELECT ... FOR UPDATE SKIP LOCKED: empty when another relay already owns the partition
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+	@Query("SELECT p FROM OutboxPartition p WHERE p.id = :id")
+	Optional<OutboxPartition> lockIfAvailable(Integer id);
+}
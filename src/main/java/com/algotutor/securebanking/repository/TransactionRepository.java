@@ -1,21 +1,33 @@
 package com.algotutor.securebanking.repository;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import com.algotutor.securebanking.dto.banking.TransactionDto;
 import com.algotutor.securebanking.entity.Account;
 import com.algotutor.securebanking.entity.Transaction;
 import com.algotutor.securebanking.entity.TransactionType;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import jakarta.persistence.QueryHint;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
 
+	String CREDIT_TYPES = "com.algotutor.securebanking.entity.TransactionType.DEPOSIT, "
+			+ "com.algotutor.securebanking.entity.TransactionType.TRANSFER_IN";
+
 	List<Transaction> findByAccountOrderByCreatedAtDesc(Account account);
 
 	Page<Transaction> findByAccountOrderByCreatedAtDesc(Account account, Pageable pageable);
@@ -32,6 +44,93 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
 	@Query("SELECT t FROM Transaction t WHERE t.account.user.username = :username ORDER BY t.createdAt DESC")
 	List<Transaction> findByUserUsernameOrderByCreatedAtDesc(String username);
 
+	// Keyset (seek) pagination: newest first, ties on createdAt broken by id.
+	// Pass a Pageable of the page size only; the cursor replaces the offset.
+	// Rows are projected straight into TransactionDto, so no entities are
+	// hydrated and no lazy account loads happen while mapping a page.
+
+	@Query("SELECT new com.algotutor.securebanking.dto.banking.TransactionDto(t.id, t.amount, t.type, "
+			+ "t.description, t.createdAt, a.accountNumber, ta.accountNumber, t.balanceAfter) "
+			+ "FROM Transaction t JOIN t.account a LEFT JOIN t.targetAccount ta "
+			+ "WHERE a.id = :accountId ORDER BY t.createdAt DESC, t.id DESC")
+	List<TransactionDto> findFirstPageByAccountId(Long accountId, Pageable pageable);
+
+	@Query("SELECT new com.algotutor.securebanking.dto.banking.TransactionDto(t.id, t.amount, t.type, "
+			+ "t.description, t.createdAt, a.accountNumber, ta.accountNumber, t.balanceAfter) "
+			+ "FROM Transaction t JOIN t.account a LEFT JOIN t.targetAccount ta "
+			+ "WHERE a.id = :accountId "
+			+ "AND (t.createdAt < :createdAt OR (t.createdAt = :createdAt AND t.id < :id)) "
+			+ "ORDER BY t.createdAt DESC, t.id DESC")
+	List<TransactionDto> findPageByAccountIdBefore(Long accountId, LocalDateTime createdAt, Long id,
+			Pageable pageable);
+
+	// User feed across all of the user's active accounts in one statement
+
+	@Query("SELECT new com.algotutor.securebanking.dto.banking.TransactionDto(t.id, t.amount, t.type, "
+			+ "t.description, t.createdAt, a.accountNumber, ta.accountNumber, t.balanceAfter) "
+			+ "FROM Transaction t JOIN t.account a LEFT JOIN t.targetAccount ta "
+			+ "WHERE a.user.username = :username AND a.active = true "
+			+ "ORDER BY t.createdAt DESC, t.id DESC")
+	List<TransactionDto> findFirstPageByUsername(String username, Pageable pageable);
+
+	@Query("SELECT new com.algotutor.securebanking.dto.banking.TransactionDto(t.id, t.amount, t.type, "
+			+ "t.description, t.createdAt, a.accountNumber, ta.accountNumber, t.balanceAfter) "
+			+ "FROM Transaction t JOIN t.account a LEFT JOIN t.targetAccount ta "
+			+ "WHERE a.user.username = :username AND a.active = true "
+			+ "AND (t.createdAt < :createdAt OR (t.createdAt = :createdAt AND t.id < :id)) "
+			+ "ORDER BY t.createdAt DESC, t.id DESC")
+	List<TransactionDto> findPageByUsernameBefore(String username, LocalDateTime createdAt, Long id,
+			Pageable pageable);
+
+	// Same range semantics as findByAccountAndCreatedAtBetweenOrderByCreatedAtDesc, but streamed
+	// from an open cursor for exports; must be consumed inside a transaction and closed
+	@QueryHints({ @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+			@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+	@Query("SELECT t FROM Transaction t LEFT JOIN FETCH t.targetAccount "
+			+ "WHERE t.account.id = :accountId AND t.createdAt BETWEEN :startDate AND :endDate "
+			+ "ORDER BY t.createdAt DESC, t.id DESC")
+	Stream<Transaction> streamByAccountIdAndCreatedAtBetween(Long accountId, LocalDateTime startDate,
+			LocalDateTime endDate);
+
+	// Balance checkpoints: net effect of transactions on their account (credits minus debits)
+
+	@Query("SELECT COALESCE(SUM(CASE WHEN t.type IN (" + CREDIT_TYPES + ") THEN t.amount ELSE -t.amount END), 0) "
+			+ "FROM Transaction t WHERE t.account.id = :accountId AND t.createdAt >= :from AND t.createdAt <= :to")
+	BigDecimal sumNetAmountByAccountIdBetween(Long accountId, LocalDateTime from, LocalDateTime to);
+
+	// Rows of [accountId, net amount] over the half-open range [from, to)
+	@Query("SELECT t.account.id, SUM(CASE WHEN t.type IN (" + CREDIT_TYPES + ") THEN t.amount ELSE -t.amount END) "
+			+ "FROM Transaction t WHERE t.account.id IN :accountIds AND t.createdAt >= :from AND t.createdAt < :to "
+			+ "GROUP BY t.account.id")
+	List<Object[]> sumNetAmountByAccountIds(Collection<Long> accountIds, LocalDateTime from, LocalDateTime to);
+
+	@Query("SELECT DISTINCT t.account.id FROM Transaction t WHERE t.createdAt >= :from AND t.createdAt < :to")
+	List<Long> findAccountIdsWithActivityBetween(LocalDateTime from, LocalDateTime to);
+
+	@Query("SELECT MIN(t.createdAt) FROM Transaction t")
+	Optional<LocalDateTime> findEarliestCreatedAt();
+
+	// Running balance backfill: walk an account's history oldest first
+
+	@Query("SELECT DISTINCT t.account.id FROM Transaction t WHERE t.balanceAfter IS NULL")
+	List<Long> findAccountIdsWithoutBalanceAfter();
+
+	@Query("SELECT t FROM Transaction t WHERE t.account.id = :accountId "
+			+ "AND (t.createdAt > :createdAt OR (t.createdAt = :createdAt AND t.id > :id)) "
+			+ "ORDER BY t.createdAt ASC, t.id ASC")
+	List<Transaction> findPageByAccountIdAfter(Long accountId, LocalDateTime createdAt, Long id, Pageable pageable);
+
+	// Rollup rebuild: rows of [accountId, type, day, count, sum] for one partition of accounts
+	@Query("SELECT t.account.id, t.type, CAST(t.createdAt AS LocalDate), COUNT(t), SUM(t.amount) FROM Transaction t "
+			+ "WHERE MOD(t.account.id, :partitions) = :partition "
+			+ "GROUP BY t.account.id, t.type, CAST(t.createdAt AS LocalDate)")
+	List<Object[]> aggregatePartitionByAccountTypeAndDay(int partitions, int partition);
+
+	/**
+	 * @deprecated scans the account's history; read totals from the rollups via
+	 *             TransactionService#getTotalsByType
+	 */
+	@Deprecated
 	@Query("SELECT COUNT(t) FROM Transaction t WHERE t.account.id = :accountId AND t.type = :type")
 	long countByAccountIdAndType(Long accountId, TransactionType type);
 }
@@ -0,0 +1,33 @@
+package com.algotutor.securebanking.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.algotutor.securebanking.dto.banking.TransactionTotalDto;
+import com.algotutor.securebanking.entity.TransactionRollup;
+import com.algotutor.securebanking.entity.TransactionType;
+
+@Repository
+public interface TransactionRollupRepository extends JpaRepository<TransactionRollup, Long> {
+
+	// Returns 0 when the bucket does not exist yet and has to be inserted
+	@Modifying
+	@Query("UPDATE TransactionRollup r SET r.transactionCount = r.transactionCount + :count, r.total = r.total + :amount "
+			+ "WHERE r.account.id = :accountId AND r.type = :type AND r.bucketDate = :bucketDate")
+	int increment(Long accountId, TransactionType type, LocalDate bucketDate, long count, BigDecimal amount);
+
+	@Query("SELECT new com.algotutor.securebanking.dto.banking.TransactionTotalDto(r.type, SUM(r.transactionCount), SUM(r.total)) "
+			+ "FROM TransactionRollup r WHERE r.account.id = :accountId AND r.bucketDate BETWEEN :from AND :to "
+			+ "GROUP BY r.type ORDER BY r.type")
+	List<TransactionTotalDto> sumByAccountIdBetween(Long accountId, LocalDate from, LocalDate to);
+
+	@Modifying
+	@Query("DELETE FROM TransactionRollup r WHERE MOD(r.account.id, :partitions) = :partition")
+	int deletePartition(int partitions, int partition);
+}
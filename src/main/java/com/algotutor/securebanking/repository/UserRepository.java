@@ -1,8 +1,13 @@
 package com.algotutor.securebanking.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
@@ -21,4 +26,22 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
 	@Query("SELECT u FROM User u LEFT JOIN FETCH u.accounts WHERE u.username = :username")
 	Optional<User> findByUsernameWithAccounts(String username);
+
+	@Query("SELECT u.securityStamp FROM User u WHERE u.username = :username")
+	Optional<Long> findSecurityStampByUsername(String username);
+
+	@Modifying
+	@Query("UPDATE User u SET u.securityStamp = u.securityStamp + 1 WHERE u.username = :username")
+	int incrementSecurityStamp(String username);
+
+	@Modifying
+	@Query("UPDATE User u SET u.securityStamp = u.securityStamp + 1 WHERE u.username IN :usernames")
+	int incrementSecurityStamps(Collection<String> usernames);
+
+	/**
+	 * Usernames in order, starting after {@code after}; for walking all users in
+	 * batches
+	 */
+	@Query("SELECT u.username FROM User u WHERE u.username > :after ORDER BY u.username")
+	List<String> findUsernamesAfter(String after, Limit limit);
 }
@@ -0,0 +1,48 @@
+package com.algotutor.securebanking.scheduler;
+
+import java.time.Duration;
+
+import com.algotutor.securebanking.audit.SegmentedAuditStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rolls expired audit segments off and compacts older ones into daily files
+ */
+@Component
+@EnableScheduling
+@ConditionalOnProperty(name = "app.audit.store", havingValue = "segmented", matchIfMissing = true)
+public class AuditMaintenanceScheduler {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AuditMaintenanceScheduler.class);
+    
+    @Autowired
+    private SegmentedAuditStore auditStore;
+    
+    @Value("${app.audit.retention:P90D}")
+    private Duration retention;
+    
+    @Value("${app.audit.compact-after:P1D}")
+    private Duration compactAfter;
+    
+    /**
+     * Runs off the write path; sealed segments are replaced without pausing the audit writer
+     */
+    @Scheduled(fixedDelayString = "${app.audit.maintenance-interval:PT1H}", initialDelayString = "${app.audit.maintenance-interval:PT1H}")
+    public void maintainAuditStore() {
+        long now = System.currentTimeMillis();
+        try {
+            int removed = auditStore.applyRetention(now - retention.toMillis());
+            int merged = auditStore.compact(now - compactAfter.toMillis());
+            logger.info("Audit store maintenance: {} segments expired, {} merged", removed, merged);
+        } catch (Exception e) {
+            logger.error("Error during audit store maintenance: {}", e.getMessage());
+        }
+    }
+}
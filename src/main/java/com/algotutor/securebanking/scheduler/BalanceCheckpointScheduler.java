@@ -0,0 +1,38 @@
+package com.algotutor.securebanking.scheduler;
+
+import com.algotutor.securebanking.service.BalanceCheckpointService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Nightly end-of-day balance checkpoints
+ */
+@Component
+@EnableScheduling
+@ConditionalOnProperty(name = "app.balance-checkpoint.enabled", havingValue = "true", matchIfMissing = true)
+public class BalanceCheckpointScheduler {
+    
+    private static final Logger logger = LoggerFactory.getLogger(BalanceCheckpointScheduler.class);
+    
+    @Autowired
+    private BalanceCheckpointService balanceCheckpointService;
+    
+    /**
+     * Checkpoint every completed day not yet covered, shortly after midnight
+     */
+    @Scheduled(cron = "${app.balance-checkpoint.cron:0 15 0 * * *}")
+    public void createBalanceCheckpoints() {
+        logger.info("Starting scheduled balance checkpoints");
+        try {
+            int written = balanceCheckpointService.createMissingCheckpoints();
+            logger.info("Completed balance checkpoints, {} written", written);
+        } catch (Exception e) {
+            logger.error("Error during balance checkpoints: {}", e.getMessage());
+        }
+    }
+}
@@ -6,6 +6,7 @@ import com.algotutor.securebanking.service.RefreshTokenService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -21,6 +22,9 @@ public class CleanupScheduler {
     
     private static final Logger logger = LoggerFactory.getLogger(CleanupScheduler.class);
     
+    @Value("${app.token-key-migration.enabled:true}")
+    private boolean tokenKeyMigrationEnabled;
+    
     @Autowired
     private RefreshTokenService refreshTokenService;
     
@@ -28,9 +32,10 @@ public class CleanupScheduler {
     private RateLimitService rateLimitService;
     
     /**
-     * Clean up expired refresh tokens every hour
+     * Sweep a time-boxed slice of the refresh token keyspace; each run resumes
+     * where the previous one stopped
      */
-    @Scheduled(fixedRate = 3600000) // 1 hour
+    @Scheduled(fixedDelayString = "${app.token-sweeper.interval:PT5M}")
     public void cleanupExpiredTokens() {
         logger.info("Starting scheduled cleanup of expired refresh tokens");
         try {
@@ -41,6 +46,22 @@ public class CleanupScheduler {
         }
     }
     
+    /**
+     * Renames refresh token keys written before they carried slot tags; runs
+     * once, shortly after startup, and finds nothing once all are renamed
+     */
+    @Scheduled(initialDelayString = "${app.token-key-migration.initial-delay:PT5S}")
+    public void renameLegacyTokenKeys() {
+        if (!tokenKeyMigrationEnabled) {
+            return;
+        }
+        try {
+            refreshTokenService.renameLegacyKeys();
+        } catch (Exception e) {
+            logger.error("Error during refresh token key migration: {}", e.getMessage());
+        }
+    }
+    
     /**
      * Clean up expired rate limit buckets every 30 minutes
      */
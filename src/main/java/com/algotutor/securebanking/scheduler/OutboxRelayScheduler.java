@@ -0,0 +1,40 @@
+package com.algotutor.securebanking.scheduler;
+
+import com.algotutor.securebanking.service.OutboxService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Polls the outbox and relays pending account events to the configured sink
+ */
+@Component
+@EnableScheduling
+@ConditionalOnProperty(name = "app.outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelayScheduler {
+    
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelayScheduler.class);
+    
+    @Autowired
+    private OutboxService outboxService;
+    
+    /**
+     * Every node runs the relay; partitions owned by another node are skipped, not waited for
+     */
+    @Scheduled(fixedDelayString = "${app.outbox.relay.interval:PT0.5S}", initialDelayString = "${app.outbox.relay.initial-delay:PT10S}")
+    public void relayOutbox() {
+        try {
+            int published = outboxService.relay();
+            if (published > 0) {
+                logger.debug("Relayed {} outbox events", published);
+            }
+        } catch (Exception e) {
+            // Unpublished events stay queued and are retried on the next run
+            logger.error("Error relaying outbox events: {}", e.getMessage());
+        }
+    }
+}
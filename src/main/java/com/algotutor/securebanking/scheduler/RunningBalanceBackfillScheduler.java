@@ -0,0 +1,36 @@
+package com.algotutor.securebanking.scheduler;
+
+import com.algotutor.securebanking.service.RunningBalanceService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * One-off backfill of Transaction.balanceAfter for rows written before the column existed
+ */
+@Component
+@EnableScheduling
+@ConditionalOnProperty(name = "app.balance-backfill.enabled", havingValue = "true", matchIfMissing = true)
+public class RunningBalanceBackfillScheduler {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RunningBalanceBackfillScheduler.class);
+    
+    @Autowired
+    private RunningBalanceService runningBalanceService;
+    
+    /**
+     * Runs once, shortly after startup; a no-op once every row has a balance
+     */
+    @Scheduled(initialDelayString = "${app.balance-backfill.initial-delay:PT1M}")
+    public void backfillRunningBalances() {
+        try {
+            runningBalanceService.backfillBalanceAfter();
+        } catch (Exception e) {
+            logger.error("Error during running balance backfill: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.algotutor.securebanking.security;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size, thread-safe Bloom filter over strings.
+ *
+ * {@link #mightContain} never returns false for a value that was added; it
+ * returns true for a value that was not added with roughly the false-positive
+ * rate the filter was sized for. Values cannot be removed, so callers age
+ * entries out by replacing whole filters.
+ */
+public class BloomFilter {
+
+	private static final long SEED_1 = 0x9E3779B97F4A7C15L;
+	private static final long SEED_2 = 0xC2B2AE3D27D4EB4FL;
+
+	private final AtomicLongArray words;
+	private final long bits;
+	private final int hashes;
+
+	public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+		long n = Math.max(1, expectedInsertions);
+		long optimalBits = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+		int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (optimalBits + 63) / 64));
+		this.words = new AtomicLongArray(wordCount);
+		this.bits = (long) wordCount * 64;
+		this.hashes = (int) Math.max(1, Math.min(16, Math.round((double) bits / n * Math.log(2))));
+	}
+
+	public void add(String value) {
+		long h1 = hash(value, SEED_1);
+		// Odd, so the probe sequence never collapses onto one bit
+		long h2 = hash(value, SEED_2) | 1;
+		for (int i = 0; i < hashes; i++) {
+			long bit = Math.floorMod(h1 + i * h2, bits);
+			int word = (int) (bit >>> 6);
+			long mask = 1L << bit;
+			if ((words.get(word) & mask) == 0) {
+				words.getAndAccumulate(word, mask, (current, m) -> current | m);
+			}
+		}
+	}
+
+	public boolean mightContain(String value) {
+		long h1 = hash(value, SEED_1);
+		long h2 = hash(value, SEED_2) | 1;
+		for (int i = 0; i < hashes; i++) {
+			long bit = Math.floorMod(h1 + i * h2, bits);
+			if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public long bitSize() {
+		return bits;
+	}
+
+	// FNV-1a over the UTF-16 chars, finished with the MurmurHash3 64-bit mix
+	private static long hash(String value, long seed) {
+		long h = seed ^ 0xCBF29CE484222325L;
+		for (int i = 0; i < value.length(); i++) {
+			h ^= value.charAt(i);
+			h *= 0x100000001B3L;
+		}
+		h ^= h >>> 33;
+		h *= 0xFF51AFD7ED558CCDL;
+		h ^= h >>> 33;
+		h *= 0xC4CEB9FE1A85EC53L;
+		h ^= h >>> 33;
+		return h;
+	}
+}
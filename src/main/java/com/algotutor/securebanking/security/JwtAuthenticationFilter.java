@@ -7,7 +7,9 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -15,9 +17,16 @@ import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.algotutor.securebanking.entity.Role;
+import com.algotutor.securebanking.entity.User;
+import com.algotutor.securebanking.service.SecurityStampService;
+import com.algotutor.securebanking.service.TokenBlacklistService;
 import com.algotutor.securebanking.service.impl.UserDetailsServiceImpl;
 
+import io.jsonwebtoken.Claims;
+
 import java.io.IOException;
+import java.util.List;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
@@ -28,6 +37,16 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 	@Autowired
 	private UserDetailsServiceImpl userDetailsService;
 
+	@Autowired
+	private SecurityStampService securityStampService;
+
+	@Autowired
+	private TokenBlacklistService tokenBlacklistService;
+
+	// Authenticate from the token claims instead of loading the user on every request
+	@Value("${app.jwt.stateless:false}")
+	private boolean stateless;
+
 	private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
 
 	@Override
@@ -37,15 +56,25 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 		try {
 			String jwt = parseJwt(request);
 
-			if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-				String username = jwtUtils.getUserNameFromJwtToken(jwt);
-
-				UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-				UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-						userDetails, null, userDetails.getAuthorities());
-				authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-
-				SecurityContextHolder.getContext().setAuthentication(authentication);
+			Claims claims = jwt != null ? jwtUtils.verifyJwtToken(jwt) : null;
+
+			if (claims != null && !isRevoked(jwt)) {
+				UsernamePasswordAuthenticationToken authentication;
+
+				if (stateless && claims.get(JwtUtils.STAMP_CLAIM) != null) {
+					authentication = authenticateFromClaims(claims);
+				} else {
+					// Full mode, and tokens issued before the claims existed
+					UserDetails userDetails = userDetailsService.loadUserByUsername(claims.getSubject());
+					authentication = hasCurrentStamp(claims, userDetails)
+							? new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities())
+							: null;
+				}
+
+				if (authentication != null) {
+					authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+					SecurityContextHolder.getContext().setAuthentication(authentication);
+				}
 			}
 		} catch (Exception e) {
 			logger.error("Cannot set user authentication: {}", e.getMessage());
@@ -54,6 +83,47 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 		filterChain.doFilter(request, response);
 	}
 
+	/**
+	 * Builds the authentication from the token claims alone; the only lookup is
+	 * the (locally cached) security stamp, so a logout still revokes the token
+	 */
+	private UsernamePasswordAuthenticationToken authenticateFromClaims(Claims claims) {
+		String username = claims.getSubject();
+		long stamp = claims.get(JwtUtils.STAMP_CLAIM, Long.class);
+		if (!securityStampService.isCurrent(username, stamp)) {
+			logger.debug("Rejected revoked JWT token for user {}", username);
+			return null;
+		}
+
+		Role role = Role.valueOf(claims.get(JwtUtils.ROLE_CLAIM, String.class));
+		JwtPrincipal principal = new JwtPrincipal(claims.get(JwtUtils.USER_ID_CLAIM, Long.class), username, role);
+		return new UsernamePasswordAuthenticationToken(principal, null,
+				List.of(new SimpleGrantedAuthority("ROLE_" + role.name())));
+	}
+
+	/**
+	 * Compares the token's stamp with the freshly loaded user, so a logout or a
+	 * bulk revocation also revokes tokens in full mode
+	 */
+	private boolean hasCurrentStamp(Claims claims, UserDetails userDetails) {
+		Long stamp = claims.get(JwtUtils.STAMP_CLAIM, Long.class);
+		if (stamp != null && userDetails instanceof User user && user.getSecurityStamp() != stamp) {
+			logger.debug("Rejected revoked JWT token for user {}", user.getUsername());
+			return false;
+		}
+		return true;
+	}
+
+	private boolean isRevoked(String jwt) {
+		try {
+			return tokenBlacklistService.isRevoked(jwt);
+		} catch (Exception e) {
+			// Access tokens never depended on Redis; an outage must not lock every user out
+			logger.warn("Could not check JWT token revocation: {}", e.getMessage());
+			return false;
+		}
+	}
+
 	/**
 	 * Extract JWT token from Authorization header
 	 */
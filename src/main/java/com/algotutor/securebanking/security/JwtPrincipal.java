@@ -0,0 +1,17 @@
+package com.algotutor.securebanking.security;
+
+import org.springframework.security.core.AuthenticatedPrincipal;
+
+import com.algotutor.securebanking.entity.Role;
+
+/**
+ * Principal of a request authenticated purely from verified JWT claims, in
+ * place of the {@code User} entity that the full mode loads
+ */
+public record JwtPrincipal(Long id, String username, Role role) implements AuthenticatedPrincipal {
+
+	@Override
+	public String getName() {
+		return username;
+	}
+}
@@ -1,30 +1,55 @@
 package com.algotutor.securebanking.security;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.crypto.SecretKey;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
 
 import com.algotutor.securebanking.entity.User;
+import com.algotutor.securebanking.metrics.BankingMetrics;
 
+import jakarta.annotation.PostConstruct;
+
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
-
+import io.jsonwebtoken.security.SecurityException;
+
+/**
+ * Issues and verifies JWT tokens.
+ *
+ * The signing key and parser are built once. A verified token's claims are
+ * kept, keyed by a SHA-256 digest of the whole token, until the token expires,
+ * so a client repeating the same bearer token is verified only once; a token
+ * that differs in any byte (including its signature) never matches an entry.
+ */
 @Component
 public class JwtUtils {
 
 	private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
 
+	public static final String USER_ID_CLAIM = "uid";
+	public static final String ROLE_CLAIM = "role";
+	public static final String STAMP_CLAIM = "stamp";
+
 	@Value("${app.jwtSecret:mySecretKey}")
 	private String jwtSecret;
 
@@ -34,9 +59,41 @@ public class JwtUtils {
 	@Value("${app.jwtRefreshExpirationMs:604800000}") // 7 days
 	private int jwtRefreshExpirationMs;
 
+	// Verified tokens remembered until they expire; 0 disables the cache
+	@Value("${app.jwt.verified-cache-size:10000}")
+	private int verifiedCacheSize;
+
+	@Autowired
+	private BankingMetrics bankingMetrics;
+
+	private SecretKey signKey;
+
+	private JwtParser parser;
+
+	private final Map<String, VerifiedToken> verified = new ConcurrentHashMap<>();
+
+	@PostConstruct
+	public void init() {
+		signKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+		parser = Jwts.parser().verifyWith(signKey).build();
+	}
+
 	public String generateJwtToken(Authentication authentication) {
 		User userPrincipal = (User) authentication.getPrincipal();
-		return generateTokenFromUsername(userPrincipal.getUsername(), jwtExpirationMs);
+		return generateAccessToken(userPrincipal);
+	}
+
+	/**
+	 * Access token that also carries the user's id, role and security stamp, so
+	 * the stateless filter mode can authenticate it without loading the user
+	 */
+	public String generateAccessToken(User user) {
+		Date issuedAt = new Date();
+		Date expiryDate = new Date(issuedAt.getTime() + jwtExpirationMs);
+
+		return Jwts.builder().subject(user.getUsername()).claim(USER_ID_CLAIM, user.getId())
+				.claim(ROLE_CLAIM, user.getRole().name()).claim(STAMP_CLAIM, user.getSecurityStamp())
+				.issuedAt(issuedAt).expiration(expiryDate).signWith(signKey).compact();
 	}
 
 	public String generateRefreshToken(String username) {
@@ -46,40 +103,87 @@ public class JwtUtils {
 	public String generateTokenFromUsername(String username, int expirationMs) {
 		Date expiryDate = new Date((new Date()).getTime() + expirationMs);
 
-		return Jwts.builder().subject(username).issuedAt(new Date()).expiration(expiryDate).signWith(getSignKey())
+		return Jwts.builder().subject(username).issuedAt(new Date()).expiration(expiryDate).signWith(signKey)
 				.compact();
 	}
 
-	public String getUserNameFromJwtToken(String token) {
-		return Jwts.parser().verifyWith(getSignKey()).build().parseSignedClaims(token).getPayload().getSubject();
-	}
-
-	private SecretKey getSignKey() {
-		byte[] keyBytes = Decoders.BASE64.decode(jwtSecret);
-		return Keys.hmacShaKeyFor(keyBytes);
-	}
+	/**
+	 * Verifies the token once and returns its claims, or {@code null} if it is
+	 * not a valid, unexpired token signed with our key
+	 */
+	public Claims verifyJwtToken(String authToken) {
+		String digest = verifiedCacheSize > 0 ? digest(authToken) : null;
+		if (digest != null) {
+			VerifiedToken cached = verified.get(digest);
+			if (cached != null) {
+				if (cached.expiresAt() > System.currentTimeMillis()) {
+					bankingMetrics.incrementJwtCacheHits();
+					return cached.claims();
+				}
+				verified.remove(digest, cached);
+			}
+			bankingMetrics.incrementJwtCacheMisses();
+		}
 
-	public boolean validateJwtToken(String authToken) {
+		Claims claims;
 		try {
-			Jwts.parser().verifyWith(getSignKey()).build().parseSignedClaims(authToken);
-			return true;
+			claims = parser.parseSignedClaims(authToken).getPayload();
 		} catch (SecurityException e) {
 			logger.error("Invalid JWT signature: {}", e.getMessage());
+			return null;
 		} catch (MalformedJwtException e) {
 			logger.error("Invalid JWT token: {}", e.getMessage());
+			return null;
 		} catch (ExpiredJwtException e) {
 			logger.error("JWT token is expired: {}", e.getMessage());
+			return null;
 		} catch (UnsupportedJwtException e) {
 			logger.error("JWT token is unsupported: {}", e.getMessage());
+			return null;
 		} catch (IllegalArgumentException e) {
 			logger.error("JWT claims string is empty: {}", e.getMessage());
+			return null;
+		}
+
+		// Tokens without an expiry are verified every time rather than kept forever
+		if (digest != null && claims.getExpiration() != null) {
+			if (verified.size() >= verifiedCacheSize) {
+				verified.clear();
+			}
+			verified.put(digest, new VerifiedToken(claims, claims.getExpiration().getTime()));
+		}
+		return claims;
+	}
+
+	public Claims getClaimsFromJwtToken(String token) {
+		Claims claims = verifyJwtToken(token);
+		if (claims == null) {
+			throw new MalformedJwtException("Invalid JWT token");
 		}
+		return claims;
+	}
+
+	public String getUserNameFromJwtToken(String token) {
+		return getClaimsFromJwtToken(token).getSubject();
+	}
 
-		return false;
+	public boolean validateJwtToken(String authToken) {
+		return verifyJwtToken(authToken) != null;
 	}
 
 	public Long getJwtExpirationMs() {
 		return (long) jwtExpirationMs;
 	}
 
+	private String digest(String token) {
+		try {
+			byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+			return Base64.getEncoder().encodeToString(hash);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not available", e);
+		}
+	}
+
+	private record VerifiedToken(Claims claims, long expiresAt) {
+	}
 }
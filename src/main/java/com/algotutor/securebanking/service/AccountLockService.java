@@ -0,0 +1,15 @@
+package com.algotutor.securebanking.service;
+
+import java.util.Collection;
+import java.util.function.Supplier;
+
+public interface AccountLockService {
+
+	<T> T withAccountLock(String accountNumber, Supplier<T> action);
+
+	<T> T withAccountLocks(String firstAccountNumber, String secondAccountNumber, Supplier<T> action);
+
+	<T> T withAccountLocks(Collection<String> accountNumbers, Supplier<T> action);
+
+	int getStripeCount();
+}
@@ -0,0 +1,20 @@
+package com.algotutor.securebanking.service;
+
+import java.util.Set;
+
+public interface AccountOwnershipService {
+
+	/**
+	 * Numbers of the user's active accounts
+	 */
+	Set<String> getOwnedAccountNumbers(String username);
+
+	boolean isOwner(String username, String accountNumber);
+
+	/**
+	 * Forgets the user's accounts on every node once the current transaction
+	 * commits (immediately when there is none). Call whenever an account is
+	 * opened, closed or deactivated.
+	 */
+	void invalidate(String username);
+}
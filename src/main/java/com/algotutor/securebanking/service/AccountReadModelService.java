@@ -0,0 +1,36 @@
+package com.algotutor.securebanking.service;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.function.Supplier;
+
+import com.algotutor.securebanking.dto.banking.AccountDto;
+import com.algotutor.securebanking.entity.Account;
+
+public interface AccountReadModelService {
+
+	/**
+	 * The account from the cache, or from {@code loader} on a miss, in which case
+	 * it is cached. A cached entry is only ever replaced by a newer version, so a
+	 * slow reader cannot overwrite a fresher balance.
+	 */
+	AccountDto getAccount(String accountNumber, Supplier<Account> loader);
+
+	/**
+	 * The user's active accounts from the cache, or from {@code loader} unless
+	 * every one of them is cached
+	 */
+	List<AccountDto> getUserAccounts(String username, Supplier<List<Account>> loader);
+
+	/**
+	 * Records a posted balance. Must run inside the posting's database
+	 * transaction; the cache is updated only after it commits, and never with an
+	 * older version than it already holds.
+	 */
+	void balanceChanged(String accountNumber, BigDecimal balance, long version);
+
+	/**
+	 * Drops the user's cached account list once the current transaction commits
+	 */
+	void userAccountsChanged(String username);
+}
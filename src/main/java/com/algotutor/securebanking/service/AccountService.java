@@ -16,5 +16,7 @@ public interface AccountService {
 
 	Account findAccountEntityByNumber(String accountNumber);
 
+	Long findActiveAccountId(String accountNumber);
+
 	List<AccountDto> getAllAccounts(); // Admin only
 }
@@ -0,0 +1,16 @@
+package com.algotutor.securebanking.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.algotutor.securebanking.dto.admin.AuditEventDto;
+
+public interface AuditService {
+
+	/**
+	 * Audit events matching the optional user and action between {@code from}
+	 * and {@code to} (inclusive), newest first
+	 */
+	List<AuditEventDto> findEvents(String username, String action, LocalDateTime from, LocalDateTime to,
+			Integer limit);
+}
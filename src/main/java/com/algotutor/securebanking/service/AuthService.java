@@ -11,5 +11,5 @@ public interface AuthService {
 
 	AuthResponse refreshToken(String refreshToken);
 
-	void logout(String username);
+	void logout(String username, String accessToken);
 }
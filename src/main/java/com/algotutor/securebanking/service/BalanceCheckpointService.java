@@ -0,0 +1,32 @@
+package com.algotutor.securebanking.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import com.algotutor.securebanking.dto.banking.BalanceDto;
+
+public interface BalanceCheckpointService {
+
+	/**
+	 * Balance of the account including every transaction created at or before
+	 * {@code asOf}
+	 */
+	BalanceDto getBalanceAsOf(String accountNumber, LocalDateTime asOf);
+
+	/**
+	 * Writes end-of-day checkpoints for the accounts that had activity on the
+	 * given day. Accounts already checkpointed for that day are skipped, and
+	 * nothing is written while another node is running the checkpoint job.
+	 * 
+	 * @return number of checkpoints written
+	 */
+	int createCheckpoints(LocalDate day);
+
+	/**
+	 * Checkpoints every completed day after the latest existing checkpoint, up to
+	 * and including yesterday, unless another node is already doing so
+	 * 
+	 * @return number of checkpoints written
+	 */
+	int createMissingCheckpoints();
+}
@@ -0,0 +1,11 @@
+package com.algotutor.securebanking.service;
+
+import java.util.function.Supplier;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+
+public interface IdempotencyService {
+
+	<T> T execute(String scope, String idempotencyKey, Object request, TypeReference<T> responseType,
+			Supplier<T> action);
+}
@@ -0,0 +1,24 @@
+package com.algotutor.securebanking.service;
+
+import java.util.Collection;
+
+import com.algotutor.securebanking.dto.banking.TransactionDto;
+
+public interface OutboxService {
+
+	/**
+	 * Queues one event per posted transaction. Must run inside the posting's
+	 * database transaction while it holds the account row locks, so the events
+	 * commit or roll back with the postings and are ordered like them.
+	 */
+	void enqueue(Collection<TransactionDto> transactions);
+
+	/**
+	 * Publishes pending events, one batch per partition at a time, for every
+	 * partition not currently owned by another relay. Stops at the first
+	 * failed batch; its events stay queued and are retried on the next run.
+	 * 
+	 * @return number of events published
+	 */
+	int relay();
+}
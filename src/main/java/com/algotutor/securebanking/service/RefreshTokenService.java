@@ -1,6 +1,8 @@
 package com.algotutor.securebanking.service;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import com.algotutor.securebanking.entity.RefreshToken;
@@ -14,15 +16,35 @@ public interface RefreshTokenService {
 
 	RefreshToken verifyExpiration(RefreshToken token);
 
+	/**
+	 * Atomically replaces a refresh token with a new one for the same user;
+	 * empty if the token does not exist (expired, already rotated or deleted)
+	 */
+	Optional<RefreshToken> rotateRefreshToken(String token, HttpServletRequest request);
+
 	void deleteByUsername(String username);
 
 	void deleteByToken(String token);
 
 	void deleteExpiredTokens();
 
+	/**
+	 * Renames keys written before refresh token keys carried slot tags; returns
+	 * the number renamed
+	 */
+	long renameLegacyKeys();
+
 	List<RefreshToken> getActiveTokensByUsername(String username);
 
 	void revokeAllUserTokens(String username);
 
+	/**
+	 * Deletes and blacklists the tokens these users were issued before the
+	 * cutoff (every token when it is null), in one pipelined round trip; returns
+	 * the revoked tokens of each user that had any. A rotated token counts as
+	 * issued when its session was.
+	 */
+	Map<String, List<String>> revokeTokensIssuedBefore(List<String> usernames, LocalDateTime issuedBefore);
+
 	boolean isTokenValid(String token);
 }
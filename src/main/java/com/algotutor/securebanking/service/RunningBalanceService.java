@@ -0,0 +1,13 @@
+package com.algotutor.securebanking.service;
+
+public interface RunningBalanceService {
+
+	/**
+	 * Fills in {@code balanceAfter} on transactions written before postings
+	 * recorded it, by replaying each affected account's history oldest first.
+	 * Rows that already have a value are left untouched.
+	 * 
+	 * @return number of transactions updated
+	 */
+	int backfillBalanceAfter();
+}
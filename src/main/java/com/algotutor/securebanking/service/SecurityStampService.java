@@ -0,0 +1,23 @@
+package com.algotutor.securebanking.service;
+
+import java.util.Collection;
+
+public interface SecurityStampService {
+
+	/**
+	 * Whether a token carrying this stamp is still valid for the user. Answered
+	 * from a short-lived local cache; the database is read at most once per
+	 * user per cache period.
+	 */
+	boolean isCurrent(String username, long stamp);
+
+	/**
+	 * Revokes every access token issued to the user so far
+	 */
+	void revoke(String username);
+
+	/**
+	 * Revokes every access token issued to these users so far, in one update
+	 */
+	void revokeAll(Collection<String> usernames);
+}
@@ -0,0 +1,18 @@
+package com.algotutor.securebanking.service;
+
+import com.algotutor.securebanking.dto.admin.SessionRevocationJobDto;
+import com.algotutor.securebanking.dto.admin.SessionRevocationRequest;
+
+public interface SessionRevocationService {
+
+	/**
+	 * Queues a background job that revokes the refresh and access tokens of
+	 * the requested users (or of every user) issued before the cutoff
+	 */
+	SessionRevocationJobDto startRevocation(SessionRevocationRequest request, String requestedBy);
+
+	/**
+	 * Progress of a job started on any node
+	 */
+	SessionRevocationJobDto getJob(String id);
+}
@@ -0,0 +1,20 @@
+package com.algotutor.securebanking.service;
+
+import java.time.Duration;
+import java.util.Collection;
+
+public interface TokenBlacklistService {
+
+	/**
+	 * Revokes a refresh or access token on every node until it would have
+	 * expired anyway
+	 */
+	void revoke(String token, Duration remainingLifetime);
+
+	/**
+	 * Revokes many tokens with one pipelined write and a single broadcast
+	 */
+	void revokeAll(Collection<String> tokens, Duration remainingLifetime);
+
+	boolean isRevoked(String token);
+}
@@ -0,0 +1,12 @@
+package com.algotutor.securebanking.service;
+
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+
+import com.algotutor.securebanking.dto.banking.ExportFormat;
+
+public interface TransactionExportService {
+
+	void exportAccountTransactions(String accountNumber, LocalDateTime startDate, LocalDateTime endDate,
+			ExportFormat format, OutputStream outputStream);
+}
@@ -0,0 +1,23 @@
+package com.algotutor.securebanking.service;
+
+import java.util.Collection;
+
+import com.algotutor.securebanking.entity.Transaction;
+
+public interface TransactionRollupService {
+
+	/**
+	 * Adds the postings to their daily rollups. Must run inside the posting's
+	 * database transaction, after the affected account rows have been updated,
+	 * so that the account row locks serialize concurrent bucket inserts.
+	 */
+	void record(Collection<Transaction> transactions);
+
+	/**
+	 * Regenerates every rollup from the transactions table, one account
+	 * partition per worker. Postings should be paused while it runs.
+	 * 
+	 * @return number of rollup rows written
+	 */
+	int rebuild();
+}
@@ -1,9 +1,13 @@
 package com.algotutor.securebanking.service;
 
+import java.time.LocalDate;
 import java.util.List;
 
+import com.algotutor.securebanking.dto.banking.BatchTransferResponse;
 import com.algotutor.securebanking.dto.banking.DepositRequest;
 import com.algotutor.securebanking.dto.banking.TransactionDto;
+import com.algotutor.securebanking.dto.banking.TransactionPageDto;
+import com.algotutor.securebanking.dto.banking.TransactionTotalDto;
 import com.algotutor.securebanking.dto.banking.TransferRequest;
 import com.algotutor.securebanking.dto.banking.WithdrawalRequest;
 
@@ -14,9 +18,31 @@ public interface TransactionService {
 
 	List<TransactionDto> transfer(TransferRequest transferRequest);
 
+	BatchTransferResponse transferBatch(List<TransferRequest> transferRequests);
+
+	/**
+	 * @deprecated returns at most one page (the configured maximum page size);
+	 *             use {@link #getAccountTransactionsPage(String, Integer, String)}
+	 */
+	@Deprecated
 	List<TransactionDto> getAccountTransactions(String accountNumber);
 
+	/**
+	 * @deprecated returns at most one page (the configured maximum page size);
+	 *             use {@link #getUserTransactionsPage(String, Integer, String)}
+	 */
+	@Deprecated
 	List<TransactionDto> getUserTransactions(String username);
 
+	TransactionPageDto getAccountTransactionsPage(String accountNumber, Integer size, String cursor);
+
+	TransactionPageDto getUserTransactionsPage(String username, Integer size, String cursor);
+
+	/**
+	 * Count and sum per transaction type for the account between the two dates
+	 * (inclusive), read from the daily rollups
+	 */
+	List<TransactionTotalDto> getTotalsByType(String accountNumber, LocalDate from, LocalDate to);
+
 	TransactionDto getTransactionById(Long transactionId);
 }
@@ -0,0 +1,136 @@
+package com.algotutor.securebanking.service.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.algotutor.securebanking.exception.AccountLockException;
+import com.algotutor.securebanking.metrics.BankingMetrics;
+import com.algotutor.securebanking.service.AccountLockService;
+
+import io.micrometer.core.instrument.Gauge;
+
+/**
+ * Striped in-process locks keyed by account number.
+ *
+ * Each account number hashes to one of a fixed number of stripes, so
+ * operations on unrelated accounts proceed in parallel while operations on
+ * the same account are serialized. When several accounts are locked together
+ * the stripes are always acquired in ascending index order, which rules out
+ * lock-order deadlocks between opposite-direction transfers.
+ */
+@Service
+public class AccountLockServiceImpl implements AccountLockService {
+
+	private static final Logger logger = LoggerFactory.getLogger(AccountLockServiceImpl.class);
+
+	private final ReentrantLock[] stripes;
+	private final long timeoutMs;
+	private final BankingMetrics bankingMetrics;
+
+	public AccountLockServiceImpl(@Value("${app.account-lock.stripes:1024}") int stripeCount,
+			@Value("${app.account-lock.timeout-ms:5000}") long timeoutMs, BankingMetrics bankingMetrics) {
+		// Round up to a power of two so the stripe index is a simple mask
+		int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+		this.stripes = new ReentrantLock[size];
+		for (int i = 0; i < size; i++) {
+			stripes[i] = new ReentrantLock();
+		}
+		this.timeoutMs = timeoutMs;
+		this.bankingMetrics = bankingMetrics;
+
+		Gauge.builder("banking.account.lock.stripes", this, AccountLockServiceImpl::getStripeCount)
+				.description("Number of account lock stripes")
+				.register(bankingMetrics.getMeterRegistry());
+		Gauge.builder("banking.account.lock.held", this, AccountLockServiceImpl::countHeldStripes)
+				.description("Account lock stripes currently held")
+				.register(bankingMetrics.getMeterRegistry());
+	}
+
+	@Override
+	public <T> T withAccountLock(String accountNumber, Supplier<T> action) {
+		return runLocked(List.of(stripeIndex(accountNumber)), action);
+	}
+
+	@Override
+	public <T> T withAccountLocks(String firstAccountNumber, String secondAccountNumber, Supplier<T> action) {
+		return withAccountLocks(List.of(firstAccountNumber, secondAccountNumber), action);
+	}
+
+	@Override
+	public <T> T withAccountLocks(Collection<String> accountNumbers, Supplier<T> action) {
+		// Sorted and de-duplicated: accounts sharing a stripe take it once
+		TreeSet<Integer> indexes = new TreeSet<>();
+		for (String accountNumber : accountNumbers) {
+			indexes.add(stripeIndex(accountNumber));
+		}
+		return runLocked(new ArrayList<>(indexes), action);
+	}
+
+	@Override
+	public int getStripeCount() {
+		return stripes.length;
+	}
+
+	private <T> T runLocked(List<Integer> orderedIndexes, Supplier<T> action) {
+		List<ReentrantLock> acquired = new ArrayList<>(orderedIndexes.size());
+		try {
+			for (int index : orderedIndexes) {
+				acquire(stripes[index]);
+				acquired.add(stripes[index]);
+			}
+			return action.get();
+		} finally {
+			for (int i = acquired.size() - 1; i >= 0; i--) {
+				acquired.get(i).unlock();
+			}
+		}
+	}
+
+	private void acquire(ReentrantLock lock) {
+		if (lock.tryLock()) {
+			bankingMetrics.recordLockWait(0);
+			return;
+		}
+
+		bankingMetrics.incrementLockContention();
+		long start = System.nanoTime();
+		try {
+			boolean locked = lock.tryLock(timeoutMs, TimeUnit.MILLISECONDS);
+			bankingMetrics.recordLockWait(System.nanoTime() - start);
+			if (!locked) {
+				bankingMetrics.incrementLockTimeouts();
+				logger.warn("Timed out after {} ms waiting for account lock", timeoutMs);
+				throw new AccountLockException("Account is busy, please retry");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new AccountLockException("Interrupted while waiting for account lock", e);
+		}
+	}
+
+	private int stripeIndex(String accountNumber) {
+		int h = accountNumber.hashCode();
+		h ^= (h >>> 16);
+		return h & (stripes.length - 1);
+	}
+
+	private double countHeldStripes() {
+		int held = 0;
+		for (ReentrantLock lock : stripes) {
+			if (lock.isLocked()) {
+				held++;
+			}
+		}
+		return held;
+	}
+}
@@ -0,0 +1,156 @@
+package com.algotutor.securebanking.service.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.algotutor.securebanking.repository.AccountRepository;
+import com.algotutor.securebanking.service.AccountOwnershipService;
+
+/**
+ * Near-cache of which account numbers each user owns, so ownership checks on
+ * customer endpoints are a local hash lookup.
+ *
+ * Entries live for a bounded time. A change is applied locally and broadcast
+ * over Redis pub/sub so every other node drops its copy too; if a message is
+ * missed (e.g. while Redis is unreachable) the entry still expires after the
+ * TTL. A load that raced with an invalidation is not cached.
+ */
+@Service
+public class AccountOwnershipServiceImpl implements AccountOwnershipService, MessageListener {
+
+	private static final Logger logger = LoggerFactory.getLogger(AccountOwnershipServiceImpl.class);
+
+	@Autowired
+	private AccountRepository accountRepository;
+
+	@Autowired
+	private RedisTemplate<String, String> stringRedisTemplate;
+
+	@Autowired
+	private RedisMessageListenerContainer redisMessageListenerContainer;
+
+	@Value("${app.ownership-cache.max-size:100000}")
+	private int maxSize;
+
+	@Value("${app.ownership-cache.ttl:PT2M}")
+	private Duration ttl;
+
+	@Value("${app.ownership-cache.channel:account-ownership-invalidations}")
+	private String channel;
+
+	@Value("${app.ownership-cache.resubscribe-interval:PT30S}")
+	private Duration resubscribeInterval;
+
+	@Autowired
+	private TaskScheduler taskScheduler;
+
+	private final Map<String, Entry> cache = new ConcurrentHashMap<>();
+
+	// Bumped by every invalidation; a load only caches its result if this did not move meanwhile
+	private final AtomicLong invalidations = new AtomicLong();
+
+	/**
+	 * Subscribes once the listener container is running. A Redis outage only
+	 * postpones this: the attempt is repeated until it succeeds, and the cache
+	 * is cleared then because broadcasts may have been missed in the meantime.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void subscribe() {
+		try {
+			redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(channel));
+			evictAll();
+			logger.info("Subscribed to ownership invalidations on {}", channel);
+		} catch (Exception e) {
+			logger.warn("Could not subscribe to ownership invalidations, retrying in {}: {}", resubscribeInterval,
+					e.getMessage());
+			taskScheduler.schedule(this::subscribe, Instant.now().plus(resubscribeInterval));
+		}
+	}
+
+	@Override
+	public Set<String> getOwnedAccountNumbers(String username) {
+		Entry entry = cache.get(username);
+		long now = System.nanoTime();
+		if (entry != null && now - entry.loadedAt() < ttl.toNanos()) {
+			return entry.accountNumbers();
+		}
+
+		long seen = invalidations.get();
+		Set<String> accountNumbers = Set.copyOf(accountRepository.findActiveAccountNumbersByUsername(username));
+		if (invalidations.get() == seen) {
+			if (cache.size() >= maxSize) {
+				cache.clear();
+			}
+			cache.put(username, new Entry(accountNumbers, now));
+		}
+		return accountNumbers;
+	}
+
+	@Override
+	public boolean isOwner(String username, String accountNumber) {
+		return accountNumber != null && getOwnedAccountNumbers(username).contains(accountNumber);
+	}
+
+	@Override
+	public void invalidate(String username) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					evictEverywhere(username);
+				}
+			});
+		} else {
+			evictEverywhere(username);
+		}
+	}
+
+	@Override
+	public void onMessage(Message message, byte[] pattern) {
+		evict(new String(message.getBody(), StandardCharsets.UTF_8));
+	}
+
+	private void evictEverywhere(String username) {
+		evict(username);
+		try {
+			stringRedisTemplate.convertAndSend(channel, username);
+		} catch (Exception e) {
+			// Other nodes fall back on the TTL
+			logger.warn("Could not broadcast ownership change for user {}: {}", username, e.getMessage());
+		}
+	}
+
+	private void evict(String username) {
+		invalidations.incrementAndGet();
+		cache.remove(username);
+	}
+
+	private void evictAll() {
+		invalidations.incrementAndGet();
+		cache.clear();
+	}
+
+	private record Entry(Set<String> accountNumbers, long loadedAt) {
+	}
+}
@@ -0,0 +1,374 @@
+package com.algotutor.securebanking.service.impl;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.algotutor.securebanking.config.RedisKeys;
+import com.algotutor.securebanking.dto.banking.AccountDto;
+import com.algotutor.securebanking.entity.Account;
+import com.algotutor.securebanking.entity.AccountType;
+import com.algotutor.securebanking.metrics.BankingMetrics;
+import com.algotutor.securebanking.service.AccountReadModelService;
+
+/**
+ * Account read model in Redis: one hash per account (id, number, type,
+ * balance, createdAt, active, version) plus a set of account numbers per user.
+ *
+ * Every write is a compare-and-set on the account's row version, so writes
+ * may arrive in any order: an after-commit update that lost a race to a later
+ * posting, or a reader filling the cache from a database read that predates a
+ * posting, is discarded instead of regressing the balance. A user's list is
+ * guarded the same way by a generation counter bumped on every change. A
+ * posting to an account that is not cached leaves a version floor (a hash
+ * holding only {@code version}) for a short while, so a fill read before the
+ * posting cannot land after it; readers treat a floor as a miss.
+ *
+ * Redis failures never fail the request; reads fall back to the database and
+ * a lost update is corrected when the entry expires.
+ */
+@Service
+public class AccountReadModelServiceImpl implements AccountReadModelService {
+
+	private static final Logger logger = LoggerFactory.getLogger(AccountReadModelServiceImpl.class);
+
+	private static final String ACCOUNT_PREFIX = "account:";
+	private static final String USER_ACCOUNTS_PREFIX = "account:user:";
+	private static final String USER_GENERATION_PREFIX = "account:user-gen:";
+
+	/*
+	 * The scripts are sent with EVAL rather than EVALSHA: they run inside
+	 * pipelines, where a NOSCRIPT error cannot be caught and retried per command.
+	 */
+
+	// ARGV: version, balance, ttl, floor ttl. Updates a cached entry that is
+	// older; otherwise only raises the version floor
+	private static final String UPDATE_BALANCE = """
+			local current = redis.call('HGET', KEYS[1], 'version')
+			if current and tonumber(current) >= tonumber(ARGV[1]) then return 0 end
+			if redis.call('HEXISTS', KEYS[1], 'id') == 1 then
+				redis.call('HSET', KEYS[1], 'balance', ARGV[2], 'version', ARGV[1])
+				redis.call('PEXPIRE', KEYS[1], ARGV[3])
+				return 1
+			end
+			redis.call('HSET', KEYS[1], 'version', ARGV[1])
+			redis.call('PEXPIRE', KEYS[1], ARGV[4])
+			return 0
+			""";
+
+	// ARGV: version, ttl, then field/value pairs (including version). A read at
+	// the floor's own version is current, so only strictly newer entries win
+	private static final String FILL_ACCOUNT = """
+			local current = redis.call('HGET', KEYS[1], 'version')
+			if current and tonumber(current) > tonumber(ARGV[1]) then return 0 end
+			redis.call('HSET', KEYS[1], unpack(ARGV, 3))
+			redis.call('PEXPIRE', KEYS[1], ARGV[2])
+			return 1
+			""";
+
+	// KEYS: list, generation; ARGV: generation seen before the database read, ttl, account numbers
+	private static final String FILL_USER_ACCOUNTS = """
+			if (redis.call('GET', KEYS[2]) or '0') ~= ARGV[1] then return 0 end
+			redis.call('DEL', KEYS[1])
+			redis.call('SADD', KEYS[1], unpack(ARGV, 3))
+			redis.call('PEXPIRE', KEYS[1], ARGV[2])
+			return 1
+			""";
+
+	// Transaction resource holding the balances to publish after commit
+	private final Object pendingBalancesKey = new Object();
+
+	@Autowired
+	private RedisTemplate<String, String> stringRedisTemplate;
+
+	@Autowired
+	private BankingMetrics bankingMetrics;
+
+	@Value("${app.account-cache.enabled:true}")
+	private boolean enabled;
+
+	@Value("${app.account-cache.ttl:PT30M}")
+	private Duration ttl;
+
+	@Value("${app.account-cache.version-floor-ttl:PT1M}")
+	private Duration versionFloorTtl;
+
+	@Override
+	public AccountDto getAccount(String accountNumber, Supplier<Account> loader) {
+		if (enabled) {
+			try {
+				Map<Object, Object> fields = stringRedisTemplate.opsForHash().entries(ACCOUNT_PREFIX + accountNumber);
+				if (isCached(fields)) {
+					bankingMetrics.incrementAccountCacheHits();
+					return toDto(fields);
+				}
+			} catch (Exception e) {
+				logger.warn("Account cache read failed for {}: {}", accountNumber, e.getMessage());
+			}
+		}
+
+		bankingMetrics.incrementAccountCacheMisses();
+		Account account = loader.get();
+		fill(List.of(account), null, null);
+		return toDto(account);
+	}
+
+	@Override
+	public List<AccountDto> getUserAccounts(String username, Supplier<List<Account>> loader) {
+		String generation = null;
+		if (enabled) {
+			try {
+				List<AccountDto> cached = readUserAccounts(username);
+				if (cached != null) {
+					bankingMetrics.incrementAccountCacheHits();
+					return cached;
+				}
+				generation = stringRedisTemplate.opsForValue().get(userGenerationKey(username));
+			} catch (Exception e) {
+				logger.warn("Account cache read failed for user {}: {}", username, e.getMessage());
+			}
+		}
+
+		bankingMetrics.incrementAccountCacheMisses();
+		List<Account> accounts = loader.get();
+		fill(accounts, username, generation != null ? generation : "0");
+		return accounts.stream().map(this::toDto).sorted(Comparator.comparing(AccountDto::getId)).toList();
+	}
+
+	@Override
+	@Transactional(propagation = Propagation.MANDATORY)
+	public void balanceChanged(String accountNumber, BigDecimal balance, long version) {
+		if (!enabled) {
+			return;
+		}
+		@SuppressWarnings("unchecked")
+		Map<String, BalanceUpdate> pending = (Map<String, BalanceUpdate>) TransactionSynchronizationManager
+				.getResource(pendingBalancesKey);
+		if (pending == null) {
+			Map<String, BalanceUpdate> balances = new LinkedHashMap<>();
+			TransactionSynchronizationManager.bindResource(pendingBalancesKey, balances);
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					publishBalances(balances);
+				}
+
+				@Override
+				public void afterCompletion(int status) {
+					TransactionSynchronizationManager.unbindResourceIfPossible(pendingBalancesKey);
+				}
+			});
+			pending = balances;
+		}
+		// A batch may post to the same account many times; only its final balance is published
+		pending.merge(accountNumber, new BalanceUpdate(balance, version),
+				(previous, update) -> update.version() > previous.version() ? update : previous);
+	}
+
+	@Override
+	public void userAccountsChanged(String username) {
+		if (!enabled) {
+			return;
+		}
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					invalidateUserAccounts(username);
+				}
+			});
+		} else {
+			invalidateUserAccounts(username);
+		}
+	}
+
+	private List<AccountDto> readUserAccounts(String username) {
+		Set<String> accountNumbers = stringRedisTemplate.opsForSet().members(userAccountsKey(username));
+		if (accountNumbers == null || accountNumbers.isEmpty()) {
+			return null;
+		}
+
+		List<String> keys = accountNumbers.stream().map(accountNumber -> ACCOUNT_PREFIX + accountNumber).toList();
+		List<Object> entries = stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+			@Override
+			public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+				@SuppressWarnings("unchecked")
+				RedisOperations<String, String> redis = (RedisOperations<String, String>) operations;
+				for (String key : keys) {
+					redis.opsForHash().entries(key);
+				}
+				return null;
+			}
+		});
+
+		List<AccountDto> accounts = new ArrayList<>(entries.size());
+		for (Object entry : entries) {
+			@SuppressWarnings("unchecked")
+			Map<Object, Object> fields = (Map<Object, Object>) entry;
+			if (!isCached(fields)) {
+				// One of the accounts expired; reload the whole list
+				return null;
+			}
+			AccountDto account = toDto(fields);
+			if (!account.isActive()) {
+				return null;
+			}
+			accounts.add(account);
+		}
+		accounts.sort(Comparator.comparing(AccountDto::getId));
+		return accounts;
+	}
+
+	/**
+	 * Writes freshly loaded accounts, and the user's list when a username is
+	 * given, in one pipeline
+	 */
+	private void fill(List<Account> accounts, String username, String generation) {
+		if (!enabled) {
+			return;
+		}
+		String ttlMillis = String.valueOf(ttl.toMillis());
+		try {
+			stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+				for (Account account : accounts) {
+					eval(connection, FILL_ACCOUNT, List.of(ACCOUNT_PREFIX + account.getAccountNumber()),
+							fillArguments(account, ttlMillis));
+				}
+				if (username != null && !accounts.isEmpty()) {
+					List<String> arguments = new ArrayList<>(accounts.size() + 2);
+					arguments.add(generation);
+					arguments.add(ttlMillis);
+					accounts.forEach(account -> arguments.add(account.getAccountNumber()));
+					eval(connection, FILL_USER_ACCOUNTS,
+							List.of(userAccountsKey(username), userGenerationKey(username)), arguments);
+				}
+				return null;
+			});
+		} catch (Exception e) {
+			logger.warn("Account cache fill failed: {}", e.getMessage());
+		}
+	}
+
+	private void publishBalances(Map<String, BalanceUpdate> balances) {
+		String ttlMillis = String.valueOf(ttl.toMillis());
+		String floorTtlMillis = String.valueOf(versionFloorTtl.toMillis());
+		try {
+			stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+				balances.forEach((accountNumber, update) -> eval(connection, UPDATE_BALANCE,
+						List.of(ACCOUNT_PREFIX + accountNumber), List.of(String.valueOf(update.version()),
+								update.balance().toPlainString(), ttlMillis, floorTtlMillis)));
+				return null;
+			});
+		} catch (Exception e) {
+			// The posting is committed; the stale entry is replaced on expiry
+			logger.warn("Account cache update failed for {}: {}", balances.keySet(), e.getMessage());
+		}
+	}
+
+	private void invalidateUserAccounts(String username) {
+		try {
+			stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+				@Override
+				public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+					@SuppressWarnings("unchecked")
+					RedisOperations<String, String> redis = (RedisOperations<String, String>) operations;
+					// Bumping the generation voids any fill based on a read from before this change
+					redis.opsForValue().increment(userGenerationKey(username));
+					redis.expire(userGenerationKey(username), ttl);
+					redis.delete(userAccountsKey(username));
+					return null;
+				}
+			});
+		} catch (Exception e) {
+			logger.warn("Account cache invalidation failed for user {}: {}", username, e.getMessage());
+		}
+	}
+
+	/*
+	 * A user's list and generation are read and written by one script, so they
+	 * share the user's cluster slot
+	 */
+
+	private String userAccountsKey(String username) {
+		return RedisKeys.userKey(USER_ACCOUNTS_PREFIX, username);
+	}
+
+	private String userGenerationKey(String username) {
+		return RedisKeys.userKey(USER_GENERATION_PREFIX, username);
+	}
+
+	private void eval(RedisConnection connection, String script, List<String> keys, List<String> arguments) {
+		byte[][] keysAndArguments = new byte[keys.size() + arguments.size()][];
+		int i = 0;
+		for (String key : keys) {
+			keysAndArguments[i++] = key.getBytes(StandardCharsets.UTF_8);
+		}
+		for (String argument : arguments) {
+			keysAndArguments[i++] = argument.getBytes(StandardCharsets.UTF_8);
+		}
+		connection.scriptingCommands().eval(script.getBytes(StandardCharsets.UTF_8), ReturnType.INTEGER, keys.size(),
+				keysAndArguments);
+	}
+
+	private List<String> fillArguments(Account account, String ttlMillis) {
+		long version = account.getVersion() != null ? account.getVersion() : 0;
+		return List.of(String.valueOf(version), ttlMillis,
+				"id", String.valueOf(account.getId()),
+				"accountNumber", account.getAccountNumber(),
+				"accountType", account.getAccountType().name(),
+				"balance", account.getBalance().toPlainString(),
+				"createdAt", account.getCreatedAt().toString(),
+				"active", String.valueOf(account.isActive()),
+				"version", String.valueOf(version));
+	}
+
+	/**
+	 * Whether a hash is a full entry rather than absent or a version floor
+	 */
+	private boolean isCached(Map<Object, Object> fields) {
+		return fields != null && fields.containsKey("id");
+	}
+
+	private AccountDto toDto(Map<Object, Object> fields) {
+		return new AccountDto(
+				Long.valueOf((String) fields.get("id")),
+				(String) fields.get("accountNumber"),
+				AccountType.valueOf((String) fields.get("accountType")),
+				new BigDecimal((String) fields.get("balance")),
+				LocalDateTime.parse((String) fields.get("createdAt")),
+				Boolean.parseBoolean((String) fields.get("active")));
+	}
+
+	private AccountDto toDto(Account account) {
+		return new AccountDto(account.getId(), account.getAccountNumber(), account.getAccountType(),
+				account.getBalance(), account.getCreatedAt(), account.isActive());
+	}
+
+	private record BalanceUpdate(BigDecimal balance, long version) {
+	}
+}
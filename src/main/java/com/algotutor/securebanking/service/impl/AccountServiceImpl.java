@@ -3,7 +3,9 @@ package com.algotutor.securebanking.service.impl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.algotutor.securebanking.dto.banking.AccountDto;
@@ -13,10 +15,14 @@ import com.algotutor.securebanking.entity.User;
 import com.algotutor.securebanking.exception.ResourceNotFoundException;
 import com.algotutor.securebanking.repository.AccountRepository;
 import com.algotutor.securebanking.repository.UserRepository;
+import com.algotutor.securebanking.service.AccountOwnershipService;
+import com.algotutor.securebanking.service.AccountReadModelService;
 import com.algotutor.securebanking.service.AccountService;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @Service
@@ -31,6 +37,18 @@ public class AccountServiceImpl implements AccountService {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private AccountReadModelService accountReadModelService;
+    
+    @Autowired
+    private AccountOwnershipService accountOwnershipService;
+    
+    @Value("${app.posting.account-id-cache-size:10000}")
+    private int accountIdCacheSize;
+    
+    // Account number -> id never changes once assigned, so postings can skip the lookup
+    private final Map<String, Long> accountIdCache = new ConcurrentHashMap<>();
+    
     @Override
     public AccountDto createAccount(User user, AccountType accountType) {
         logger.info("Creating new {} account for user: {}", accountType, user.getUsername());
@@ -43,6 +61,8 @@ public class AccountServiceImpl implements AccountService {
         
         Account account = new Account(accountNumber, accountType, user);
         account = accountRepository.save(account);
+        accountReadModelService.userAccountsChanged(user.getUsername());
+        accountOwnershipService.invalidate(user.getUsername());
         
         logger.info("Account created successfully: {}", accountNumber);
         
@@ -50,24 +70,31 @@ public class AccountServiceImpl implements AccountService {
     }
     
     
+    /*
+     * Account reads are served from the Redis read model. They join a caller's
+     * transaction but do not open one, so a cache hit never checks out a
+     * database connection; on a miss each repository call runs on its own.
+     */
+    
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<AccountDto> getUserAccounts(String username) {
-        User user = userRepository.findByUsername(username)
-            .orElseThrow(() -> new ResourceNotFoundException("User not found: " + username));
-        
-        List<Account> accounts = accountRepository.findByUserAndActiveTrue(user);
-        
-        return accounts.stream()
-            .map(this::convertToDto)
-            .collect(Collectors.toList());
+        return accountReadModelService.getUserAccounts(username, () -> {
+            User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found: " + username));
+            return accountRepository.findByUserAndActiveTrue(user);
+        });
     }
     
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public AccountDto getAccountByNumber(String accountNumber) {
-        Account account = findAccountEntityByNumber(accountNumber);
-        return convertToDto(account);
+        AccountDto account = accountReadModelService.getAccount(accountNumber,
+            () -> findAccountEntityByNumber(accountNumber));
+        if (!account.isActive()) {
+            throw new ResourceNotFoundException("Account not found: " + accountNumber);
+        }
+        return account;
     }
     
     @Override
@@ -77,6 +104,25 @@ public class AccountServiceImpl implements AccountService {
             .orElseThrow(() -> new ResourceNotFoundException("Account not found: " + accountNumber));
     }
     
+    @Override
+    @Transactional(readOnly = true)
+    public Long findActiveAccountId(String accountNumber) {
+        Long accountId = accountIdCache.get(accountNumber);
+        if (accountId != null) {
+            // Active flag is re-checked by the guarded balance update itself
+            return accountId;
+        }
+        
+        accountId = accountRepository.findActiveIdByAccountNumber(accountNumber)
+            .orElseThrow(() -> new ResourceNotFoundException("Account not found: " + accountNumber));
+        
+        if (accountIdCache.size() >= accountIdCacheSize) {
+            accountIdCache.clear();
+        }
+        accountIdCache.put(accountNumber, accountId);
+        return accountId;
+    }
+    
     @Override
     @Transactional(readOnly = true)
     public List<AccountDto> getAllAccounts() {
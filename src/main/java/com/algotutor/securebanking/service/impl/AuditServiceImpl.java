@@ -0,0 +1,70 @@
+package com.algotutor.securebanking.service.impl;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.algotutor.securebanking.audit.AuditEvent;
+import com.algotutor.securebanking.audit.SegmentedAuditStore;
+import com.algotutor.securebanking.dto.admin.AuditEventDto;
+import com.algotutor.securebanking.exception.BadRequestException;
+import com.algotutor.securebanking.service.AuditService;
+
+@Service
+public class AuditServiceImpl implements AuditService {
+
+	// Absent when app.audit.store=file
+	@Autowired(required = false)
+	private SegmentedAuditStore auditStore;
+
+	@Value("${app.audit.query.default-limit:100}")
+	private int defaultLimit;
+
+	@Value("${app.audit.query.max-limit:1000}")
+	private int maxLimit;
+
+	@Override
+	public List<AuditEventDto> findEvents(String username, String action, LocalDateTime from, LocalDateTime to,
+			Integer limit) {
+		if (auditStore == null) {
+			throw new BadRequestException("Audit queries need the segmented audit store (app.audit.store=segmented)");
+		}
+		if (from != null && to != null && from.isAfter(to)) {
+			throw new BadRequestException("'from' must not be after 'to'");
+		}
+
+		int pageSize = limit == null ? defaultLimit : Math.min(Math.max(limit, 1), maxLimit);
+		long fromMillis = from != null ? toMillis(from) : Long.MIN_VALUE;
+		long toMillis = to != null ? toMillis(to) : Long.MAX_VALUE;
+
+		try {
+			return auditStore.query(blankToNull(username), blankToNull(action), fromMillis, toMillis, pageSize)
+					.stream()
+					.map(this::convertToDto)
+					.collect(Collectors.toList());
+		} catch (IOException e) {
+			throw new UncheckedIOException("Unable to read audit store", e);
+		}
+	}
+
+	private AuditEventDto convertToDto(AuditEvent event) {
+		return new AuditEventDto(LocalDateTime.ofInstant(Instant.ofEpochMilli(event.timestamp()), ZoneId.systemDefault()),
+				event.username(), event.action(), event.resource(), event.method(), event.status(), event.error());
+	}
+
+	private long toMillis(LocalDateTime dateTime) {
+		return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+	}
+
+	private String blankToNull(String value) {
+		return value == null || value.isBlank() ? null : value;
+	}
+}
@@ -1,7 +1,7 @@
 package com.algotutor.securebanking.service.impl;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.Optional;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -31,7 +31,10 @@ import com.algotutor.securebanking.security.JwtUtils;
 import com.algotutor.securebanking.service.AccountService;
 import com.algotutor.securebanking.service.AuthService;
 import com.algotutor.securebanking.service.RefreshTokenService;
+import com.algotutor.securebanking.service.SecurityStampService;
+import com.algotutor.securebanking.service.TokenBlacklistService;
 
+import io.jsonwebtoken.Claims;
 import io.micrometer.core.instrument.Timer;
 import jakarta.transaction.Transactional;
 
@@ -59,6 +62,12 @@ public class AuthServiceImpl implements AuthService {
 	@Autowired
 	private RefreshTokenService refreshTokenService;
 
+	@Autowired
+	private SecurityStampService securityStampService;
+
+	@Autowired
+	private TokenBlacklistService tokenBlacklistService;
+
 	@Autowired
 	private BankingMetrics bankingMetrics;
 
@@ -151,35 +160,40 @@ public class AuthServiceImpl implements AuthService {
 
 	@Override
 	public AuthResponse refreshToken(String refreshTokenStr) {
-		Optional<RefreshToken> refreshTokenOpt = refreshTokenService.findByToken(refreshTokenStr);
-
-		if (refreshTokenOpt.isEmpty()) {
-			throw new BadRequestException("Invalid refresh token");
-		}
+		// Consumes the old token and stores its replacement in one step, so a token can be used once
+		RefreshToken newRefreshToken = refreshTokenService
+				.rotateRefreshToken(refreshTokenStr,
+						((ServletRequestAttributes) RequestContextHolder.currentRequestAttributes()).getRequest())
+				.orElseThrow(() -> new BadRequestException("Invalid refresh token"));
 
-		RefreshToken refreshToken = refreshTokenService.verifyExpiration(refreshTokenOpt.get());
+		User user = userRepository.findByUsername(newRefreshToken.getUsername())
+				.orElseThrow(() -> new ResourceNotFoundException("User not found: " + newRefreshToken.getUsername()));
 
-		User user = userRepository.findByUsername(refreshToken.getUsername())
-				.orElseThrow(() -> new ResourceNotFoundException("User not found: " + refreshToken.getUsername()));
-
-		// Generate new tokens
-		String newAccessToken = jwtUtils.generateTokenFromUsername(refreshToken.getUsername(),
-				jwtUtils.getJwtExpirationMs().intValue());
-
-		RefreshToken newRefreshToken = refreshTokenService.createRefreshToken(refreshToken.getUsername(),
-				((ServletRequestAttributes) RequestContextHolder.currentRequestAttributes()).getRequest());
-
-		// Delete old refresh token
-		refreshTokenService.deleteByToken(refreshTokenStr);
+		String newAccessToken = jwtUtils.generateAccessToken(user);
 
 		return new AuthResponse(newAccessToken, newRefreshToken.getToken(), jwtUtils.getJwtExpirationMs(),
 				buildUserInfo(user));
 	}
 
 	@Override
-	public void logout(String username) {
+	public void logout(String username, String accessToken) {
 		logger.info("User logged out: {}", username);
 		refreshTokenService.deleteByUsername(username);
+		// Access tokens already handed out stop working as well
+		securityStampService.revoke(username);
+		if (accessToken != null) {
+			// Tokens issued before the stamp claim existed are only stopped by the blacklist
+			Claims claims = jwtUtils.verifyJwtToken(accessToken);
+			if (claims != null) {
+				try {
+					tokenBlacklistService.revoke(accessToken,
+							Duration.ofMillis(claims.getExpiration().getTime() - System.currentTimeMillis()));
+				} catch (Exception e) {
+					// Fails open like the filter; must not roll back the stamp bump above
+					logger.warn("Could not blacklist access token of user {}: {}", username, e.getMessage());
+				}
+			}
+		}
 		SecurityContextHolder.clearContext();
 	}
 
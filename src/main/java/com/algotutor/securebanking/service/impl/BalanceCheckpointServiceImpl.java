@@ -0,0 +1,217 @@
+package com.algotutor.securebanking.service.impl;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.algotutor.securebanking.dto.banking.BalanceDto;
+import com.algotutor.securebanking.entity.BalanceCheckpoint;
+import com.algotutor.securebanking.entity.JobLock;
+import com.algotutor.securebanking.repository.AccountRepository;
+import com.algotutor.securebanking.repository.BalanceCheckpointRepository;
+import com.algotutor.securebanking.repository.JobLockRepository;
+import com.algotutor.securebanking.repository.TransactionRepository;
+import com.algotutor.securebanking.service.AccountService;
+import com.algotutor.securebanking.service.BalanceCheckpointService;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * End-of-day balance checkpoints.
+ *
+ * A checkpoint holds the balance of one account at midnight and is only
+ * written for accounts that had transactions that day, so the nightly job
+ * scales with the day's activity rather than with the number of accounts.
+ * A historical balance is the nearest earlier checkpoint plus the net of the
+ * transactions created after it.
+ *
+ * Every node schedules the job, but a run only proceeds on the node that
+ * claims the job's row in {@code job_locks}; the others skip it.
+ */
+@Service
+public class BalanceCheckpointServiceImpl implements BalanceCheckpointService {
+
+	private static final Logger logger = LoggerFactory.getLogger(BalanceCheckpointServiceImpl.class);
+
+	// Start of history for accounts that have no checkpoint yet
+	private static final LocalDateTime HISTORY_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+	static final String JOB_NAME = "balance-checkpoints";
+
+	@Autowired
+	private BalanceCheckpointRepository checkpointRepository;
+
+	@Autowired
+	private TransactionRepository transactionRepository;
+
+	@Autowired
+	private AccountRepository accountRepository;
+
+	@Autowired
+	private AccountService accountService;
+
+	@Autowired
+	private JobLockRepository jobLockRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	// Accounts checkpointed per database transaction
+	@Value("${app.balance-checkpoint.chunk-size:500}")
+	private int chunkSize;
+
+	// Chunks commit in their own transactions while the run's transaction keeps the job row locked
+	private TransactionTemplate chunkTransactionTemplate;
+
+	private volatile boolean jobLockCreated;
+
+	@PostConstruct
+	void init() {
+		chunkTransactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+		chunkTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public BalanceDto getBalanceAsOf(String accountNumber, LocalDateTime asOf) {
+		Long accountId = accountService.findActiveAccountId(accountNumber);
+
+		Optional<BalanceCheckpoint> checkpoint = checkpointRepository
+				.findFirstByAccountIdAndAsOfLessThanEqualOrderByAsOfDesc(accountId, asOf);
+		LocalDateTime from = checkpoint.map(BalanceCheckpoint::getAsOf).orElse(HISTORY_START);
+		BigDecimal base = checkpoint.map(BalanceCheckpoint::getBalance).orElse(BigDecimal.ZERO);
+
+		BigDecimal delta = transactionRepository.sumNetAmountByAccountIdBetween(accountId, from, asOf);
+		return new BalanceDto(accountNumber, base.add(delta), asOf,
+				checkpoint.map(BalanceCheckpoint::getAsOf).orElse(null));
+	}
+
+	@Override
+	public int createCheckpoints(LocalDate day) {
+		return runExclusively(() -> checkpointDay(day));
+	}
+
+	@Override
+	public int createMissingCheckpoints() {
+		return runExclusively(() -> {
+			LocalDate yesterday = LocalDate.now().minusDays(1);
+			// The latest checkpoint's asOf is the midnight that starts the first unprocessed day
+			Optional<LocalDate> next = checkpointRepository.findLatestAsOf()
+					.or(transactionRepository::findEarliestCreatedAt)
+					.map(LocalDateTime::toLocalDate);
+			if (next.isEmpty()) {
+				return 0;
+			}
+
+			int written = 0;
+			for (LocalDate day = next.get(); !day.isAfter(yesterday); day = day.plusDays(1)) {
+				written += checkpointDay(day);
+			}
+			return written;
+		});
+	}
+
+	private int runExclusively(IntSupplier job) {
+		if (!jobLockCreated) {
+			createJobLock();
+		}
+
+		try {
+			Integer written = transactionTemplate.execute(status -> {
+				if (jobLockRepository.lockIfAvailable(JOB_NAME).isEmpty()) {
+					logger.info("Balance checkpoints are being written by another node, skipping this run");
+					return 0;
+				}
+				return job.getAsInt();
+			});
+			return written != null ? written : 0;
+		} catch (PessimisticLockingFailureException e) {
+			// Databases without SKIP LOCKED (H2) wait for the holder and time out instead
+			logger.info("Balance checkpoints are being written by another node, skipping this run");
+			return 0;
+		}
+	}
+
+	private void createJobLock() {
+		try {
+			transactionTemplate.executeWithoutResult(status -> {
+				if (!jobLockRepository.existsById(JOB_NAME)) {
+					jobLockRepository.save(new JobLock(JOB_NAME));
+				}
+			});
+		} catch (DataIntegrityViolationException e) {
+			// Another node created it first
+		}
+		jobLockCreated = true;
+	}
+
+	private int checkpointDay(LocalDate day) {
+		LocalDateTime dayStart = day.atStartOfDay();
+		LocalDateTime cutoff = day.plusDays(1).atStartOfDay();
+
+		List<Long> accountIds = transactionRepository.findAccountIdsWithActivityBetween(dayStart, cutoff);
+		int written = 0;
+		for (int i = 0; i < accountIds.size(); i += chunkSize) {
+			List<Long> chunk = accountIds.subList(i, Math.min(i + chunkSize, accountIds.size()));
+			Integer count = chunkTransactionTemplate.execute(status -> checkpointChunk(chunk, cutoff));
+			written += count != null ? count : 0;
+		}
+
+		logger.info("Wrote {} balance checkpoints for {} ({} active accounts)", written, day, accountIds.size());
+		return written;
+	}
+
+	private int checkpointChunk(List<Long> accountIds, LocalDateTime cutoff) {
+		Map<Long, BalanceCheckpoint> previous = checkpointRepository.findLatestByAccountIds(accountIds, cutoff)
+				.stream()
+				.collect(Collectors.toMap(c -> c.getAccount().getId(), Function.identity()));
+
+		// Usually every account was last checkpointed at the same midnight, so this
+		// is one aggregate query; accounts missed by an earlier run catch up here
+		Map<LocalDateTime, List<Long>> accountsBySince = new HashMap<>();
+		for (Long accountId : accountIds) {
+			BalanceCheckpoint last = previous.get(accountId);
+			if (last != null && last.getAsOf().equals(cutoff)) {
+				continue;
+			}
+			LocalDateTime since = last != null ? last.getAsOf() : HISTORY_START;
+			accountsBySince.computeIfAbsent(since, k -> new ArrayList<>()).add(accountId);
+		}
+
+		List<BalanceCheckpoint> checkpoints = new ArrayList<>();
+		accountsBySince.forEach((since, ids) -> {
+			Map<Long, BigDecimal> net = new HashMap<>();
+			for (Object[] row : transactionRepository.sumNetAmountByAccountIds(ids, since, cutoff)) {
+				net.put((Long) row[0], (BigDecimal) row[1]);
+			}
+			for (Long accountId : ids) {
+				BalanceCheckpoint last = previous.get(accountId);
+				BigDecimal base = last != null ? last.getBalance() : BigDecimal.ZERO;
+				BigDecimal balance = base.add(net.getOrDefault(accountId, BigDecimal.ZERO));
+				checkpoints.add(new BalanceCheckpoint(accountRepository.getReferenceById(accountId), cutoff, balance));
+			}
+		});
+
+		checkpointRepository.saveAll(checkpoints);
+		return checkpoints.size();
+	}
+}
@@ -0,0 +1,261 @@
+package com.algotutor.securebanking.service.impl;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+import com.algotutor.securebanking.exception.BadRequestException;
+import com.algotutor.securebanking.exception.IdempotencyConflictException;
+import com.algotutor.securebanking.exception.IdempotencyUnavailableException;
+import com.algotutor.securebanking.metrics.BankingMetrics;
+import com.algotutor.securebanking.service.IdempotencyService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Idempotency-Key replay cache backed by Redis.
+ *
+ * The first response for a key is stored as a JSON envelope together with a
+ * fingerprint of the request, so a replay costs one GET. While the original is
+ * still running, duplicates on this node wait on a local future and duplicates
+ * on other nodes poll for the stored result instead of executing again.
+ *
+ * Redis failures fail closed: a request whose key cannot be checked or locked
+ * is rejected with 503 rather than run unprotected. Once the action has run
+ * its response is always returned; if it cannot be stored, a tombstone is
+ * written in its place so retries get 409 instead of posting twice.
+ */
+@Service
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+	private static final Logger logger = LoggerFactory.getLogger(IdempotencyServiceImpl.class);
+
+	private static final String RESPONSE_PREFIX = "idempotency:response:";
+	private static final String LOCK_PREFIX = "idempotency:lock:";
+	private static final long POLL_INTERVAL_MS = 50;
+
+	private final String nodeId = UUID.randomUUID().toString();
+
+	// Requests currently executing on this node, keyed by scoped idempotency key
+	private final Map<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+
+	@Value("${app.idempotency.ttl:24h}")
+	private Duration ttl;
+
+	@Value("${app.idempotency.lock-ttl:30s}")
+	private Duration lockTtl;
+
+	@Value("${app.idempotency.wait-timeout:10s}")
+	private Duration waitTimeout;
+
+	@Autowired
+	private RedisTemplate<String, String> stringRedisTemplate;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private BankingMetrics bankingMetrics;
+
+	@Override
+	public <T> T execute(String scope, String idempotencyKey, Object request, TypeReference<T> responseType,
+			Supplier<T> action) {
+		if (idempotencyKey == null || idempotencyKey.isBlank()) {
+			return action.get();
+		}
+		if (idempotencyKey.length() > 255) {
+			throw new BadRequestException("Idempotency-Key must be at most 255 characters");
+		}
+
+		String key = scope + ":" + idempotencyKey;
+		String requestHash = fingerprint(request);
+
+		String stored;
+		try {
+			stored = stringRedisTemplate.opsForValue().get(RESPONSE_PREFIX + key);
+		} catch (RuntimeException e) {
+			logger.error("Idempotency lookup failed for key {}: {}", key, e.getMessage());
+			throw unavailable(e);
+		}
+
+		if (stored != null) {
+			bankingMetrics.incrementIdempotencyHits();
+			return replay(stored, requestHash, responseType);
+		}
+
+		CompletableFuture<String> mine = new CompletableFuture<>();
+		CompletableFuture<String> running = inFlight.putIfAbsent(key, mine);
+		if (running != null) {
+			bankingMetrics.incrementIdempotencyCollisions();
+			return replay(awaitLocal(running, key), requestHash, responseType);
+		}
+
+		Boolean acquired;
+		try {
+			acquired = stringRedisTemplate.opsForValue().setIfAbsent(LOCK_PREFIX + key, nodeId, lockTtl);
+		} catch (RuntimeException e) {
+			logger.error("Idempotency lock failed for key {}: {}", key, e.getMessage());
+			IdempotencyUnavailableException failure = unavailable(e);
+			inFlight.remove(key, mine);
+			mine.completeExceptionally(failure);
+			throw failure;
+		}
+
+		if (!Boolean.TRUE.equals(acquired)) {
+			bankingMetrics.incrementIdempotencyCollisions();
+			try {
+				String result = awaitRemote(key);
+				mine.complete(result);
+				return replay(result, requestHash, responseType);
+			} catch (RuntimeException e) {
+				mine.completeExceptionally(e);
+				throw e;
+			} finally {
+				inFlight.remove(key, mine);
+			}
+		}
+
+		bankingMetrics.incrementIdempotencyMisses();
+		T response;
+		try {
+			response = action.get();
+		} catch (RuntimeException e) {
+			// Failures are not cached: release the key so the client can retry
+			releaseLock(key);
+			inFlight.remove(key, mine);
+			mine.completeExceptionally(e);
+			throw e;
+		}
+
+		// The action has committed, so the response is returned whatever happens
+		// below. If it cannot be stored a tombstone takes its place, so retries
+		// are refused instead of executing again.
+		try {
+			String envelope = objectMapper.writeValueAsString(
+					new StoredResponse(requestHash, objectMapper.valueToTree(response), false));
+			stringRedisTemplate.opsForValue().set(RESPONSE_PREFIX + key, envelope, ttl);
+			mine.complete(envelope);
+			releaseLock(key);
+		} catch (Exception e) {
+			bankingMetrics.incrementIdempotencyStoreFailures();
+			logger.error("Unable to store idempotent response for key {}: {}", key, e.getMessage());
+			storeTombstone(key, requestHash, mine);
+		} finally {
+			inFlight.remove(key, mine);
+		}
+		return response;
+	}
+
+	private void storeTombstone(String key, String requestHash, CompletableFuture<String> mine) {
+		try {
+			String tombstone = objectMapper.writeValueAsString(new StoredResponse(requestHash, null, true));
+			mine.complete(tombstone);
+			stringRedisTemplate.opsForValue().set(RESPONSE_PREFIX + key, tombstone, ttl);
+			releaseLock(key);
+		} catch (Exception e) {
+			// Redis is down: the lock keeps retries out until it expires
+			logger.error("Unable to store idempotency tombstone for key {}: {}", key, e.getMessage());
+		}
+	}
+
+	private IdempotencyUnavailableException unavailable(RuntimeException cause) {
+		return new IdempotencyUnavailableException(
+				"Idempotency-Key cannot be checked right now, please retry later", cause);
+	}
+
+	private String awaitLocal(CompletableFuture<String> running, String key) {
+		try {
+			return running.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException runtimeException) {
+				throw runtimeException;
+			}
+			throw new IllegalStateException("Original request failed", e.getCause());
+		} catch (TimeoutException e) {
+			throw new IdempotencyConflictException("A request with this Idempotency-Key is still in progress");
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IdempotencyConflictException("Interrupted while waiting for request " + key, e);
+		}
+	}
+
+	private String awaitRemote(String key) {
+		long deadline = System.nanoTime() + waitTimeout.toNanos();
+		while (System.nanoTime() < deadline) {
+			String stored = stringRedisTemplate.opsForValue().get(RESPONSE_PREFIX + key);
+			if (stored != null) {
+				return stored;
+			}
+			if (!Boolean.TRUE.equals(stringRedisTemplate.hasKey(LOCK_PREFIX + key))) {
+				// Original failed (or its lock expired) without storing a response
+				throw new IdempotencyConflictException(
+						"The original request with this Idempotency-Key did not complete, please retry");
+			}
+			try {
+				Thread.sleep(POLL_INTERVAL_MS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IdempotencyConflictException("Interrupted while waiting for request " + key, e);
+			}
+		}
+		throw new IdempotencyConflictException("A request with this Idempotency-Key is still in progress");
+	}
+
+	private <T> T replay(String envelope, String requestHash, TypeReference<T> responseType) {
+		try {
+			StoredResponse stored = objectMapper.readValue(envelope, StoredResponse.class);
+			if (!stored.requestHash().equals(requestHash)) {
+				throw new BadRequestException("Idempotency-Key was already used with a different request");
+			}
+			if (stored.unavailable()) {
+				throw new IdempotencyConflictException(
+						"The original request with this Idempotency-Key completed but its response is unavailable");
+			}
+			return objectMapper.readerFor(responseType).readValue(stored.response());
+		} catch (IOException e) {
+			throw new IllegalStateException("Unable to read idempotent response", e);
+		}
+	}
+
+	private void releaseLock(String key) {
+		try {
+			stringRedisTemplate.delete(LOCK_PREFIX + key);
+		} catch (Exception e) {
+			logger.error("Error releasing idempotency lock for key {}: {}", key, e.getMessage());
+		}
+	}
+
+	private String fingerprint(Object request) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256")
+					.digest(objectMapper.writeValueAsString(request).getBytes(StandardCharsets.UTF_8));
+			return HexFormat.of().formatHex(digest);
+		} catch (JsonProcessingException | NoSuchAlgorithmException e) {
+			throw new IllegalStateException("Unable to fingerprint request", e);
+		}
+	}
+
+	// A tombstone (unavailable) marks a request that completed without its response being stored
+	private record StoredResponse(String requestHash, JsonNode response, boolean unavailable) {
+	}
+}
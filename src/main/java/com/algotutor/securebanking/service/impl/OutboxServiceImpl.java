@@ -0,0 +1,163 @@
+package com.algotutor.securebanking.service.impl;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.algotutor.securebanking.dto.banking.TransactionDto;
+import com.algotutor.securebanking.entity.OutboxEvent;
+import com.algotutor.securebanking.entity.OutboxPartition;
+import com.algotutor.securebanking.metrics.BankingMetrics;
+import com.algotutor.securebanking.outbox.OutboxSink;
+import com.algotutor.securebanking.repository.OutboxEventRepository;
+import com.algotutor.securebanking.repository.OutboxPartitionRepository;
+import com.algotutor.securebanking.service.OutboxService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Transactional outbox for account events.
+ *
+ * Events are hashed by account number into a fixed set of partitions. A relay
+ * claims a partition by locking its row with SKIP LOCKED, publishes the oldest
+ * batch and deletes it in the same transaction. Relays on other nodes skip
+ * partitions that are taken instead of waiting, and because an account's events
+ * only ever live in one partition, they are published in order. An event is
+ * deleted only after the sink accepted it, so delivery is at least once.
+ */
+@Service
+public class OutboxServiceImpl implements OutboxService {
+
+	private static final Logger logger = LoggerFactory.getLogger(OutboxServiceImpl.class);
+
+	@Autowired
+	private OutboxEventRepository outboxEventRepository;
+
+	@Autowired
+	private OutboxPartitionRepository outboxPartitionRepository;
+
+	@Autowired
+	private OutboxSink outboxSink;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private BankingMetrics bankingMetrics;
+
+	// Changing this re-hashes accounts; only do so with the outbox drained
+	@Value("${app.outbox.partitions:16}")
+	private int partitions;
+
+	@Value("${app.outbox.batch-size:500}")
+	private int batchSize;
+
+	private volatile boolean partitionsCreated;
+
+	@Override
+	@Transactional(propagation = Propagation.MANDATORY)
+	public void enqueue(Collection<TransactionDto> transactions) {
+		for (TransactionDto transaction : transactions) {
+			try {
+				outboxEventRepository.save(new OutboxEvent(partitionOf(transaction.getAccountNumber()),
+						transaction.getAccountNumber(), transaction.getType().name(),
+						objectMapper.writeValueAsString(transaction)));
+			} catch (JsonProcessingException e) {
+				throw new IllegalStateException("Unable to serialize account event", e);
+			}
+		}
+	}
+
+	@Override
+	public int relay() {
+		if (!partitionsCreated) {
+			createPartitions();
+		}
+
+		int published = 0;
+		for (int partition = 0; partition < partitions; partition++) {
+			int relayed;
+			do {
+				relayed = relayBatch(partition);
+				published += relayed;
+			} while (relayed == batchSize);
+		}
+		return published;
+	}
+
+	private int relayBatch(int partition) {
+		Integer relayed = transactionTemplate.execute(status -> {
+			if (outboxPartitionRepository.lockIfAvailable(partition).isEmpty()) {
+				// Another relay is working on this partition
+				return 0;
+			}
+			List<OutboxEvent> events = outboxEventRepository.findBatchByPartition(partition,
+					PageRequest.of(0, batchSize));
+			if (events.isEmpty()) {
+				return 0;
+			}
+
+			long start = System.nanoTime();
+			try {
+				outboxSink.publish(events);
+			} catch (IOException e) {
+				bankingMetrics.incrementOutboxPublishFailures(events.size());
+				throw new UncheckedIOException(e);
+			} catch (RuntimeException e) {
+				bankingMetrics.incrementOutboxPublishFailures(events.size());
+				throw e;
+			}
+			long publishNanos = System.nanoTime() - start;
+
+			outboxEventRepository.deleteByIdIn(events.stream().map(OutboxEvent::getId).toList());
+
+			LocalDateTime now = LocalDateTime.now();
+			for (OutboxEvent event : events) {
+				bankingMetrics.recordOutboxLag(Duration.between(event.getCreatedAt(), now));
+			}
+			bankingMetrics.recordOutboxBatch(events.size(), publishNanos);
+			return events.size();
+		});
+		return relayed != null ? relayed : 0;
+	}
+
+	private void createPartitions() {
+		if (outboxPartitionRepository.count() < partitions) {
+			for (int partition = 0; partition < partitions; partition++) {
+				int id = partition;
+				try {
+					transactionTemplate.executeWithoutResult(status -> {
+						if (!outboxPartitionRepository.existsById(id)) {
+							outboxPartitionRepository.save(new OutboxPartition(id));
+						}
+					});
+				} catch (DataIntegrityViolationException e) {
+					// Another node created it first
+				}
+			}
+			logger.info("Created outbox relay partitions 0..{}", partitions - 1);
+		}
+		partitionsCreated = true;
+	}
+
+	private int partitionOf(String accountNumber) {
+		return Math.floorMod(accountNumber.hashCode(), partitions);
+	}
+}
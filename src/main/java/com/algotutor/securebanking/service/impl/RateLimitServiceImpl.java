@@ -3,6 +3,7 @@ package com.algotutor.securebanking.service.impl;
 import org.springframework.stereotype.Service;
 
 import com.algotutor.securebanking.config.RateLimitConfig;
+import com.algotutor.securebanking.config.RedisKeys;
 import com.algotutor.securebanking.service.RateLimitService;
 import io.github.bucket4j.Bandwidth;
 import io.github.bucket4j.Bucket;
@@ -24,6 +25,8 @@ public class RateLimitServiceImpl implements RateLimitService{
 	  
     private static final Logger logger = LoggerFactory.getLogger(RateLimitServiceImpl.class);
     private static final String RATE_LIMIT_PREFIX = "rate_limit:";
+    // Limiter keys of authenticated users, see RateLimitFilter
+    private static final String USER_KEY_PREFIX = "user:";
     
     private final Map<String, Bucket> bucketCache = new ConcurrentHashMap<>();
     
@@ -70,7 +73,7 @@ public class RateLimitServiceImpl implements RateLimitService{
     public void resetBucket(String key) {
         try {
             bucketCache.remove(key);
-            stringRedisTemplate.delete(RATE_LIMIT_PREFIX + key);
+            stringRedisTemplate.delete(redisKey(key));
             logger.info("Rate limit bucket reset for key: {}", key);
         } catch (Exception e) {
             logger.error("Error resetting bucket for key {}: {}", key, e.getMessage());
@@ -110,7 +113,7 @@ public class RateLimitServiceImpl implements RateLimitService{
             // Remove expired entries from local cache
             bucketCache.entrySet().removeIf(entry -> {
                 String key = entry.getKey();
-                return !stringRedisTemplate.hasKey(RATE_LIMIT_PREFIX + key);
+                return !stringRedisTemplate.hasKey(redisKey(key));
             });
             
             logger.info("Rate limit bucket cleanup completed");
@@ -119,6 +122,17 @@ public class RateLimitServiceImpl implements RateLimitService{
         }
     }
     
+    /**
+     * A user's limiter shares the user's cluster slot with their refresh tokens,
+     * e.g. {@code rate_limit:{1f3a}user:alice}; other limiters are untagged
+     */
+    private String redisKey(String key) {
+        if (key.startsWith(USER_KEY_PREFIX)) {
+            return RedisKeys.tagged(RATE_LIMIT_PREFIX, RedisKeys.userTag(key.substring(USER_KEY_PREFIX.length())), key);
+        }
+        return RATE_LIMIT_PREFIX + key;
+    }
+    
     private Bucket getBucket(String key, String userRole, String endpoint) {
         return bucketCache.computeIfAbsent(key, k -> createBucket(userRole, endpoint));
     }
@@ -2,29 +2,83 @@ package com.algotutor.securebanking.service.impl;
 
 import org.springframework.stereotype.Service;
 
+import com.algotutor.securebanking.config.RedisKeys;
+import com.algotutor.securebanking.config.RefreshTokenRedisSerializer;
 import com.algotutor.securebanking.entity.RefreshToken;
 import com.algotutor.securebanking.entity.User;
 import com.algotutor.securebanking.exception.TokenRefreshException;
+import com.algotutor.securebanking.metrics.BankingMetrics;
 import com.algotutor.securebanking.repository.UserRepository;
 import com.algotutor.securebanking.service.RefreshTokenService;
+import com.algotutor.securebanking.service.TokenBlacklistService;
 
+import io.lettuce.core.KeyScanCursor;
+import io.lettuce.core.ScanArgs;
+import io.lettuce.core.ScanCursor;
+import io.lettuce.core.cluster.api.async.RedisAdvancedClusterAsyncCommands;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import io.lettuce.core.cluster.models.partitions.RedisClusterNode;
 import jakarta.servlet.http.HttpServletRequest;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Pattern;
 
+/**
+ * Refresh tokens in Redis: one {@code refresh_token:{<tag>}<token>} value per
+ * token plus a per-user index {@code user_tokens:{<tag>}<username>}, a sorted
+ * set of the user's tokens scored by the time their session was issued. A
+ * rotated token keeps the issue time of the token it replaces, in its value
+ * and in the index, so rotating never makes a session look newer to
+ * {@link #revokeTokensIssuedBefore}. Tokens start with their
+ * owner's slot tag (see {@link RedisKeys}), so on a Redis Cluster a user's
+ * tokens and index share one slot and every script below touches one slot
+ * only, including the keys it derives from token values.
+ *
+ * Issue, rotation and deletion each run as one Lua script, so they take a
+ * single round trip and concurrent logins or refreshes for the same user
+ * cannot interleave: expired index entries are dropped and the per-user cap is
+ * enforced (oldest first) inside the same script that adds the new token. An
+ * index still stored as a plain set by earlier versions is converted on first
+ * use; keys written before tokens carried tags are renamed once after startup
+ * by {@link #renameLegacyKeys()}.
+ *
+ * Token values use the binary encoding of {@link RefreshTokenRedisSerializer}.
+ * User agents are interned as {@code user_agent:<id>} keys and resolved through
+ * a local cache, since a handful of distinct browsers account for millions of
+ * tokens. Each key expires a while after the last token that used it, so
+ * client-supplied strings do not pile up; a node rewrites a key (refreshing its
+ * TTL) at most once per {@code USER_AGENT_REFRESH_MS} per user agent.
+ *
+ * Redis errors are passed on to the caller: {@link TieredRefreshTokenService}
+ * wraps this store and falls back to its local tier when Redis is unhealthy.
+ */
 @Service
 public class RefreshTokenServiceImpl implements RefreshTokenService {
     
@@ -33,7 +87,172 @@ public class RefreshTokenServiceImpl implements RefreshTokenService {
     // Redis key prefixes
     private static final String REFRESH_TOKEN_PREFIX = "refresh_token:";
     private static final String USER_TOKENS_PREFIX = "user_tokens:";
-    private static final String TOKEN_BLACKLIST_PREFIX = "blacklist_token:";
+    private static final String SWEEPER_STATE_KEY = "token_sweeper:state";
+    private static final String USER_AGENT_PREFIX = "user_agent:";
+    // Single hash used before user agents expired; read until its own TTL runs out
+    private static final String LEGACY_USER_AGENTS_KEY = "user_agents";
+    
+    // Longer User-Agent headers are cut before interning
+    private static final int MAX_USER_AGENT_LENGTH = 512;
+    // Local user agent cache; cleared when full
+    private static final int USER_AGENT_CACHE_SIZE = 10_000;
+    // A user agent key lives this long past the refresh token lifetime, and is rewritten this often
+    private static final long USER_AGENT_REFRESH_MS = Duration.ofDays(1).toMillis();
+    
+    private static final String SWEEP_PHASE_TOKENS = "tokens";
+    private static final String SWEEP_PHASE_USER_SETS = "user_sets";
+    
+    // Token tags are hex, like the rest of the UUID
+    private static final Pattern TOKEN_TAG = Pattern.compile("[0-9a-f]{" + RedisKeys.TAG_LENGTH + "}");
+    
+    // Shared by the scripts below. token_key and index_key mirror RedisKeys; open_index
+    // converts a legacy set index (members were stored JSON-quoted) into a sorted set; admit
+    // drops entries whose token expired and makes room for one more token (scores are issue
+    // times that survive rotation, so they say nothing about expiry); owner_of returns the
+    // username and the encoded owner prefix of a binary or legacy JSON value
+    private static final String INDEX_FUNCTIONS = """
+        local function token_key(prefix, token)
+          return prefix .. '{' .. string.sub(token, 1, 4) .. '}' .. token
+        end
+        local function index_key(prefix, username)
+          return prefix .. '{' .. string.sub(redis.sha1hex(username), 1, 4) .. '}' .. username
+        end
+        local function owner_of(value)
+          if string.byte(value, 1) == 1 then
+            local length = string.byte(value, 10)
+            return string.sub(value, 11, 10 + length), string.sub(value, 1, 10 + length)
+          end
+          local legacy = cjson.decode(value)
+          local id, bytes = tonumber(legacy.userId) or 0, {}
+          for i = 8, 1, -1 do
+            bytes[i] = id % 256
+            id = math.floor(id / 256)
+          end
+          return legacy.username, string.char(1, unpack(bytes)) .. string.char(#legacy.username) .. legacy.username
+        end
+        local function open_index(index, now)
+          if redis.call('TYPE', index).ok == 'set' then
+            local members = redis.call('SMEMBERS', index)
+            redis.call('DEL', index)
+            for _, member in ipairs(members) do
+              redis.call('ZADD', index, now, (string.gsub(member, '^"(.*)"$', '%1')))
+            end
+          end
+        end
+        local function admit(index, max, prefix)
+          for _, token in ipairs(redis.call('ZRANGE', index, 0, -1)) do
+            if redis.call('EXISTS', token_key(prefix, token)) == 0 then
+              redis.call('ZREM', index, token)
+            end
+          end
+          local excess = redis.call('ZCARD', index) - tonumber(max) + 1
+          if excess > 0 then
+            for _, token in ipairs(redis.call('ZRANGE', index, 0, excess - 1)) do
+              redis.call('DEL', token_key(prefix, token))
+            end
+            redis.call('ZREMRANGEBYRANK', index, 0, excess - 1)
+          end
+        end
+        """;
+    
+    // KEYS: index, new token key; ARGV: token, value, ttl ms, now ms, max tokens, token key prefix
+    private static final RedisScript<Long> ISSUE_SCRIPT = new DefaultRedisScript<>(INDEX_FUNCTIONS + """
+        open_index(KEYS[1], ARGV[4])
+        admit(KEYS[1], ARGV[5], ARGV[6])
+        redis.call('SET', KEYS[2], ARGV[2], 'PX', ARGV[3])
+        redis.call('ZADD', KEYS[1], ARGV[4], ARGV[1])
+        redis.call('PEXPIRE', KEYS[1], ARGV[3])
+        return 1
+        """, Long.class);
+    
+    // KEYS: old token key, new token key; ARGV: old token, new value without owner, ttl ms,
+    // now ms, max tokens, token key prefix, index prefix, new token. The new token takes over
+    // the old one's issue time: the created millis (bytes 25-32 after the owner) of a binary
+    // value and its index score. Returns the stored new value, or nil if the old token does
+    // not exist (expired, rotated or revoked)
+    private static final RedisScript<byte[]> ROTATE_SCRIPT = new DefaultRedisScript<>(INDEX_FUNCTIONS + """
+        local old = redis.call('GET', KEYS[1])
+        if not old then return false end
+        local username, owner = owner_of(old)
+        local index = index_key(ARGV[7], username)
+        open_index(index, ARGV[4])
+        local issued = redis.call('ZSCORE', index, ARGV[1]) or ARGV[4]
+        redis.call('DEL', KEYS[1])
+        redis.call('ZREM', index, ARGV[1])
+        admit(index, ARGV[5], ARGV[6])
+        local details = ARGV[2]
+        if string.byte(old, 1) == 1 then
+          details = string.sub(details, 1, 24) .. string.sub(old, #owner + 25, #owner + 32) .. string.sub(details, 33)
+        end
+        local value = owner .. details
+        redis.call('SET', KEYS[2], value, 'PX', ARGV[3])
+        redis.call('ZADD', index, issued, ARGV[8])
+        redis.call('PEXPIRE', index, ARGV[3])
+        return value
+        """, byte[].class);
+    
+    // KEYS: token key; ARGV: token, index prefix, now ms
+    private static final RedisScript<Long> DELETE_SCRIPT = new DefaultRedisScript<>(INDEX_FUNCTIONS + """
+        local value = redis.call('GET', KEYS[1])
+        if value then
+          local index = index_key(ARGV[2], (owner_of(value)))
+          open_index(index, ARGV[3])
+          redis.call('ZREM', index, ARGV[1])
+        end
+        return redis.call('DEL', KEYS[1])
+        """, Long.class);
+    
+    // KEYS: index; ARGV: token key prefix, cutoff ms (exclusive, or +inf). Returns the deleted
+    // tokens. A legacy index is converted with score 0: its age is unknown, so it counts as old
+    private static final String DELETE_ISSUED_BEFORE = INDEX_FUNCTIONS + """
+        open_index(KEYS[1], 0)
+        local tokens = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', '(' .. ARGV[2])
+        for _, token in ipairs(tokens) do
+          redis.call('DEL', token_key(ARGV[1], token))
+        end
+        redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', '(' .. ARGV[2])
+        return tokens
+        """;
+    
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> DELETE_ISSUED_BEFORE_SCRIPT = new DefaultRedisScript<>(DELETE_ISSUED_BEFORE,
+        List.class);
+    
+    // KEYS: index; ARGV: now ms. Returns the indexed tokens, oldest first
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> LIST_SCRIPT = new DefaultRedisScript<>(INDEX_FUNCTIONS + """
+        open_index(KEYS[1], ARGV[1])
+        return redis.call('ZRANGE', KEYS[1], 0, -1)
+        """, List.class);
+    
+    // KEYS: index; ARGV: token key prefix, now ms. Drops entries whose token expired or is gone
+    private static final String PRUNE = INDEX_FUNCTIONS + """
+        open_index(KEYS[1], ARGV[2])
+        local removed = 0
+        for _, token in ipairs(redis.call('ZRANGE', KEYS[1], 0, -1)) do
+          if redis.call('EXISTS', token_key(ARGV[1], token)) == 0 then
+            redis.call('ZREM', KEYS[1], token)
+            removed = removed + 1
+          end
+        end
+        return removed
+        """;
+    
+    // KEYS: untagged key, tagged key; ARGV: now ms, ttl ms. Renames the key, or merges an
+    // index that was recreated under its tagged name in the meantime
+    private static final String RENAME_LEGACY = INDEX_FUNCTIONS + """
+        if redis.call('EXISTS', KEYS[1]) == 0 then return 0 end
+        if redis.call('EXISTS', KEYS[2]) == 0 then
+          redis.call('RENAME', KEYS[1], KEYS[2])
+          return 1
+        end
+        open_index(KEYS[1], ARGV[1])
+        open_index(KEYS[2], ARGV[1])
+        redis.call('ZUNIONSTORE', KEYS[2], 2, KEYS[2], KEYS[1], 'AGGREGATE', 'MAX')
+        redis.call('PEXPIRE', KEYS[2], ARGV[2])
+        redis.call('DEL', KEYS[1])
+        return 1
+        """;
     
     @Value("${app.jwtRefreshExpirationMs:604800000}") // 7 days
     private Long refreshTokenDurationMs;
@@ -41,72 +260,99 @@ public class RefreshTokenServiceImpl implements RefreshTokenService {
     @Value("${app.maxRefreshTokensPerUser:5}")
     private int maxTokensPerUser;
     
+    @Value("${app.token-sweeper.time-budget:PT2S}")
+    private Duration sweepTimeBudget;
+    
+    @Value("${app.token-sweeper.scan-count:500}")
+    private int sweepScanCount;
+    
+    @Autowired
+    private RedisTemplate<String, RefreshToken> refreshTokenRedisTemplate;
+    
     @Autowired
-    private RedisTemplate<String, Object> redisTemplate;
+    private RefreshTokenRedisSerializer refreshTokenRedisSerializer;
+    
+    @Autowired
+    private RedisTemplate<String, String> stringRedisTemplate;
+    
+    @Autowired
+    private BankingMetrics bankingMetrics;
     
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private TokenBlacklistService tokenBlacklistService;
+    
+    private final Map<Long, CachedUserAgent> userAgents = new ConcurrentHashMap<>();
+    
     @Override
     public RefreshToken createRefreshToken(String username, HttpServletRequest request) {
         logger.info("Creating refresh token for user: {}", username);
         
-        // Find user
-        User user = userRepository.findByUsername(username)
-            .orElseThrow(() -> new RuntimeException("User not found: " + username));
-        
-        // Clean up expired tokens for this user first
-        cleanupExpiredTokensForUser(username);
-        
-        // Limit number of refresh tokens per user
-        limitTokensPerUser(username);
-        
-        // Generate new refresh token
-        String token = UUID.randomUUID().toString();
-        LocalDateTime expiryDate = LocalDateTime.now().plusSeconds(refreshTokenDurationMs / 1000);
-        
-        // Get client info
-        String ipAddress = getClientIpAddress(request);
-        String userAgent = request.getHeader("User-Agent");
-        
-        RefreshToken refreshToken = new RefreshToken(
-            token, username, user.getId(), expiryDate, ipAddress, userAgent);
-        
-        // Store in Redis
-        storeRefreshToken(refreshToken);
+        RefreshToken refreshToken = newRefreshToken(username, request);
+        store(refreshToken);
         
         logger.info("Refresh token created successfully for user: {}", username);
         return refreshToken;
     }
     
+    /**
+     * Builds a new token for the user without storing it
+     */
+    public RefreshToken newRefreshToken(String username, HttpServletRequest request) {
+        User user = userRepository.findByUsername(username)
+            .orElseThrow(() -> new RuntimeException("User not found: " + username));
+        return newRefreshToken(username, user.getId(), request);
+    }
+    
+    /**
+     * Stores a token built by {@link #newRefreshToken}; its creation time is
+     * used as the issue time. Storing the same token again is harmless.
+     */
+    public void store(RefreshToken refreshToken) {
+        internUserAgent(refreshToken);
+        // Drops expired tokens, enforces the per-user cap and stores the token in one step
+        executeBinary(ISSUE_SCRIPT, null,
+            List.of(indexKey(refreshToken.getUsername()), tokenKey(refreshToken.getToken())),
+            refreshToken.getToken(), refreshTokenRedisSerializer.serialize(refreshToken),
+            String.valueOf(refreshTokenDurationMs), String.valueOf(toMillis(refreshToken.getCreatedAt())),
+            String.valueOf(maxTokensPerUser), REFRESH_TOKEN_PREFIX);
+    }
+    
     @Override
     public Optional<RefreshToken> findByToken(String token) {
+        String key = tokenKey(token);
+        RefreshToken refreshToken;
         try {
-            String key = REFRESH_TOKEN_PREFIX + token;
-            RefreshToken refreshToken = (RefreshToken) redisTemplate.opsForValue().get(key);
-            
-            if (refreshToken != null && refreshToken.isExpired()) {
-                // Token expired, remove it
-                deleteByToken(token);
-                return Optional.empty();
-            }
-            
-            return Optional.ofNullable(refreshToken);
-        } catch (Exception e) {
-            logger.error("Error finding refresh token: {}", e.getMessage());
+            refreshToken = refreshTokenRedisTemplate.opsForValue().get(key);
+        } catch (SerializationException e) {
+            logger.error("Unreadable refresh token value: {}", e.getMessage());
+            return Optional.empty();
+        }
+        
+        if (refreshToken == null) {
             return Optional.empty();
         }
+        if (refreshToken.isExpired()) {
+            // Token expired, remove it
+            delete(token);
+            return Optional.empty();
+        }
+        
+        resolveUserAgents(List.of(refreshToken));
+        return Optional.of(refreshToken);
     }
     
     @Override
     public RefreshToken verifyExpiration(RefreshToken token) {
         if (token.isExpired()) {
-            deleteByToken(token.getToken());
+            delete(token.getToken());
             throw new TokenRefreshException("Refresh token has expired. Please log in again.");
         }
         
         // Check if token is blacklisted
-        if (isTokenBlacklisted(token.getToken())) {
+        if (tokenBlacklistService.isRevoked(token.getToken())) {
             throw new TokenRefreshException("Refresh token has been revoked. Please log in again.");
         }
         
@@ -114,164 +360,476 @@ public class RefreshTokenServiceImpl implements RefreshTokenService {
     }
     
     @Override
-    public void deleteByUsername(String username) {
-        logger.info("Deleting all refresh tokens for user: {}", username);
+    public Optional<RefreshToken> rotateRefreshToken(String token, HttpServletRequest request) {
+        // Answered locally for almost every token; revoked tokens are also deleted, so this
+        // only adds a clearer error for the rare revoked-but-still-stored case
+        if (tokenBlacklistService.isRevoked(token)) {
+            throw new TokenRefreshException("Refresh token has been revoked. Please log in again.");
+        }
         
-        List<RefreshToken> userTokens = getActiveTokensByUsername(username);
+        String tag = token.substring(0, Math.min(RedisKeys.TAG_LENGTH, token.length()));
+        if (!TOKEN_TAG.matcher(tag).matches()) {
+            // Not a token this service issued
+            return Optional.empty();
+        }
         
-        for (RefreshToken token : userTokens) {
-            deleteByToken(token.getToken());
+        // The owner is only known inside the script, which copies it from the old token; the new
+        // token keeps the old one's tag and with it the owner's slot
+        return rotate(token, newRefreshToken(null, null, tag, request));
+    }
+    
+    /**
+     * Replaces the token with a prebuilt one, taking over the owner and issue
+     * time of the old token; empty if the old token no longer exists
+     */
+    public Optional<RefreshToken> rotate(String token, RefreshToken replacement) {
+        internUserAgent(replacement);
+        byte[] stored = executeBinary(ROTATE_SCRIPT, RedisSerializer.byteArray(),
+            List.of(tokenKey(token), tokenKey(replacement.getToken())),
+            token, refreshTokenRedisSerializer.serializeDetails(replacement), String.valueOf(refreshTokenDurationMs),
+            String.valueOf(toMillis(replacement.getCreatedAt())), String.valueOf(maxTokensPerUser),
+            REFRESH_TOKEN_PREFIX, USER_TOKENS_PREFIX, replacement.getToken());
+        if (stored == null) {
+            return Optional.empty();
         }
         
-        // Clear user tokens set
-        String userTokensKey = USER_TOKENS_PREFIX + username;
-        redisTemplate.delete(userTokensKey);
+        RefreshToken rotated = refreshTokenRedisSerializer.deserialize(stored);
+        rotated.setUserAgent(replacement.getUserAgent());
+        // Other nodes may still hold the old token in their local tier
+        blacklist(List.of(token));
+        return Optional.of(rotated);
+    }
+    
+    @Override
+    public void deleteByUsername(String username) {
+        logger.info("Deleting all refresh tokens for user: {}", username);
+        // Blacklisted as well, so no node's local tier can serve them during an outage
+        blacklist(deleteAllForUser(username));
     }
     
     @Override
     public void deleteByToken(String token) {
-        try {
-            RefreshToken refreshToken = (RefreshToken) redisTemplate.opsForValue()
-                .get(REFRESH_TOKEN_PREFIX + token);
-            
-            if (refreshToken != null) {
-                // Remove from user's token set
-                String userTokensKey = USER_TOKENS_PREFIX + refreshToken.getUsername();
-                redisTemplate.opsForSet().remove(userTokensKey, token);
-            }
-            
-            // Delete the token
-            redisTemplate.delete(REFRESH_TOKEN_PREFIX + token);
-            
-            logger.info("Refresh token deleted successfully");
-        } catch (Exception e) {
-            logger.error("Error deleting refresh token: {}", e.getMessage());
+        if (delete(token)) {
+            blacklist(List.of(token));
         }
+        logger.info("Refresh token deleted successfully");
     }
     
+    /**
+     * One bounded step of the incremental sweep. Each run continues the SCAN
+     * where the previous run stopped (the cursor is kept in Redis) and stops
+     * when its time budget is spent. A pass first walks the refresh token keys,
+     * deleting expired tokens, then the user token sets, removing members whose
+     * token no longer exists. Reads and deletes are pipelined per SCAN batch.
+     * On a cluster each phase walks the masters one after another.
+     */
     @Override
     public void deleteExpiredTokens() {
-        logger.info("Starting cleanup of expired refresh tokens");
+        long started = System.nanoTime();
+        long deadline = started + sweepTimeBudget.toNanos();
+        long scanned = 0;
+        long removed = 0;
+        long pruned = 0;
         
         try {
-            Set<String> tokenKeys = redisTemplate.keys(REFRESH_TOKEN_PREFIX + "*");
+            Map<Object, Object> state = stringRedisTemplate.opsForHash().entries(SWEEPER_STATE_KEY);
+            boolean userSets = SWEEP_PHASE_USER_SETS.equals(state.get("phase"));
+            String cursor = state.containsKey("cursor") ? (String) state.get("cursor") : "0";
+            List<String> nodes = scanNodes();
+            String node = state.containsKey("node") ? (String) state.get("node") : "";
+            if (!nodes.contains(node)) {
+                // First run, a switch of topology or a failover: restart the phase
+                node = nodes.get(0);
+                cursor = "0";
+            }
+            // Phases finished in this run; one full pass per run at most
+            int finishedPhases = 0;
             
-            if (tokenKeys != null) {
-                int expiredCount = 0;
+            while (System.nanoTime() < deadline && finishedPhases < 2) {
+                KeyScanCursor<byte[]> batch = scanStep(node,
+                    userSets ? USER_TOKENS_PREFIX + "*" : REFRESH_TOKEN_PREFIX + "*", cursor);
+                List<String> keys = new ArrayList<>(batch.getKeys().size());
+                for (byte[] key : batch.getKeys()) {
+                    keys.add(new String(key, StandardCharsets.UTF_8));
+                }
+                scanned += keys.size();
                 
-                for (String key : tokenKeys) {
-                    RefreshToken token = (RefreshToken) redisTemplate.opsForValue().get(key);
-                    
-                    if (token != null && token.isExpired()) {
-                        String tokenValue = key.substring(REFRESH_TOKEN_PREFIX.length());
-                        deleteByToken(tokenValue);
-                        expiredCount++;
-                    }
+                if (userSets) {
+                    pruned += pruneUserTokenSets(keys);
+                } else {
+                    removed += removeExpiredTokens(keys);
                 }
                 
-                logger.info("Cleaned up {} expired refresh tokens", expiredCount);
+                if (!batch.isFinished()) {
+                    cursor = batch.getCursor();
+                    continue;
+                }
+                cursor = "0";
+                int next = nodes.indexOf(node) + 1;
+                if (next < nodes.size()) {
+                    node = nodes.get(next);
+                } else {
+                    userSets = !userSets;
+                    node = nodes.get(0);
+                    finishedPhases++;
+                }
             }
+            
+            stringRedisTemplate.opsForHash().putAll(SWEEPER_STATE_KEY,
+                Map.of("phase", userSets ? SWEEP_PHASE_USER_SETS : SWEEP_PHASE_TOKENS, "node", node, "cursor", cursor));
         } catch (Exception e) {
             logger.error("Error during expired token cleanup: {}", e.getMessage());
+        } finally {
+            double seconds = Math.max(System.nanoTime() - started, 1) / 1e9;
+            bankingMetrics.recordTokenSweep(scanned, removed + pruned);
+            logger.info("Token sweep scanned {} keys ({}/s), removed {} expired tokens and {} dangling set members ({}/s)",
+                scanned, Math.round(scanned / seconds), removed, pruned, Math.round((removed + pruned) / seconds));
+        }
+    }
+    
+    /**
+     * Renames refresh token keys and user token indexes written before keys
+     * carried slot tags. Only standalone and Sentinel deployments can hold them,
+     * a cluster was never supported before; there the call does nothing.
+     * Also gives the user agent hash of earlier versions a TTL, so it goes away
+     * once no token can refer to it. Returns the number of keys renamed.
+     */
+    @Override
+    public long renameLegacyKeys() {
+        if (Long.valueOf(-1).equals(stringRedisTemplate.getExpire(LEGACY_USER_AGENTS_KEY))) {
+            stringRedisTemplate.expire(LEGACY_USER_AGENTS_KEY, Duration.ofMillis(refreshTokenDurationMs));
+        }
+        if (!scanNodes().get(0).isEmpty()) {
+            return 0;
+        }
+        byte[] script = RENAME_LEGACY.getBytes(StandardCharsets.UTF_8);
+        byte[] now = String.valueOf(System.currentTimeMillis()).getBytes(StandardCharsets.UTF_8);
+        byte[] ttl = String.valueOf(refreshTokenDurationMs).getBytes(StandardCharsets.UTF_8);
+        long renamed = 0;
+        
+        for (String prefix : List.of(REFRESH_TOKEN_PREFIX, USER_TOKENS_PREFIX)) {
+            String cursor = "0";
+            do {
+                KeyScanCursor<byte[]> batch = scanStep("", prefix + "*", cursor);
+                Map<String, String> legacy = new LinkedHashMap<>();
+                for (byte[] raw : batch.getKeys()) {
+                    String key = new String(raw, StandardCharsets.UTF_8);
+                    if (!key.startsWith(prefix + "{")) {
+                        String id = key.substring(prefix.length());
+                        legacy.put(key, prefix.equals(REFRESH_TOKEN_PREFIX) ? tokenKey(id) : indexKey(id));
+                    }
+                }
+                if (!legacy.isEmpty()) {
+                    List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                        legacy.forEach((key, tagged) -> connection.scriptingCommands().eval(script, ReturnType.INTEGER,
+                            2, key.getBytes(StandardCharsets.UTF_8), tagged.getBytes(StandardCharsets.UTF_8), now, ttl));
+                        return null;
+                    });
+                    renamed += results.stream().filter(result -> Long.valueOf(1).equals(result)).count();
+                }
+                cursor = batch.getCursor();
+            } while (!"0".equals(cursor));
+        }
+        
+        if (renamed > 0) {
+            logger.info("Renamed {} refresh token keys to their slot-tagged names", renamed);
+        }
+        return renamed;
+    }
+    
+    /**
+     * Ids of the cluster masters to scan, in a stable order; a single empty id
+     * when not connected to a cluster
+     */
+    private List<String> scanNodes() {
+        return stringRedisTemplate.execute((RedisCallback<List<String>>) connection -> {
+            if (connection.getNativeConnection() instanceof RedisAdvancedClusterAsyncCommands<?, ?> cluster) {
+                return cluster.getStatefulConnection().getPartitions().stream()
+                    .filter(node -> node.is(RedisClusterNode.NodeFlag.UPSTREAM))
+                    .map(RedisClusterNode::getNodeId)
+                    .sorted()
+                    .toList();
+            }
+            return List.of("");
+        });
+    }
+    
+    private KeyScanCursor<byte[]> scanStep(String node, String pattern, String cursor) {
+        // Native SCAN: the template's Cursor cannot be resumed from a stored cursor id
+        return stringRedisTemplate.execute((RedisCallback<KeyScanCursor<byte[]>>) connection -> {
+            @SuppressWarnings("unchecked")
+            RedisClusterAsyncCommands<byte[], byte[]> commands =
+                (RedisClusterAsyncCommands<byte[], byte[]>) connection.getNativeConnection();
+            if (!node.isEmpty()) {
+                commands = ((RedisAdvancedClusterAsyncCommands<byte[], byte[]>) commands).getConnection(node);
+            }
+            try {
+                return commands.scan(ScanCursor.of(cursor), ScanArgs.Builder.matches(pattern).limit(sweepScanCount))
+                    .get(sweepTimeBudget.toMillis() + 5000, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted during token sweep", e);
+            } catch (ExecutionException | TimeoutException e) {
+                throw new IllegalStateException("SCAN failed: " + e.getMessage(), e);
+            }
+        });
+    }
+    
+    private int removeExpiredTokens(List<String> keys) {
+        if (keys.isEmpty()) {
+            return 0;
+        }
+        List<Object> values = refreshTokenRedisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) {
+                for (String key : keys) {
+                    operations.opsForValue().get(key);
+                }
+                return null;
+            }
+        });
+        
+        List<String> expired = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i++) {
+            if (values.get(i) instanceof RefreshToken token && token.isExpired()) {
+                expired.add(keys.get(i));
+            }
         }
+        if (!expired.isEmpty()) {
+            // Their index entries are dropped in the user token phase
+            refreshTokenRedisTemplate.delete(expired);
+        }
+        return expired.size();
+    }
+    
+    private long pruneUserTokenSets(List<String> keys) {
+        if (keys.isEmpty()) {
+            return 0;
+        }
+        byte[] script = PRUNE.getBytes(StandardCharsets.UTF_8);
+        byte[] prefix = REFRESH_TOKEN_PREFIX.getBytes(StandardCharsets.UTF_8);
+        byte[] now = String.valueOf(System.currentTimeMillis()).getBytes(StandardCharsets.UTF_8);
+        
+        // One script per index, since indexes of different users live in different cluster slots
+        List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String key : keys) {
+                connection.scriptingCommands().eval(script, ReturnType.INTEGER, 1, key.getBytes(StandardCharsets.UTF_8),
+                    prefix, now);
+            }
+            return null;
+        });
+        return results.stream().mapToLong(result -> result instanceof Long count ? count : 0).sum();
     }
     
     @Override
     public List<RefreshToken> getActiveTokensByUsername(String username) {
-        try {
-            String userTokensKey = USER_TOKENS_PREFIX + username;
-            Set<Object> tokenSet = redisTemplate.opsForSet().members(userTokensKey);
-            
-            List<RefreshToken> activeTokens = new ArrayList<>();
-            
-            if (tokenSet != null) {
-                for (Object tokenObj : tokenSet) {
-                    String token = (String) tokenObj;
-                    Optional<RefreshToken> refreshToken = findByToken(token);
-                    refreshToken.ifPresent(activeTokens::add);
+        @SuppressWarnings("unchecked")
+        List<String> tokens = stringRedisTemplate.execute(LIST_SCRIPT, List.of(indexKey(username)),
+            String.valueOf(System.currentTimeMillis()));
+        
+        List<RefreshToken> activeTokens = new ArrayList<>();
+        
+        if (tokens != null && !tokens.isEmpty()) {
+            List<String> keys = tokens.stream().map(this::tokenKey).toList();
+            for (RefreshToken refreshToken : refreshTokenRedisTemplate.opsForValue().multiGet(keys)) {
+                if (refreshToken != null && !refreshToken.isExpired()) {
+                    activeTokens.add(refreshToken);
                 }
             }
-            
-            return activeTokens;
-        } catch (Exception e) {
-            logger.error("Error getting active tokens for user {}: {}", username, e.getMessage());
-            return new ArrayList<>();
         }
+        
+        resolveUserAgents(activeTokens);
+        return activeTokens;
     }
     
     @Override
     public void revokeAllUserTokens(String username) {
         logger.info("Revoking all tokens for user: {}", username);
         
-        List<RefreshToken> userTokens = getActiveTokensByUsername(username);
+        for (String token : deleteAllForUser(username)) {
+            tokenBlacklistService.revoke(token, Duration.ofMillis(refreshTokenDurationMs));
+        }
+    }
+    
+    @Override
+    public Map<String, List<String>> revokeTokensIssuedBefore(List<String> usernames, LocalDateTime issuedBefore) {
+        if (usernames.isEmpty()) {
+            return Map.of();
+        }
+        byte[] script = DELETE_ISSUED_BEFORE.getBytes(StandardCharsets.UTF_8);
+        byte[] prefix = REFRESH_TOKEN_PREFIX.getBytes(StandardCharsets.UTF_8);
+        byte[] cutoff = (issuedBefore != null ? String.valueOf(toMillis(issuedBefore)) : "+inf")
+            .getBytes(StandardCharsets.UTF_8);
         
-        for (RefreshToken token : userTokens) {
-            // Add to blacklist
-            blacklistToken(token.getToken());
-            
-            // Delete from storage
-            deleteByToken(token.getToken());
+        List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String username : usernames) {
+                connection.scriptingCommands().eval(script, ReturnType.MULTI, 1,
+                    indexKey(username).getBytes(StandardCharsets.UTF_8), prefix, cutoff);
+            }
+            return null;
+        });
+        
+        Map<String, List<String>> revoked = new LinkedHashMap<>();
+        List<String> allTokens = new ArrayList<>();
+        for (int i = 0; i < usernames.size(); i++) {
+            if (results.get(i) instanceof List<?> tokens && !tokens.isEmpty()) {
+                List<String> userTokens = tokens.stream().map(String::valueOf).toList();
+                revoked.put(usernames.get(i), userTokens);
+                allTokens.addAll(userTokens);
+            }
         }
+        tokenBlacklistService.revokeAll(allTokens, Duration.ofMillis(refreshTokenDurationMs));
+        return revoked;
     }
     
     @Override
     public boolean isTokenValid(String token) {
         Optional<RefreshToken> refreshToken = findByToken(token);
-        return refreshToken.isPresent() && !refreshToken.get().isExpired() && !isTokenBlacklisted(token);
+        return refreshToken.isPresent() && !refreshToken.get().isExpired() && !tokenBlacklistService.isRevoked(token);
     }
     
     // Private helper methods
     
-    private void storeRefreshToken(RefreshToken refreshToken) {
-        String tokenKey = REFRESH_TOKEN_PREFIX + refreshToken.getToken();
-        String userTokensKey = USER_TOKENS_PREFIX + refreshToken.getUsername();
+    /**
+     * Builds a new token for a known owner without storing it or touching Redis
+     */
+    public RefreshToken newRefreshToken(String username, Long userId, HttpServletRequest request) {
+        return newRefreshToken(username, userId, RedisKeys.userTag(username), request);
+    }
+    
+    private RefreshToken newRefreshToken(String username, Long userId, String tag, HttpServletRequest request) {
+        // A random UUID whose first characters are the slot tag
+        String token = tag + UUID.randomUUID().toString().substring(tag.length());
+        LocalDateTime expiryDate = LocalDateTime.now().plusSeconds(refreshTokenDurationMs / 1000);
         
-        // Store token with expiration
-        redisTemplate.opsForValue().set(tokenKey, refreshToken, 
-            refreshTokenDurationMs, TimeUnit.MILLISECONDS);
+        // Get client info
+        String ipAddress = getClientIpAddress(request);
+        String userAgent = request.getHeader("User-Agent");
+        if (userAgent != null && userAgent.length() > MAX_USER_AGENT_LENGTH) {
+            userAgent = userAgent.substring(0, MAX_USER_AGENT_LENGTH);
+        }
         
-        // Add token to user's token set
-        redisTemplate.opsForSet().add(userTokensKey, refreshToken.getToken());
-        redisTemplate.expire(userTokensKey, refreshTokenDurationMs, TimeUnit.MILLISECONDS);
+        return new RefreshToken(token, username, userId, expiryDate, ipAddress, userAgent);
     }
     
-    private void cleanupExpiredTokensForUser(String username) {
-        List<RefreshToken> userTokens = getActiveTokensByUsername(username);
-        
-        for (RefreshToken token : userTokens) {
-            if (token.isExpired()) {
-                deleteByToken(token.getToken());
-            }
+    // Writes the user agent key unless this node has refreshed it recently
+    private void internUserAgent(RefreshToken refreshToken) {
+        long id = RefreshTokenRedisSerializer.userAgentId(refreshToken.getUserAgent());
+        if (id == 0) {
+            return;
+        }
+        refreshToken.setUserAgentId(id);
+        long now = System.currentTimeMillis();
+        CachedUserAgent cached = userAgents.get(id);
+        if (cached == null || now - cached.writtenAt() >= USER_AGENT_REFRESH_MS) {
+            // Outlives every token stored until the next rewrite
+            stringRedisTemplate.opsForValue().set(USER_AGENT_PREFIX + Long.toHexString(id),
+                refreshToken.getUserAgent(), Duration.ofMillis(refreshTokenDurationMs + USER_AGENT_REFRESH_MS));
+            rememberUserAgent(id, refreshToken.getUserAgent(), now);
         }
     }
     
-    private void limitTokensPerUser(String username) {
-        List<RefreshToken> activeTokens = getActiveTokensByUsername(username);
+    // Fills in user agents from the local cache, fetching unknown ids in one MGET
+    private void resolveUserAgents(List<RefreshToken> tokens) {
+        List<RefreshToken> unresolved = new ArrayList<>();
+        for (RefreshToken token : tokens) {
+            if (token.getUserAgent() != null || token.getUserAgentId() == null) {
+                continue;
+            }
+            CachedUserAgent cached = userAgents.get(token.getUserAgentId());
+            if (cached != null) {
+                token.setUserAgent(cached.userAgent());
+            } else {
+                unresolved.add(token);
+            }
+        }
+        if (unresolved.isEmpty()) {
+            return;
+        }
         
-        // If user has reached the limit, remove oldest tokens
-        while (activeTokens.size() >= maxTokensPerUser) {
-            RefreshToken oldestToken = activeTokens.stream()
-                .min(Comparator.comparing(RefreshToken::getCreatedAt))
-                .orElse(null);
-            
-            if (oldestToken != null) {
-                deleteByToken(oldestToken.getToken());
-                activeTokens.remove(oldestToken);
+        List<String> keys = unresolved.stream()
+            .map(token -> USER_AGENT_PREFIX + Long.toHexString(token.getUserAgentId()))
+            .toList();
+        List<String> values = stringRedisTemplate.opsForValue().multiGet(keys);
+        List<RefreshToken> legacy = new ArrayList<>();
+        for (int i = 0; i < unresolved.size(); i++) {
+            if (values != null && values.get(i) != null) {
+                unresolved.get(i).setUserAgent(values.get(i));
+                // Not known to be fresh, so the next token with this user agent rewrites the key
+                rememberUserAgent(unresolved.get(i).getUserAgentId(), values.get(i), 0);
             } else {
-                break;
+                legacy.add(unresolved.get(i));
             }
         }
+        if (legacy.isEmpty()) {
+            return;
+        }
+        
+        List<Object> fields = legacy.stream().map(token -> (Object) Long.toHexString(token.getUserAgentId()))
+            .toList();
+        List<Object> legacyValues = stringRedisTemplate.opsForHash().multiGet(LEGACY_USER_AGENTS_KEY, fields);
+        for (int i = 0; i < legacy.size(); i++) {
+            if (legacyValues.get(i) instanceof String userAgent) {
+                legacy.get(i).setUserAgent(userAgent);
+            }
+        }
+    }
+    
+    private void rememberUserAgent(long id, String userAgent, long writtenAt) {
+        if (userAgents.size() >= USER_AGENT_CACHE_SIZE) {
+            userAgents.clear();
+        }
+        userAgents.put(id, new CachedUserAgent(userAgent, writtenAt));
+    }
+    
+    // Removes the token and its index entry without blacklisting it
+    private boolean delete(String token) {
+        Long deleted = stringRedisTemplate.execute(DELETE_SCRIPT, List.of(tokenKey(token)), token,
+            USER_TOKENS_PREFIX, String.valueOf(System.currentTimeMillis()));
+        return Long.valueOf(1).equals(deleted);
+    }
+    
+    /*
+     * Keeps tokens that are gone from Redis out of the other nodes' local tiers.
+     * The delete or rotation has already happened, so a failure must not make
+     * it look like a failed write to the caller.
+     */
+    private void blacklist(List<String> tokens) {
+        try {
+            tokenBlacklistService.revokeAll(tokens, Duration.ofMillis(refreshTokenDurationMs));
+        } catch (Exception e) {
+            logger.warn("Could not blacklist {} removed refresh tokens: {}", tokens.size(), e.getMessage());
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    private List<String> deleteAllForUser(String username) {
+        List<String> tokens = stringRedisTemplate.execute(DELETE_ISSUED_BEFORE_SCRIPT,
+            List.of(indexKey(username)), REFRESH_TOKEN_PREFIX, "+inf");
+        return tokens != null ? tokens : List.of();
+    }
+    
+    private String tokenKey(String token) {
+        return RedisKeys.tokenKey(REFRESH_TOKEN_PREFIX, token);
     }
     
-    private void blacklistToken(String token) {
-        String blacklistKey = TOKEN_BLACKLIST_PREFIX + token;
-        redisTemplate.opsForValue().set(blacklistKey, "revoked", 
-            refreshTokenDurationMs, TimeUnit.MILLISECONDS);
+    private String indexKey(String username) {
+        return RedisKeys.userKey(USER_TOKENS_PREFIX, username);
     }
     
-    private boolean isTokenBlacklisted(String token) {
-        String blacklistKey = TOKEN_BLACKLIST_PREFIX + token;
-        return redisTemplate.hasKey(blacklistKey);
+    private long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+    
+    // Scripts that take an encoded token value need binary-safe arguments
+    private <T> T executeBinary(RedisScript<T> script, RedisSerializer<T> resultSerializer, List<String> keys,
+            Object... args) {
+        Object[] encoded = new Object[args.length];
+        for (int i = 0; i < args.length; i++) {
+            encoded[i] = args[i] instanceof String value ? value.getBytes(StandardCharsets.UTF_8) : args[i];
+        }
+        return stringRedisTemplate.execute(script, RedisSerializer.byteArray(), resultSerializer, keys, encoded);
     }
     
     private String getClientIpAddress(HttpServletRequest request) {
@@ -287,4 +845,7 @@ public class RefreshTokenServiceImpl implements RefreshTokenService {
         
         return request.getRemoteAddr();
     }
+    
+    private record CachedUserAgent(String userAgent, long writtenAt) {
+    }
 }
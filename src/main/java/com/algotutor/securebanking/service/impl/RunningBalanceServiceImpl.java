@@ -0,0 +1,104 @@
+package com.algotutor.securebanking.service.impl;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.algotutor.securebanking.entity.Transaction;
+import com.algotutor.securebanking.entity.TransactionType;
+import com.algotutor.securebanking.repository.TransactionRepository;
+import com.algotutor.securebanking.service.RunningBalanceService;
+
+/**
+ * Backfill of the running balance stored on each transaction.
+ *
+ * Each account is replayed in keyset pages, one database transaction per
+ * page, so a long history never sits in memory or in a single transaction.
+ * A row that already carries a balance resets the running total, which keeps
+ * the replay consistent with postings written while it runs.
+ */
+@Service
+public class RunningBalanceServiceImpl implements RunningBalanceService {
+
+	private static final Logger logger = LoggerFactory.getLogger(RunningBalanceServiceImpl.class);
+
+	// Keyset starting point before any transaction
+	private static final LocalDateTime HISTORY_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+	@Autowired
+	private TransactionRepository transactionRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Value("${app.balance-backfill.page-size:500}")
+	private int pageSize;
+
+	@Override
+	public int backfillBalanceAfter() {
+		List<Long> accountIds = transactionRepository.findAccountIdsWithoutBalanceAfter();
+		if (accountIds.isEmpty()) {
+			return 0;
+		}
+
+		logger.info("Backfilling running balances for {} accounts", accountIds.size());
+		int updated = 0;
+		for (Long accountId : accountIds) {
+			updated += backfillAccount(accountId);
+		}
+		logger.info("Backfilled running balance on {} transactions", updated);
+		return updated;
+	}
+
+	private int backfillAccount(Long accountId) {
+		ReplayPosition position = new ReplayPosition(HISTORY_START, 0L, BigDecimal.ZERO, 0, false);
+		int updated = 0;
+		do {
+			ReplayPosition from = position;
+			position = transactionTemplate.execute(status -> replayPage(accountId, from));
+			updated += position.updated();
+		} while (position.hasMore());
+		return updated;
+	}
+
+	private ReplayPosition replayPage(Long accountId, ReplayPosition from) {
+		List<Transaction> page = transactionRepository.findPageByAccountIdAfter(accountId, from.createdAt(),
+				from.id(), PageRequest.of(0, pageSize));
+
+		BigDecimal balance = from.balance();
+		int updated = 0;
+		for (Transaction transaction : page) {
+			if (transaction.getBalanceAfter() != null) {
+				balance = transaction.getBalanceAfter();
+				continue;
+			}
+			balance = isCredit(transaction.getType()) ? balance.add(transaction.getAmount())
+					: balance.subtract(transaction.getAmount());
+			// Dirty entities are flushed as batched updates at commit
+			transaction.setBalanceAfter(balance);
+			updated++;
+		}
+
+		if (page.isEmpty()) {
+			return new ReplayPosition(from.createdAt(), from.id(), balance, 0, false);
+		}
+		Transaction last = page.get(page.size() - 1);
+		return new ReplayPosition(last.getCreatedAt(), last.getId(), balance, updated, page.size() == pageSize);
+	}
+
+	private boolean isCredit(TransactionType type) {
+		return type == TransactionType.DEPOSIT || type == TransactionType.TRANSFER_IN;
+	}
+
+	private record ReplayPosition(LocalDateTime createdAt, Long id, BigDecimal balance, int updated,
+			boolean hasMore) {
+	}
+}
@@ -0,0 +1,95 @@
+package com.algotutor.securebanking.service.impl;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.algotutor.securebanking.repository.UserRepository;
+import com.algotutor.securebanking.service.SecurityStampService;
+
+/**
+ * Current security stamp per user, cached locally for a short period.
+ *
+ * A revocation is visible on this node immediately and on other nodes once
+ * their cached stamp expires, so the cache TTL bounds how long a revoked
+ * stateless token can still be used elsewhere.
+ */
+@Service
+public class SecurityStampServiceImpl implements SecurityStampService {
+
+	private static final Logger logger = LoggerFactory.getLogger(SecurityStampServiceImpl.class);
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Value("${app.jwt.stateless.stamp-cache-ttl:PT30S}")
+	private Duration ttl;
+
+	@Value("${app.jwt.stateless.stamp-cache-size:100000}")
+	private int maxSize;
+
+	private final Map<String, CachedStamp> stamps = new ConcurrentHashMap<>();
+
+	@Override
+	public boolean isCurrent(String username, long stamp) {
+		long now = System.nanoTime();
+		CachedStamp cached = stamps.get(username);
+		if (cached == null || now - cached.loadedAt() >= ttl.toNanos()) {
+			Long current = userRepository.findSecurityStampByUsername(username).orElse(null);
+			if (current == null) {
+				// Deleted user
+				stamps.remove(username);
+				return false;
+			}
+			if (stamps.size() >= maxSize) {
+				stamps.clear();
+			}
+			cached = new CachedStamp(current, now);
+			stamps.put(username, cached);
+		}
+		return cached.stamp() == stamp;
+	}
+
+	@Override
+	@Transactional
+	public void revoke(String username) {
+		userRepository.incrementSecurityStamp(username);
+		// Evicted after commit, so a concurrent check cannot re-cache the old stamp
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				stamps.remove(username);
+			}
+		});
+		logger.info("Revoked access tokens of user {}", username);
+	}
+
+	@Override
+	@Transactional
+	public void revokeAll(Collection<String> usernames) {
+		if (usernames.isEmpty()) {
+			return;
+		}
+		userRepository.incrementSecurityStamps(usernames);
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				usernames.forEach(stamps::remove);
+			}
+		});
+		logger.info("Revoked access tokens of {} users", usernames.size());
+	}
+
+	private record CachedStamp(long stamp, long loadedAt) {
+	}
+}
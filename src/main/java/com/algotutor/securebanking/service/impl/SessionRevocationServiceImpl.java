@@ -0,0 +1,214 @@
+package com.algotutor.securebanking.service.impl;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+import com.algotutor.securebanking.annotation.Auditable;
+import com.algotutor.securebanking.dto.admin.SessionRevocationJobDto;
+import com.algotutor.securebanking.dto.admin.SessionRevocationRequest;
+import com.algotutor.securebanking.exception.BadRequestException;
+import com.algotutor.securebanking.exception.ResourceNotFoundException;
+import com.algotutor.securebanking.repository.UserRepository;
+import com.algotutor.securebanking.service.RefreshTokenService;
+import com.algotutor.securebanking.service.SecurityStampService;
+import com.algotutor.securebanking.service.SessionRevocationService;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Bulk session revocation for incident response.
+ *
+ * Each job walks its users in chunks. Per chunk, the refresh tokens to revoke
+ * are deleted with one pipelined round trip and blacklisted in one pipelined
+ * write, and security stamps are bumped in a single update so access tokens
+ * stop working too. For an explicit list of users that is every token and the
+ * stamp of every listed user, so a session refreshed while the job waits in
+ * the queue is still cut off. Otherwise it is the sessions issued before the
+ * cutoff (rotation keeps a session's issue time) and the stamps of their
+ * owners. Job progress is kept in a Redis hash, so any node can report it.
+ *
+ * Jobs run one at a time on a background thread of the node that accepted
+ * them. A job interrupted by a restart stays RUNNING until its status expires;
+ * revocation is idempotent, so the request can simply be issued again.
+ */
+@Service
+public class SessionRevocationServiceImpl implements SessionRevocationService {
+
+	private static final Logger logger = LoggerFactory.getLogger(SessionRevocationServiceImpl.class);
+
+	private static final String JOB_PREFIX = "session_revocation:";
+
+	private static final String QUEUED = "QUEUED";
+	private static final String RUNNING = "RUNNING";
+	private static final String COMPLETED = "COMPLETED";
+	private static final String FAILED = "FAILED";
+
+	@Value("${app.session-revocation.chunk-size:500}")
+	private int chunkSize;
+
+	@Value("${app.session-revocation.status-ttl:P7D}")
+	private Duration statusTtl;
+
+	@Autowired
+	private RedisTemplate<String, String> stringRedisTemplate;
+
+	@Autowired
+	private RefreshTokenService refreshTokenService;
+
+	@Autowired
+	private SecurityStampService securityStampService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	private final ExecutorService executor = Executors
+			.newSingleThreadExecutor(runnable -> new Thread(runnable, "session-revocation"));
+
+	@Override
+	@Auditable(action = "REVOKE_SESSIONS", resource = "SESSION")
+	public SessionRevocationJobDto startRevocation(SessionRevocationRequest request, String requestedBy) {
+		boolean allUsers = request.getUsernames() == null;
+		if (allUsers && request.getIssuedBefore() == null) {
+			throw new BadRequestException("Either usernames or issuedBefore is required");
+		}
+		if (!allUsers && request.getUsernames().isEmpty()) {
+			throw new BadRequestException("usernames must not be empty");
+		}
+
+		LocalDateTime now = LocalDateTime.now();
+		// Listed users lose every session, including ones refreshed after this request
+		LocalDateTime cutoff = !allUsers ? null : request.getIssuedBefore() != null ? request.getIssuedBefore() : now;
+		List<String> usernames = allUsers ? null : request.getUsernames().stream().distinct().toList();
+		String id = UUID.randomUUID().toString();
+
+		Map<String, String> job = new HashMap<>();
+		job.put("status", QUEUED);
+		job.put("requestedBy", requestedBy);
+		if (cutoff != null) {
+			job.put("issuedBefore", cutoff.toString());
+		}
+		job.put("usersTotal", String.valueOf(allUsers ? userRepository.count() : usernames.size()));
+		job.put("createdAt", now.toString());
+		stringRedisTemplate.opsForHash().putAll(JOB_PREFIX + id, job);
+		stringRedisTemplate.expire(JOB_PREFIX + id, statusTtl);
+
+		executor.execute(() -> run(id, usernames, cutoff));
+		logger.info("Session revocation {} queued by {}: {} users, issued before {}", id, requestedBy,
+				allUsers ? "all" : usernames.size(), cutoff != null ? cutoff : "now or later");
+		return getJob(id);
+	}
+
+	@Override
+	public SessionRevocationJobDto getJob(String id) {
+		Map<Object, Object> job = stringRedisTemplate.opsForHash().entries(JOB_PREFIX + id);
+		if (job.isEmpty()) {
+			throw new ResourceNotFoundException("Session revocation job not found: " + id);
+		}
+
+		SessionRevocationJobDto dto = new SessionRevocationJobDto();
+		dto.setId(id);
+		dto.setStatus((String) job.get("status"));
+		dto.setRequestedBy((String) job.get("requestedBy"));
+		dto.setIssuedBefore(parseTime(job.get("issuedBefore")));
+		dto.setUsersTotal(parseLong(job.get("usersTotal")));
+		dto.setUsersProcessed(parseLong(job.get("usersProcessed")));
+		dto.setUsersAffected(parseLong(job.get("usersAffected")));
+		dto.setTokensRevoked(parseLong(job.get("tokensRevoked")));
+		dto.setCreatedAt(parseTime(job.get("createdAt")));
+		dto.setFinishedAt(parseTime(job.get("finishedAt")));
+		dto.setError((String) job.get("error"));
+		return dto;
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+
+	private void run(String id, List<String> usernames, LocalDateTime cutoff) {
+		String key = JOB_PREFIX + id;
+		Progress progress = new Progress();
+		long started = System.nanoTime();
+		try {
+			stringRedisTemplate.opsForHash().put(key, "status", RUNNING);
+			if (usernames != null) {
+				for (int from = 0; from < usernames.size(); from += chunkSize) {
+					revokeChunk(key, usernames.subList(from, Math.min(from + chunkSize, usernames.size())), cutoff,
+							progress);
+				}
+			} else {
+				// Keyset walk over all users, so each chunk is one indexed query
+				String after = "";
+				List<String> chunk;
+				while (!(chunk = userRepository.findUsernamesAfter(after, Limit.of(chunkSize))).isEmpty()) {
+					revokeChunk(key, chunk, cutoff, progress);
+					after = chunk.get(chunk.size() - 1);
+				}
+			}
+			finish(key, COMPLETED, null);
+			logger.info("Session revocation {} completed in {} ms: {} users checked, {} tokens of {} users revoked",
+					id, Duration.ofNanos(System.nanoTime() - started).toMillis(), progress.processed, progress.revoked,
+					progress.affected);
+		} catch (Exception e) {
+			logger.error("Session revocation {} failed after {} users: {}", id, progress.processed, e.getMessage(), e);
+			finish(key, FAILED, e.getMessage());
+		}
+	}
+
+	private void revokeChunk(String key, List<String> chunk, LocalDateTime cutoff, Progress progress) {
+		Map<String, List<String>> revoked = refreshTokenService.revokeTokensIssuedBefore(chunk, cutoff);
+		securityStampService.revokeAll(cutoff == null ? chunk : revoked.keySet());
+
+		progress.processed += chunk.size();
+		progress.affected += revoked.size();
+		progress.revoked += revoked.values().stream().mapToLong(List::size).sum();
+		stringRedisTemplate.opsForHash().putAll(key,
+				Map.of("usersProcessed", String.valueOf(progress.processed), "usersAffected",
+						String.valueOf(progress.affected), "tokensRevoked", String.valueOf(progress.revoked)));
+		logger.debug("Session revocation {}: {} users processed", key, progress.processed);
+	}
+
+	private void finish(String key, String status, String error) {
+		try {
+			Map<String, String> fields = new HashMap<>();
+			fields.put("status", status);
+			fields.put("finishedAt", LocalDateTime.now().toString());
+			if (error != null) {
+				fields.put("error", error);
+			}
+			stringRedisTemplate.opsForHash().putAll(key, fields);
+			stringRedisTemplate.expire(key, statusTtl);
+		} catch (Exception e) {
+			logger.error("Could not record the outcome of {}: {}", key, e.getMessage());
+		}
+	}
+
+	private long parseLong(Object value) {
+		return value != null ? Long.parseLong((String) value) : 0;
+	}
+
+	private LocalDateTime parseTime(Object value) {
+		return value != null ? LocalDateTime.parse((String) value) : null;
+	}
+
+	// Only touched by the job's thread
+	private static final class Progress {
+		private long processed;
+		private long affected;
+		private long revoked;
+	}
+}
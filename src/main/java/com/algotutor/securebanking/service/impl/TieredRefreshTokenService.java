@@ -0,0 +1,467 @@
+package com.algotutor.securebanking.service.impl;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+
+import com.algotutor.securebanking.entity.RefreshToken;
+import com.algotutor.securebanking.exception.TokenRefreshException;
+import com.algotutor.securebanking.metrics.BankingMetrics;
+import com.algotutor.securebanking.service.RefreshTokenService;
+import com.algotutor.securebanking.service.TokenBlacklistService;
+
+import io.micrometer.core.instrument.Gauge;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Refresh token store with a bounded local tier in front of the Redis store.
+ *
+ * While Redis is healthy every operation goes to Redis, which stays the source
+ * of truth for single-use rotation and revocations made on other nodes; the
+ * local tier only mirrors the tokens this node has issued or looked up. A
+ * circuit breaker opens after consecutive failed or slow Redis calls. While it
+ * is open, and until every queued write has been replayed, lookups and
+ * rotations are answered from the local tier and writes are queued in order.
+ * A background task replays the queue once Redis answers again; a replayed
+ * rotation whose old token was revoked or rotated elsewhere in the meantime is
+ * dropped by the same script that enforces single use.
+ *
+ * During an outage a token this node has never seen cannot be verified.
+ * Deletes and rotations made on other nodes only reach this node's local tier
+ * through the blacklist: the Redis store blacklists every token it deletes or
+ * rotates away, and a local entry is only served if the blacklist filter does
+ * not report it (a possible hit counts as revoked while Redis is down).
+ */
+@Service
+@Primary
+public class TieredRefreshTokenService implements RefreshTokenService {
+
+	private static final Logger logger = LoggerFactory.getLogger(TieredRefreshTokenService.class);
+
+	public enum BreakerState {
+		CLOSED, HALF_OPEN, OPEN
+	}
+
+	@Value("${app.token-store.local.max-size:100000}")
+	private int localMaxSize;
+
+	@Value("${app.token-store.breaker.failure-threshold:5}")
+	private int failureThreshold;
+
+	@Value("${app.token-store.breaker.open-duration:PT10S}")
+	private Duration openDuration;
+
+	@Value("${app.token-store.breaker.slow-call-threshold:500ms}")
+	private Duration slowCallThreshold;
+
+	@Value("${app.token-store.replay.max-backlog:10000}")
+	private int maxBacklog;
+
+	@Value("${app.token-store.replay.interval:PT1S}")
+	private Duration replayInterval;
+
+	@Autowired
+	private RefreshTokenServiceImpl redisStore;
+
+	@Autowired
+	private TokenBlacklistService tokenBlacklistService;
+
+	@Autowired
+	private TaskScheduler taskScheduler;
+
+	@Autowired
+	private BankingMetrics bankingMetrics;
+
+	// Least recently used tokens are evicted first; iteration must hold the map's lock
+	private Map<String, RefreshToken> local;
+
+	// Writes waiting for Redis, oldest first; guarded by itself
+	private final Deque<PendingWrite> backlog = new ArrayDeque<>();
+
+	private Breaker breaker;
+
+	@PostConstruct
+	public void init() {
+		local = Collections.synchronizedMap(new LinkedHashMap<>(1024, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, RefreshToken> eldest) {
+				return size() > localMaxSize;
+			}
+		});
+		breaker = new Breaker(failureThreshold, openDuration.toNanos());
+
+		Gauge.builder("banking.tokens.breaker.state", this, store -> store.getBreakerState().ordinal())
+				.description("Refresh token store circuit breaker: 0 closed, 1 half-open, 2 open")
+				.register(bankingMetrics.getMeterRegistry());
+		Gauge.builder("banking.tokens.replay.backlog", this, TieredRefreshTokenService::getReplayBacklog)
+				.description("Refresh token writes queued for replay to Redis")
+				.register(bankingMetrics.getMeterRegistry());
+		Gauge.builder("banking.tokens.local.size", this, TieredRefreshTokenService::getLocalSize)
+				.description("Refresh tokens held in the local tier")
+				.register(bankingMetrics.getMeterRegistry());
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void startReplay() {
+		taskScheduler.scheduleWithFixedDelay(this::replay, replayInterval);
+	}
+
+	@Override
+	public RefreshToken createRefreshToken(String username, HttpServletRequest request) {
+		RefreshToken refreshToken = redisStore.newRefreshToken(username, request);
+		write("issue for " + username, () -> redisStore.store(refreshToken));
+		remember(refreshToken);
+		return refreshToken;
+	}
+
+	@Override
+	public Optional<RefreshToken> findByToken(String token) {
+		if (useRedis()) {
+			try {
+				Optional<RefreshToken> found = call(() -> redisStore.findByToken(token));
+				found.ifPresentOrElse(this::remember, () -> local.remove(token));
+				return found;
+			} catch (DataAccessException e) {
+				logger.warn("Redis unavailable, looking up refresh token locally: {}", e.getMessage());
+			}
+		}
+		return findLocally(token);
+	}
+
+	@Override
+	public RefreshToken verifyExpiration(RefreshToken token) {
+		if (token.isExpired()) {
+			deleteByToken(token.getToken());
+			throw new TokenRefreshException("Refresh token has expired. Please log in again.");
+		}
+		if (isRevoked(token.getToken())) {
+			throw new TokenRefreshException("Refresh token has been revoked. Please log in again.");
+		}
+		return token;
+	}
+
+	@Override
+	public Optional<RefreshToken> rotateRefreshToken(String token, HttpServletRequest request) {
+		if (useRedis()) {
+			try {
+				Optional<RefreshToken> rotated = call(() -> redisStore.rotateRefreshToken(token, request));
+				local.remove(token);
+				rotated.ifPresent(this::remember);
+				return rotated;
+			} catch (DataAccessException e) {
+				logger.warn("Redis unavailable, rotating refresh token locally: {}", e.getMessage());
+			}
+		}
+		return rotateLocally(token, request);
+	}
+
+	@Override
+	public void deleteByUsername(String username) {
+		write("delete tokens of " + username, () -> redisStore.deleteByUsername(username));
+		forgetUser(username);
+	}
+
+	@Override
+	public void deleteByToken(String token) {
+		write("delete token", () -> redisStore.deleteByToken(token));
+		local.remove(token);
+	}
+
+	@Override
+	public void deleteExpiredTokens() {
+		// Sweeping is pointless while Redis is unhealthy and must not take the half-open probe
+		if (breaker.getState() == BreakerState.CLOSED && getReplayBacklog() == 0) {
+			redisStore.deleteExpiredTokens();
+		}
+		synchronized (local) {
+			local.values().removeIf(RefreshToken::isExpired);
+		}
+	}
+
+	@Override
+	public long renameLegacyKeys() {
+		return redisStore.renameLegacyKeys();
+	}
+
+	@Override
+	public List<RefreshToken> getActiveTokensByUsername(String username) {
+		if (useRedis()) {
+			try {
+				return call(() -> redisStore.getActiveTokensByUsername(username));
+			} catch (DataAccessException e) {
+				logger.warn("Redis unavailable, listing refresh tokens locally: {}", e.getMessage());
+			}
+		}
+		synchronized (local) {
+			return local.values().stream()
+					.filter(token -> username.equals(token.getUsername()) && !token.isExpired())
+					.toList();
+		}
+	}
+
+	@Override
+	public void revokeAllUserTokens(String username) {
+		write("revoke tokens of " + username, () -> redisStore.revokeAllUserTokens(username));
+		forgetUser(username);
+	}
+
+	@Override
+	public Map<String, List<String>> revokeTokensIssuedBefore(List<String> usernames, LocalDateTime issuedBefore) {
+		if (!useRedis()) {
+			throw new IllegalStateException("Refresh token store is running on its local tier, retry later");
+		}
+		Map<String, List<String>> revoked = call(() -> redisStore.revokeTokensIssuedBefore(usernames, issuedBefore));
+		revoked.values().forEach(tokens -> tokens.forEach(local::remove));
+		return revoked;
+	}
+
+	@Override
+	public boolean isTokenValid(String token) {
+		Optional<RefreshToken> refreshToken = findByToken(token);
+		return refreshToken.isPresent() && !refreshToken.get().isExpired() && !isRevoked(token);
+	}
+
+	public BreakerState getBreakerState() {
+		return breaker.getState();
+	}
+
+	public int getReplayBacklog() {
+		synchronized (backlog) {
+			return backlog.size();
+		}
+	}
+
+	public int getLocalSize() {
+		return local.size();
+	}
+
+	private Optional<RefreshToken> rotateLocally(String token, HttpServletRequest request) {
+		if (isRevoked(token)) {
+			throw new TokenRefreshException("Refresh token has been revoked. Please log in again.");
+		}
+		Optional<RefreshToken> found = findLocally(token);
+		// Removing the old token is what makes a local rotation single use
+		if (found.isEmpty() || local.remove(token) == null) {
+			return Optional.empty();
+		}
+
+		RefreshToken old = found.get();
+		RefreshToken replacement = redisStore.newRefreshToken(old.getUsername(), old.getUserId(), request);
+		// Same as the Redis rotation: the session keeps its original issue time
+		replacement.setCreatedAt(old.getCreatedAt());
+		try {
+			enqueue("rotate for " + old.getUsername(), () -> {
+				if (redisStore.rotate(token, replacement).isEmpty()) {
+					logger.warn("Dropped a rotation made during the Redis outage for user {}: the old token was "
+							+ "revoked or rotated elsewhere", old.getUsername());
+				}
+			});
+		} catch (IllegalStateException e) {
+			remember(old);
+			throw e;
+		}
+		remember(replacement);
+		return Optional.of(replacement);
+	}
+
+	private Optional<RefreshToken> findLocally(String token) {
+		RefreshToken refreshToken = local.get(token);
+		if (refreshToken != null && isRevoked(token)) {
+			// Logged out or rotated on another node
+			local.remove(token);
+			refreshToken = null;
+		}
+		if (refreshToken == null || refreshToken.isExpired()) {
+			bankingMetrics.incrementTokenLocalMisses();
+			return Optional.empty();
+		}
+		bankingMetrics.incrementTokenLocalHits();
+		return Optional.of(refreshToken);
+	}
+
+	private boolean isRevoked(String token) {
+		try {
+			return tokenBlacklistService.isRevoked(token);
+		} catch (DataAccessException e) {
+			// The filter thinks it may be revoked and Redis cannot confirm otherwise
+			return true;
+		}
+	}
+
+	private void remember(RefreshToken refreshToken) {
+		local.put(refreshToken.getToken(), refreshToken);
+	}
+
+	private void forgetUser(String username) {
+		synchronized (local) {
+			local.values().removeIf(token -> username.equals(token.getUsername()));
+		}
+	}
+
+	// Redis serves reads only when nothing is queued, so they never overtake a pending write
+	private boolean useRedis() {
+		return getReplayBacklog() == 0 && breaker.allowRequest();
+	}
+
+	/**
+	 * Runs the write against Redis, or queues it when Redis is unhealthy or
+	 * earlier writes are still waiting
+	 */
+	private void write(String description, Runnable action) {
+		synchronized (backlog) {
+			if (!backlog.isEmpty() || !breaker.allowRequest()) {
+				enqueue(description, action);
+				return;
+			}
+		}
+		try {
+			call(() -> {
+				action.run();
+				return null;
+			});
+		} catch (DataAccessException e) {
+			logger.warn("Redis unavailable, queueing refresh token write ({}): {}", description, e.getMessage());
+			enqueue(description, action);
+		}
+	}
+
+	private void enqueue(String description, Runnable action) {
+		synchronized (backlog) {
+			if (backlog.size() >= maxBacklog) {
+				throw new IllegalStateException("Refresh token store unavailable: replay backlog is full");
+			}
+			backlog.addLast(new PendingWrite(description, action));
+		}
+	}
+
+	/**
+	 * Replays queued writes in order until the queue is empty or Redis fails
+	 * again. Only this task removes entries, so peeking first is safe.
+	 */
+	private void replay() {
+		int replayed = 0;
+		while (true) {
+			PendingWrite next;
+			synchronized (backlog) {
+				next = backlog.peekFirst();
+			}
+			if (next == null || !breaker.allowRequest()) {
+				break;
+			}
+			try {
+				call(() -> {
+					next.action().run();
+					return null;
+				});
+			} catch (DataAccessException e) {
+				logger.warn("Replay stopped at '{}', {} writes still queued: {}", next.description(),
+						getReplayBacklog(), e.getMessage());
+				break;
+			} catch (RuntimeException e) {
+				// Redis answered, so retrying would fail the same way
+				logger.error("Dropping queued refresh token write '{}': {}", next.description(), e.getMessage());
+			}
+			synchronized (backlog) {
+				backlog.pollFirst();
+			}
+			replayed++;
+		}
+		if (replayed > 0) {
+			logger.info("Replayed {} queued refresh token writes, {} left", replayed, getReplayBacklog());
+		}
+	}
+
+	// Times the Redis call and reports the outcome to the breaker
+	private <T> T call(Supplier<T> operation) {
+		long started = System.nanoTime();
+		try {
+			T result = operation.get();
+			breaker.record(System.nanoTime() - started <= slowCallThreshold.toNanos());
+			return result;
+		} catch (DataAccessException e) {
+			breaker.record(false);
+			throw e;
+		} catch (RuntimeException e) {
+			// Redis answered; the operation itself was refused
+			breaker.record(true);
+			throw e;
+		}
+	}
+
+	private record PendingWrite(String description, Runnable action) {
+	}
+
+	/**
+	 * Opens after {@code failureThreshold} consecutive failed or slow calls and
+	 * lets a single probe through once {@code openNanos} have passed; the probe
+	 * closes it again or reopens it
+	 */
+	private static final class Breaker {
+
+		private final int failureThreshold;
+		private final long openNanos;
+
+		private BreakerState state = BreakerState.CLOSED;
+		private int consecutiveFailures;
+		private long openedAt;
+
+		Breaker(int failureThreshold, long openNanos) {
+			this.failureThreshold = Math.max(1, failureThreshold);
+			this.openNanos = openNanos;
+		}
+
+		synchronized boolean allowRequest() {
+			if (state == BreakerState.CLOSED) {
+				return true;
+			}
+			if (state == BreakerState.OPEN && System.nanoTime() - openedAt >= openNanos) {
+				state = BreakerState.HALF_OPEN;
+				return true;
+			}
+			// Still open, or the probe is in flight
+			return false;
+		}
+
+		synchronized void record(boolean success) {
+			if (state == BreakerState.OPEN) {
+				// Outcome of a call that started before the breaker opened
+				return;
+			}
+			if (success) {
+				if (state == BreakerState.HALF_OPEN) {
+					logger.info("Redis answered again, refresh token store circuit closed");
+				}
+				state = BreakerState.CLOSED;
+				consecutiveFailures = 0;
+			} else if (state == BreakerState.HALF_OPEN || ++consecutiveFailures >= failureThreshold) {
+				logger.warn("Refresh token store circuit opened, serving from the local tier");
+				state = BreakerState.OPEN;
+				openedAt = System.nanoTime();
+				consecutiveFailures = 0;
+			}
+		}
+
+		synchronized BreakerState getState() {
+			return state;
+		}
+	}
+}
@@ -0,0 +1,280 @@
+package com.algotutor.securebanking.service.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisClusterNode;
+import org.springframework.data.redis.connection.SubscriptionListener;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+
+import com.algotutor.securebanking.metrics.BankingMetrics;
+import com.algotutor.securebanking.security.BloomFilter;
+import com.algotutor.securebanking.service.TokenBlacklistService;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Token blacklist in Redis ({@code blacklist_token:<token>} keys) with a
+ * per-node Bloom filter in front, so the usual "not revoked" answer needs no
+ * Redis round trip and only probable hits are confirmed against Redis.
+ *
+ * Revocations are added to the local filter and broadcast over Redis pub/sub
+ * to the other nodes (one token per line, so bulk revocations share a message).
+ * Whenever the subscription is (re)established, which the listener container
+ * reports for the first subscribe and for every resubscribe after a reconnect,
+ * and periodically after that to cover missed messages, the filter is topped
+ * up from a SCAN of the blacklist keys; until the first such sync every lookup
+ * goes to Redis.
+ *
+ * Bloom filters cannot forget, so the filter is split into generations. New
+ * revocations go into the newest one, and the oldest is dropped each rotation
+ * period, which is chosen so an entry outlives the longest token lifetime.
+ */
+@Service
+public class TokenBlacklistServiceImpl implements TokenBlacklistService, MessageListener, SubscriptionListener {
+
+	private static final Logger logger = LoggerFactory.getLogger(TokenBlacklistServiceImpl.class);
+
+	private static final String TOKEN_BLACKLIST_PREFIX = "blacklist_token:";
+
+	@Autowired
+	private RedisTemplate<String, Object> redisTemplate;
+
+	@Autowired
+	private RedisTemplate<String, String> stringRedisTemplate;
+
+	@Autowired
+	private RedisMessageListenerContainer redisMessageListenerContainer;
+
+	@Autowired
+	private TaskScheduler taskScheduler;
+
+	@Autowired
+	private BankingMetrics bankingMetrics;
+
+	// Longest time a revocation has to be remembered: the refresh token lifetime
+	@Value("${app.jwtRefreshExpirationMs:604800000}")
+	private long maxTokenLifetimeMs;
+
+	@Value("${app.token-blacklist.expected-revocations:100000}")
+	private long expectedRevocations;
+
+	@Value("${app.token-blacklist.false-positive-rate:0.001}")
+	private double falsePositiveRate;
+
+	@Value("${app.token-blacklist.generations:4}")
+	private int generationCount;
+
+	@Value("${app.token-blacklist.channel:token-revocations}")
+	private String channel;
+
+	@Value("${app.token-blacklist.resync-interval:PT10M}")
+	private Duration resyncInterval;
+
+	@Value("${app.token-blacklist.resubscribe-interval:PT30S}")
+	private Duration resubscribeInterval;
+
+	// Newest generation first; replaced as a whole on rotation
+	private volatile BloomFilter[] generations;
+
+	private volatile long nextRotation;
+
+	private long rotationPeriodMs;
+
+	private volatile boolean synced;
+
+	@PostConstruct
+	public void init() {
+		generationCount = Math.max(2, generationCount);
+		// Entries survive at least (generations - 1) full periods
+		rotationPeriodMs = Math.max(1, maxTokenLifetimeMs / (generationCount - 1));
+		generations = new BloomFilter[generationCount];
+		for (int i = 0; i < generationCount; i++) {
+			generations[i] = newGeneration();
+		}
+		nextRotation = System.currentTimeMillis() + rotationPeriodMs;
+	}
+
+	/**
+	 * Subscribes once the listener container is running; the filter is filled
+	 * from Redis when the subscription is confirmed. Retried until Redis is
+	 * reachable.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void subscribe() {
+		try {
+			redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(channel));
+			logger.info("Subscribed to token revocations on {}", channel);
+			taskScheduler.scheduleWithFixedDelay(this::resync, Instant.now().plus(resyncInterval), resyncInterval);
+		} catch (Exception e) {
+			logger.warn("Could not subscribe to token revocations, retrying in {}: {}", resubscribeInterval,
+					e.getMessage());
+			taskScheduler.schedule(this::subscribe, Instant.now().plus(resubscribeInterval));
+		}
+	}
+
+	@Override
+	public void revoke(String token, Duration remainingLifetime) {
+		if (remainingLifetime.isNegative() || remainingLifetime.isZero()) {
+			return;
+		}
+		redisTemplate.opsForValue().set(TOKEN_BLACKLIST_PREFIX + token, "revoked", remainingLifetime.toMillis(),
+				TimeUnit.MILLISECONDS);
+		addLocally(token);
+		try {
+			stringRedisTemplate.convertAndSend(channel, token);
+		} catch (Exception e) {
+			// Other nodes pick it up on their next resync
+			logger.warn("Could not broadcast token revocation: {}", e.getMessage());
+		}
+	}
+
+	@Override
+	public void revokeAll(Collection<String> tokens, Duration remainingLifetime) {
+		if (tokens.isEmpty() || remainingLifetime.isNegative() || remainingLifetime.isZero()) {
+			return;
+		}
+		redisTemplate.executePipelined(new SessionCallback<Object>() {
+			@Override
+			@SuppressWarnings("unchecked")
+			public Object execute(RedisOperations operations) {
+				for (String token : tokens) {
+					operations.opsForValue().set(TOKEN_BLACKLIST_PREFIX + token, "revoked",
+							remainingLifetime.toMillis(), TimeUnit.MILLISECONDS);
+				}
+				return null;
+			}
+		});
+		tokens.forEach(this::addLocally);
+		try {
+			stringRedisTemplate.convertAndSend(channel, String.join("\n", tokens));
+		} catch (Exception e) {
+			logger.warn("Could not broadcast {} token revocations: {}", tokens.size(), e.getMessage());
+		}
+	}
+
+	@Override
+	public boolean isRevoked(String token) {
+		if (synced && !mightBeRevoked(token)) {
+			bankingMetrics.incrementBlacklistFiltered();
+			return false;
+		}
+		bankingMetrics.incrementBlacklistLookups();
+		return Boolean.TRUE.equals(redisTemplate.hasKey(TOKEN_BLACKLIST_PREFIX + token));
+	}
+
+	@Override
+	public void onMessage(Message message, byte[] pattern) {
+		for (String token : new String(message.getBody(), StandardCharsets.UTF_8).split("\n")) {
+			addLocally(token);
+		}
+	}
+
+	/**
+	 * Called on the first subscribe and again after every reconnect; messages
+	 * published while disconnected are recovered from Redis. The SCAN runs on
+	 * the scheduler, not on the connection's event loop.
+	 */
+	@Override
+	public void onChannelSubscribed(byte[] subscribedChannel, long count) {
+		taskScheduler.schedule(this::resync, Instant.now());
+	}
+
+	/**
+	 * Adds every blacklisted token currently in Redis to the newest generation.
+	 * Nothing is removed, so revocations arriving meanwhile are never lost.
+	 */
+	private void resync() {
+		ScanOptions options = ScanOptions.scanOptions().match(TOKEN_BLACKLIST_PREFIX + "*").count(1000).build();
+		try {
+			Long count = redisTemplate.execute((RedisCallback<Long>) connection -> {
+				if (connection instanceof RedisClusterConnection cluster) {
+					// SCAN only walks the node it is sent to
+					long total = 0;
+					for (RedisClusterNode node : cluster.clusterGetNodes()) {
+						if (node.isMaster()) {
+							total += addAllLocally(cluster.scan(node, options));
+						}
+					}
+					return total;
+				}
+				return addAllLocally(connection.keyCommands().scan(options));
+			});
+			synced = true;
+			logger.debug("Token blacklist filter synced with {} revoked tokens", count);
+		} catch (Exception e) {
+			logger.warn("Could not sync token blacklist filter: {}", e.getMessage());
+		}
+	}
+
+	private long addAllLocally(Cursor<byte[]> keys) {
+		long count = 0;
+		try (keys) {
+			while (keys.hasNext()) {
+				addLocally(new String(keys.next(), StandardCharsets.UTF_8).substring(TOKEN_BLACKLIST_PREFIX.length()));
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private void addLocally(String token) {
+		rotateIfDue();
+		generations[0].add(token);
+	}
+
+	private boolean mightBeRevoked(String token) {
+		rotateIfDue();
+		for (BloomFilter generation : generations) {
+			if (generation.mightContain(token)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void rotateIfDue() {
+		long now = System.currentTimeMillis();
+		if (now < nextRotation) {
+			return;
+		}
+		synchronized (this) {
+			if (now < nextRotation) {
+				return;
+			}
+			BloomFilter[] rotated = new BloomFilter[generationCount];
+			rotated[0] = newGeneration();
+			System.arraycopy(generations, 0, rotated, 1, generationCount - 1);
+			generations = rotated;
+			nextRotation = now + rotationPeriodMs;
+		}
+	}
+
+	private BloomFilter newGeneration() {
+		// Each generation takes one period's share of the revocations; the lookup checks
+		// every generation, so each gets a share of the overall false-positive rate
+		long perGeneration = (expectedRevocations + generationCount - 2) / (generationCount - 1);
+		return new BloomFilter(perGeneration, falsePositiveRate / generationCount);
+	}
+}
@@ -0,0 +1,154 @@
+package com.algotutor.securebanking.service.impl;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.algotutor.securebanking.dto.banking.ExportFormat;
+import com.algotutor.securebanking.dto.banking.TransactionDto;
+import com.algotutor.securebanking.entity.Transaction;
+import com.algotutor.securebanking.repository.TransactionRepository;
+import com.algotutor.securebanking.service.AccountService;
+import com.algotutor.securebanking.service.TransactionExportService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Streams an account's transaction history straight from a database cursor to
+ * the response. Each row is written and then detached from the persistence
+ * context, so memory stays flat regardless of how long the history is.
+ */
+@Service
+public class TransactionExportServiceImpl implements TransactionExportService {
+
+	private static final Logger logger = LoggerFactory.getLogger(TransactionExportServiceImpl.class);
+
+	private static final String CSV_HEADER = "id,createdAt,type,amount,description,accountNumber,targetAccountNumber,balanceAfter";
+
+	// Rows written between explicit flushes of the response buffer
+	private static final int FLUSH_EVERY = 500;
+
+	@Autowired
+	private TransactionRepository transactionRepository;
+
+	@Autowired
+	private AccountService accountService;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Override
+	@Transactional(readOnly = true)
+	public void exportAccountTransactions(String accountNumber, LocalDateTime startDate, LocalDateTime endDate,
+			ExportFormat format, OutputStream outputStream) {
+		Long accountId = accountService.findActiveAccountId(accountNumber);
+		long rows = 0;
+
+		try (Stream<Transaction> transactions = transactionRepository.streamByAccountIdAndCreatedAtBetween(accountId,
+				startDate, endDate)) {
+			Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+			// The servlet owns the stream; Jackson must not close it after each row
+			JsonGenerator json = objectMapper.getFactory().createGenerator(writer)
+					.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+			// Rows are newline-terminated by hand (NDJSON), not space-separated
+			json.setRootValueSeparator(null);
+			// Flushing is batched below rather than after every row
+			ObjectWriter rowWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+			if (format == ExportFormat.CSV) {
+				writer.write(CSV_HEADER);
+				writer.write('\n');
+			}
+
+			Iterator<Transaction> iterator = transactions.iterator();
+			while (iterator.hasNext()) {
+				Transaction transaction = iterator.next();
+				TransactionDto dto = new TransactionDto(transaction.getId(), transaction.getAmount(),
+						transaction.getType(), transaction.getDescription(), transaction.getCreatedAt(), accountNumber,
+						transaction.getTargetAccount() != null ? transaction.getTargetAccount().getAccountNumber()
+								: null,
+						transaction.getBalanceAfter());
+
+				if (format == ExportFormat.CSV) {
+					writeCsvRow(writer, dto);
+				} else {
+					rowWriter.writeValue(json, dto);
+					json.writeRaw('\n');
+				}
+
+				entityManager.detach(transaction);
+				if (transaction.getTargetAccount() != null) {
+					entityManager.detach(transaction.getTargetAccount());
+				}
+				if (++rows % FLUSH_EVERY == 0) {
+					json.flush();
+					writer.flush();
+				}
+			}
+			json.flush();
+			writer.flush();
+		} catch (IOException e) {
+			// Usually the client went away mid-download
+			logger.warn("Transaction export for account {} aborted after {} rows: {}", accountNumber, rows,
+					e.getMessage());
+			throw new UncheckedIOException(e);
+		}
+
+		logger.info("Exported {} transactions for account {} as {}", rows, accountNumber, format);
+	}
+
+	private void writeCsvRow(Writer writer, TransactionDto dto) throws IOException {
+		writer.write(String.valueOf(dto.getId()));
+		writer.write(',');
+		writer.write(String.valueOf(dto.getCreatedAt()));
+		writer.write(',');
+		writer.write(dto.getType().name());
+		writer.write(',');
+		writer.write(dto.getAmount().toPlainString());
+		writer.write(',');
+		writer.write(csvEscape(dto.getDescription()));
+		writer.write(',');
+		writer.write(dto.getAccountNumber());
+		writer.write(',');
+		writer.write(dto.getTargetAccountNumber() != null ? dto.getTargetAccountNumber() : "");
+		writer.write(',');
+		writer.write(dto.getBalanceAfter() != null ? dto.getBalanceAfter().toPlainString() : "");
+		writer.write('\n');
+	}
+
+	private String csvEscape(String value) {
+		if (value == null) {
+			return "";
+		}
+		// Keep spreadsheet applications from evaluating customer-supplied text as a formula
+		if (!value.isEmpty() && "=+-@".indexOf(value.charAt(0)) >= 0) {
+			value = "'" + value;
+		}
+		if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+				&& value.indexOf('\r') < 0) {
+			return value;
+		}
+		return '"' + value.replace("\"", "\"\"") + '"';
+	}
+}
@@ -0,0 +1,129 @@
+package com.algotutor.securebanking.service.impl;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.algotutor.securebanking.entity.Transaction;
+import com.algotutor.securebanking.entity.TransactionRollup;
+import com.algotutor.securebanking.entity.TransactionType;
+import com.algotutor.securebanking.repository.AccountRepository;
+import com.algotutor.securebanking.repository.TransactionRepository;
+import com.algotutor.securebanking.repository.TransactionRollupRepository;
+import com.algotutor.securebanking.service.TransactionRollupService;
+
+/**
+ * Daily per-account, per-type transaction rollups.
+ *
+ * Postings bump their bucket with a guarded UPDATE and insert it when it does
+ * not exist yet. The posting already holds the account row lock, so two
+ * postings can never race to insert the same bucket.
+ */
+@Service
+public class TransactionRollupServiceImpl implements TransactionRollupService {
+
+	private static final Logger logger = LoggerFactory.getLogger(TransactionRollupServiceImpl.class);
+
+	@Autowired
+	private TransactionRollupRepository rollupRepository;
+
+	@Autowired
+	private TransactionRepository transactionRepository;
+
+	@Autowired
+	private AccountRepository accountRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Value("${app.rollups.rebuild-partitions:4}")
+	private int rebuildPartitions;
+
+	@Override
+	@Transactional(propagation = Propagation.MANDATORY)
+	public void record(Collection<Transaction> transactions) {
+		// Collapse a batch to one write per bucket
+		Map<BucketKey, Bucket> buckets = new LinkedHashMap<>();
+		for (Transaction transaction : transactions) {
+			BucketKey key = new BucketKey(transaction.getAccount().getId(), transaction.getType(),
+					transaction.getCreatedAt().toLocalDate());
+			buckets.computeIfAbsent(key, k -> new Bucket()).add(transaction.getAmount());
+		}
+
+		buckets.forEach((key, bucket) -> {
+			if (rollupRepository.increment(key.accountId(), key.type(), key.day(), bucket.count, bucket.total) == 0) {
+				rollupRepository.save(new TransactionRollup(accountRepository.getReferenceById(key.accountId()),
+						key.type(), key.day(), bucket.count, bucket.total));
+			}
+		});
+	}
+
+	@Override
+	public int rebuild() {
+		logger.info("Rebuilding transaction rollups in {} partitions", rebuildPartitions);
+		ExecutorService executor = Executors.newFixedThreadPool(rebuildPartitions);
+		try {
+			List<Future<Integer>> partitions = new ArrayList<>(rebuildPartitions);
+			for (int partition = 0; partition < rebuildPartitions; partition++) {
+				int current = partition;
+				partitions.add(executor.submit(() -> transactionTemplate.execute(status -> rebuildPartition(current))));
+			}
+
+			int written = 0;
+			for (Future<Integer> partition : partitions) {
+				written += partition.get();
+			}
+			logger.info("Rebuilt {} transaction rollups", written);
+			return written;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while rebuilding transaction rollups", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Transaction rollup rebuild failed", e.getCause());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private int rebuildPartition(int partition) {
+		rollupRepository.deletePartition(rebuildPartitions, partition);
+
+		List<TransactionRollup> rollups = new ArrayList<>();
+		for (Object[] row : transactionRepository.aggregatePartitionByAccountTypeAndDay(rebuildPartitions, partition)) {
+			rollups.add(new TransactionRollup(accountRepository.getReferenceById((Long) row[0]),
+					(TransactionType) row[1], (LocalDate) row[2], (Long) row[3], (BigDecimal) row[4]));
+		}
+		rollupRepository.saveAll(rollups);
+		return rollups.size();
+	}
+
+	private record BucketKey(Long accountId, TransactionType type, LocalDate day) {
+	}
+
+	private static class Bucket {
+		private long count;
+		private BigDecimal total = BigDecimal.ZERO;
+
+		void add(BigDecimal amount) {
+			count++;
+			total = total.add(amount);
+		}
+	}
+}
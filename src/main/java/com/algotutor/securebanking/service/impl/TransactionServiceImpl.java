@@ -3,29 +3,56 @@ package com.algotutor.securebanking.service.impl;
 import org.springframework.stereotype.Service;
 
 import com.algotutor.securebanking.annotation.Auditable;
-import com.algotutor.securebanking.dto.banking.AccountDto;
+import com.algotutor.securebanking.dto.banking.BatchTransferResponse;
 import com.algotutor.securebanking.dto.banking.DepositRequest;
 import com.algotutor.securebanking.dto.banking.TransactionDto;
+import com.algotutor.securebanking.dto.banking.TransactionPageDto;
+import com.algotutor.securebanking.dto.banking.TransactionTotalDto;
 import com.algotutor.securebanking.dto.banking.TransferRequest;
 import com.algotutor.securebanking.dto.banking.WithdrawalRequest;
 import com.algotutor.securebanking.entity.Account;
 import com.algotutor.securebanking.entity.Transaction;
 import com.algotutor.securebanking.entity.TransactionType;
+import com.algotutor.securebanking.exception.AccountLockException;
 import com.algotutor.securebanking.exception.BadRequestException;
 import com.algotutor.securebanking.exception.InsufficientFundsException;
 import com.algotutor.securebanking.exception.ResourceNotFoundException;
+import com.algotutor.securebanking.repository.AccountBalanceRepository.BalanceVersion;
+import com.algotutor.securebanking.repository.AccountRepository;
 import com.algotutor.securebanking.repository.TransactionRepository;
+import com.algotutor.securebanking.repository.TransactionRollupRepository;
+import com.algotutor.securebanking.service.AccountLockService;
+import com.algotutor.securebanking.service.AccountReadModelService;
 import com.algotutor.securebanking.service.AccountService;
+import com.algotutor.securebanking.service.OutboxService;
+import com.algotutor.securebanking.service.TransactionRollupService;
 import com.algotutor.securebanking.service.TransactionService;
 
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 
@@ -38,12 +65,102 @@ private static final Logger logger = LoggerFactory.getLogger(TransactionServiceI
     @Autowired
     private TransactionRepository transactionRepository;
     
+    @Autowired
+    private AccountRepository accountRepository;
+    
     @Autowired
     private AccountService accountService;
     
+    @Autowired
+    private AccountLockService accountLockService;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private TransactionRollupService transactionRollupService;
+    
+    @Autowired
+    private TransactionRollupRepository transactionRollupRepository;
+    
+    @Autowired
+    private OutboxService outboxService;
+    
+    @Autowired
+    private AccountReadModelService accountReadModelService;
+    
+    @Value("${app.batch-transfer.max-size:1000}")
+    private int maxBatchSize;
+    
+    @Value("${app.transactions.default-page-size:50}")
+    private int defaultPageSize;
+    
+    @Value("${app.transactions.max-page-size:200}")
+    private int maxPageSize;
+    
+    /*
+     * Postings take the account lock(s) first and then run their own database
+     * transaction inside it, so the commit is visible before the next waiter
+     * reads the balance. They therefore never join a caller's transaction.
+     */
+    
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     @Auditable(action = "DEPOSIT", resource = "ACCOUNT")
     public TransactionDto deposit(DepositRequest depositRequest) {
+        return accountLockService.withAccountLock(depositRequest.getAccountNumber(),
+            () -> transactionTemplate.execute(status -> postDeposit(depositRequest)));
+    }
+    
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @Auditable(action = "WITHDRAWAL", resource = "ACCOUNT")
+    public TransactionDto withdraw(WithdrawalRequest withdrawalRequest) {
+        return accountLockService.withAccountLock(withdrawalRequest.getAccountNumber(),
+            () -> transactionTemplate.execute(status -> postWithdrawal(withdrawalRequest)));
+    }
+    
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @Auditable(action = "TRANSFER", resource = "ACCOUNT")
+    public List<TransactionDto> transfer(TransferRequest transferRequest) {
+        return accountLockService.withAccountLocks(
+            transferRequest.getFromAccountNumber(), transferRequest.getToAccountNumber(),
+            () -> transactionTemplate.execute(status -> postTransfer(transferRequest)));
+    }
+    
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @Auditable(action = "BATCH_TRANSFER", resource = "ACCOUNT")
+    public BatchTransferResponse transferBatch(List<TransferRequest> transferRequests) {
+        if (transferRequests.size() > maxBatchSize) {
+            throw new BadRequestException("Batch size exceeds the maximum of " + maxBatchSize + " transfers");
+        }
+        
+        Set<String> accountNumbers = new HashSet<>();
+        for (TransferRequest transferRequest : transferRequests) {
+            accountNumbers.add(transferRequest.getFromAccountNumber());
+            accountNumbers.add(transferRequest.getToAccountNumber());
+        }
+        
+        try {
+            // Every account in the batch is locked once, in stripe order
+            return accountLockService.withAccountLocks(accountNumbers,
+                () -> transactionTemplate.execute(status -> postTransferBatch(transferRequests, accountNumbers)));
+        } catch (OptimisticLockingFailureException e) {
+            // Another node changed one of the balances between our read and the flush
+            throw new AccountLockException("Accounts were modified concurrently, please retry the batch", e);
+        }
+    }
+    
+    /*
+     * Balances are changed with guarded UPDATE statements instead of loading
+     * and dirty-checking the Account entity: a withdrawal is one conditional
+     * UPDATE plus the Transaction INSERT, and the sufficient-funds check is
+     * part of the UPDATE itself so it cannot race with another node.
+     */
+    
+    private TransactionDto postDeposit(DepositRequest depositRequest) {
         logger.info("Processing deposit of {} to account {}", 
             depositRequest.getAmount(), depositRequest.getAccountNumber());
         
@@ -52,31 +169,30 @@ private static final Logger logger = LoggerFactory.getLogger(TransactionServiceI
             throw new BadRequestException("Deposit amount must be greater than zero");
         }
         
-        // Find account
-        Account account = accountService.findAccountEntityByNumber(depositRequest.getAccountNumber());
+        // Resolve account id (cached) and update balance
+        Long accountId = accountService.findActiveAccountId(depositRequest.getAccountNumber());
+        BigDecimal balanceAfter = credit(accountId, depositRequest.getAccountNumber(), depositRequest.getAmount());
         
         // Create and save transaction
         Transaction transaction = new Transaction(
             depositRequest.getAmount(),
             TransactionType.DEPOSIT,
             depositRequest.getDescription() != null ? depositRequest.getDescription() : "Deposit",
-            account
+            accountRepository.getReferenceById(accountId)
         );
-        
-        // Update account balance
-        account.credit(depositRequest.getAmount());
-        
-        // Save transaction
+        transaction.setBalanceAfter(balanceAfter);
         transaction = transactionRepository.save(transaction);
+        transactionRollupService.record(List.of(transaction));
+        
+        TransactionDto transactionDto = convertToDto(transaction, depositRequest.getAccountNumber(), null);
+        outboxService.enqueue(List.of(transactionDto));
         
         logger.info("Deposit completed successfully. Transaction ID: {}", transaction.getId());
         
-        return convertToDto(transaction);
+        return transactionDto;
     }
     
-    @Override
-    @Auditable(action = "WITHDRAWAL", resource = "ACCOUNT")
-    public TransactionDto withdraw(WithdrawalRequest withdrawalRequest) {
+    private TransactionDto postWithdrawal(WithdrawalRequest withdrawalRequest) {
         logger.info("Processing withdrawal of {} from account {}", 
             withdrawalRequest.getAmount(), withdrawalRequest.getAccountNumber());
         
@@ -85,36 +201,30 @@ private static final Logger logger = LoggerFactory.getLogger(TransactionServiceI
             throw new BadRequestException("Withdrawal amount must be greater than zero");
         }
         
-        // Find account
-        Account account = accountService.findAccountEntityByNumber(withdrawalRequest.getAccountNumber());
-        
-        // Check sufficient balance
-        if (account.getBalance().compareTo(withdrawalRequest.getAmount()) < 0) {
-            throw new InsufficientFundsException("Insufficient balance for withdrawal. Available: " + account.getBalance());
-        }
+        // Resolve account id (cached) and debit only if balance is sufficient
+        Long accountId = accountService.findActiveAccountId(withdrawalRequest.getAccountNumber());
+        BigDecimal balanceAfter = debit(accountId, withdrawalRequest.getAccountNumber(), withdrawalRequest.getAmount(), "withdrawal");
         
         // Create and save transaction
         Transaction transaction = new Transaction(
             withdrawalRequest.getAmount(),
             TransactionType.WITHDRAWAL,
             withdrawalRequest.getDescription() != null ? withdrawalRequest.getDescription() : "Withdrawal",
-            account
+            accountRepository.getReferenceById(accountId)
         );
-        
-        // Update account balance
-        account.debit(withdrawalRequest.getAmount());
-        
-        // Save transaction
+        transaction.setBalanceAfter(balanceAfter);
         transaction = transactionRepository.save(transaction);
+        transactionRollupService.record(List.of(transaction));
+        
+        TransactionDto transactionDto = convertToDto(transaction, withdrawalRequest.getAccountNumber(), null);
+        outboxService.enqueue(List.of(transactionDto));
         
         logger.info("Withdrawal completed successfully. Transaction ID: {}", transaction.getId());
         
-        return convertToDto(transaction);
+        return transactionDto;
     }
     
-    @Override
-    @Auditable(action = "TRANSFER", resource = "ACCOUNT")
-    public List<TransactionDto> transfer(TransferRequest transferRequest) {
+    private List<TransactionDto> postTransfer(TransferRequest transferRequest) {
         logger.info("Processing transfer of {} from account {} to account {}", 
             transferRequest.getAmount(), transferRequest.getFromAccountNumber(), transferRequest.getToAccountNumber());
         
@@ -128,14 +238,16 @@ private static final Logger logger = LoggerFactory.getLogger(TransactionServiceI
             throw new BadRequestException("Cannot transfer to the same account");
         }
         
-        // Find accounts
-        Account fromAccount = accountService.findAccountEntityByNumber(transferRequest.getFromAccountNumber());
-        Account toAccount = accountService.findAccountEntityByNumber(transferRequest.getToAccountNumber());
+        // Resolve account ids (cached)
+        Long fromAccountId = accountService.findActiveAccountId(transferRequest.getFromAccountNumber());
+        Long toAccountId = accountService.findActiveAccountId(transferRequest.getToAccountNumber());
         
-        // Check sufficient balance
-        if (fromAccount.getBalance().compareTo(transferRequest.getAmount()) < 0) {
-            throw new InsufficientFundsException("Insufficient balance for transfer. Available: " + fromAccount.getBalance());
-        }
+        // Update balances; a failed credit rolls back the debit with the transaction
+        BigDecimal fromBalanceAfter = debit(fromAccountId, transferRequest.getFromAccountNumber(), transferRequest.getAmount(), "transfer");
+        BigDecimal toBalanceAfter = credit(toAccountId, transferRequest.getToAccountNumber(), transferRequest.getAmount());
+        
+        Account fromAccount = accountRepository.getReferenceById(fromAccountId);
+        Account toAccount = accountRepository.getReferenceById(toAccountId);
         
         // Create transfer out transaction
         Transaction transferOut = new Transaction(
@@ -146,6 +258,7 @@ private static final Logger logger = LoggerFactory.getLogger(TransactionServiceI
             fromAccount
         );
         transferOut.setTargetAccount(toAccount);
+        transferOut.setBalanceAfter(fromBalanceAfter);
         
         // Create transfer in transaction
         Transaction transferIn = new Transaction(
@@ -156,42 +269,236 @@ private static final Logger logger = LoggerFactory.getLogger(TransactionServiceI
             toAccount
         );
         transferIn.setTargetAccount(fromAccount);
-        
-        // Update balances
-        fromAccount.debit(transferRequest.getAmount());
-        toAccount.credit(transferRequest.getAmount());
+        transferIn.setBalanceAfter(toBalanceAfter);
         
         // Save transactions
         transferOut = transactionRepository.save(transferOut);
         transferIn = transactionRepository.save(transferIn);
+        transactionRollupService.record(List.of(transferOut, transferIn));
+        
+        List<TransactionDto> transactionDtos = Arrays.asList(
+            convertToDto(transferOut, transferRequest.getFromAccountNumber(), transferRequest.getToAccountNumber()),
+            convertToDto(transferIn, transferRequest.getToAccountNumber(), transferRequest.getFromAccountNumber()));
+        outboxService.enqueue(transactionDtos);
         
         logger.info("Transfer completed successfully. Transfer Out ID: {}, Transfer In ID: {}", 
             transferOut.getId(), transferIn.getId());
         
-        return Arrays.asList(convertToDto(transferOut), convertToDto(transferIn));
+        return transactionDtos;
+    }
+    
+    /**
+     * Applies a batch of transfers against one snapshot of the involved accounts.
+     * Failed items are reported individually; successful ones are flushed together
+     * at commit as batched Transaction inserts and versioned Account updates.
+     */
+    private BatchTransferResponse postTransferBatch(List<TransferRequest> transferRequests, Set<String> accountNumbers) {
+        logger.info("Processing batch of {} transfers across {} accounts", transferRequests.size(), accountNumbers.size());
+        
+        Map<String, Account> accounts = accountRepository.findByAccountNumberInAndActiveTrue(accountNumbers).stream()
+            .collect(Collectors.toMap(Account::getAccountNumber, Function.identity()));
+        
+        List<BatchItem> items = new ArrayList<>(transferRequests.size());
+        List<Transaction> postings = new ArrayList<>(transferRequests.size() * 2);
+        
+        for (int i = 0; i < transferRequests.size(); i++) {
+            TransferRequest transferRequest = transferRequests.get(i);
+            Account fromAccount = accounts.get(transferRequest.getFromAccountNumber());
+            Account toAccount = accounts.get(transferRequest.getToAccountNumber());
+            
+            String error = null;
+            if (transferRequest.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+                error = "Transfer amount must be greater than zero";
+            } else if (transferRequest.getFromAccountNumber().equals(transferRequest.getToAccountNumber())) {
+                error = "Cannot transfer to the same account";
+            } else if (fromAccount == null) {
+                error = "Account not found: " + transferRequest.getFromAccountNumber();
+            } else if (toAccount == null) {
+                error = "Account not found: " + transferRequest.getToAccountNumber();
+            } else if (fromAccount.getBalance().compareTo(transferRequest.getAmount()) < 0) {
+                error = "Insufficient balance for transfer. Available: " + fromAccount.getBalance();
+            }
+            
+            if (error != null) {
+                items.add(new BatchItem(i, transferRequest, error, null, null));
+                continue;
+            }
+            
+            fromAccount.debit(transferRequest.getAmount());
+            toAccount.credit(transferRequest.getAmount());
+            
+            Transaction transferOut = new Transaction(
+                transferRequest.getAmount(),
+                TransactionType.TRANSFER_OUT,
+                transferRequest.getDescription() != null ? 
+                    transferRequest.getDescription() : "Transfer to " + transferRequest.getToAccountNumber(),
+                fromAccount
+            );
+            transferOut.setTargetAccount(toAccount);
+            transferOut.setBalanceAfter(fromAccount.getBalance());
+            
+            Transaction transferIn = new Transaction(
+                transferRequest.getAmount(),
+                TransactionType.TRANSFER_IN,
+                transferRequest.getDescription() != null ? 
+                    transferRequest.getDescription() : "Transfer from " + transferRequest.getFromAccountNumber(),
+                toAccount
+            );
+            transferIn.setTargetAccount(fromAccount);
+            transferIn.setBalanceAfter(toAccount.getBalance());
+            
+            postings.add(transferOut);
+            postings.add(transferIn);
+            items.add(new BatchItem(i, transferRequest, null, transferOut, transferIn));
+        }
+        
+        transactionRepository.saveAll(postings);
+        // Write the account updates first so their row locks guard the rollup buckets
+        transactionRepository.flush();
+        transactionRollupService.record(postings);
+        for (Transaction posting : postings) {
+            // The flush has bumped each account's version
+            Account account = posting.getAccount();
+            accountReadModelService.balanceChanged(account.getAccountNumber(), account.getBalance(), account.getVersion());
+        }
+        
+        BatchTransferResponse response = new BatchTransferResponse();
+        List<TransactionDto> events = new ArrayList<>(postings.size());
+        for (BatchItem item : items) {
+            if (item.error() != null) {
+                response.addResult(BatchTransferResponse.ItemResult.failure(item.index(), item.error()));
+                continue;
+            }
+            String from = item.request().getFromAccountNumber();
+            String to = item.request().getToAccountNumber();
+            List<TransactionDto> legs = Arrays.asList(convertToDto(item.transferOut(), from, to),
+                convertToDto(item.transferIn(), to, from));
+            events.addAll(legs);
+            response.addResult(BatchTransferResponse.ItemResult.success(item.index(), legs));
+        }
+        // Queued after the flush, like the rollups, so the event ids follow the account row locks
+        outboxService.enqueue(events);
+        
+        logger.info("Batch transfer completed. Succeeded: {}, Failed: {}", response.getSucceeded(), response.getFailed());
+        
+        return response;
+    }
+    
+    private record BatchItem(int index, TransferRequest request, String error,
+        Transaction transferOut, Transaction transferIn) {}
+    
+    /**
+     * Guarded credit/debit returning the balance right after the update, read
+     * back by the UPDATE statement itself. The balance and its row version are
+     * also handed to the account read model, which applies them after commit.
+     */
+    private BigDecimal credit(Long accountId, String accountNumber, BigDecimal amount) {
+        BalanceVersion posted = accountRepository.creditActive(accountId, amount)
+            .orElseThrow(() -> new ResourceNotFoundException("Account not found: " + accountNumber));
+        return published(accountNumber, posted);
+    }
+    
+    private BigDecimal debit(Long accountId, String accountNumber, BigDecimal amount, String operation) {
+        Optional<BalanceVersion> posted = accountRepository.debitActiveIfSufficient(accountId, amount);
+        if (posted.isEmpty()) {
+            // Only the failure path pays for a second look to tell the two cases apart
+            BigDecimal available = accountRepository.findActiveBalanceById(accountId)
+                .orElseThrow(() -> new ResourceNotFoundException("Account not found: " + accountNumber));
+            throw new InsufficientFundsException("Insufficient balance for " + operation + ". Available: " + available);
+        }
+        return published(accountNumber, posted.get());
+    }
+    
+    private BigDecimal published(String accountNumber, BalanceVersion posted) {
+        accountReadModelService.balanceChanged(accountNumber, posted.getBalance(), posted.getVersion());
+        return posted.getBalance();
     }
     
     @Override
+    @Deprecated
     @Transactional(readOnly = true)
     public List<TransactionDto> getAccountTransactions(String accountNumber) {
-        Account account = accountService.findAccountEntityByNumber(accountNumber);
-        List<Transaction> transactions = transactionRepository.findByAccountOrderByCreatedAtDesc(account);
-        
-        return transactions.stream()
-            .map(this::convertToDto)
-            .collect(Collectors.toList());
+        return getAccountTransactionsPage(accountNumber, maxPageSize, null).getItems();
     }
     
     @Override
+    @Deprecated
     @Transactional(readOnly = true)
     public List<TransactionDto> getUserTransactions(String username) {
-        // Get all user accounts first
-        List<AccountDto> userAccounts = accountService.getUserAccounts(username);
+        return getUserTransactionsPage(username, maxPageSize, null).getItems();
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public TransactionPageDto getAccountTransactionsPage(String accountNumber, Integer size, String cursor) {
+        Long accountId = accountService.findActiveAccountId(accountNumber);
+        return findPage(size, cursor, (position, limit) -> position == null
+            ? transactionRepository.findFirstPageByAccountId(accountId, limit)
+            : transactionRepository.findPageByAccountIdBefore(accountId, position.createdAt(), position.id(), limit));
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public TransactionPageDto getUserTransactionsPage(String username, Integer size, String cursor) {
+        return findPage(size, cursor, (position, limit) -> position == null
+            ? transactionRepository.findFirstPageByUsername(username, limit)
+            : transactionRepository.findPageByUsernameBefore(username, position.createdAt(), position.id(), limit));
+    }
+    
+    /**
+     * Seek-based page of transactions, newest first. The cursor is the (createdAt, id)
+     * of the last row already returned, so every page is an index range scan of the
+     * same cost no matter how deep into the history it is. The query receives a null
+     * position for the first page.
+     */
+    private TransactionPageDto findPage(Integer size, String cursor,
+            BiFunction<PageCursor, Pageable, List<TransactionDto>> query) {
+        int pageSize = size == null ? defaultPageSize : Math.min(Math.max(size, 1), maxPageSize);
+        // Fetch one extra row to learn whether another page exists
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        PageCursor position = cursor == null || cursor.isBlank() ? null : PageCursor.decode(cursor);
+        
+        List<TransactionDto> items = query.apply(position, limit);
+        
+        String nextCursor = null;
+        if (items.size() > pageSize) {
+            items = items.subList(0, pageSize);
+            TransactionDto last = items.get(pageSize - 1);
+            nextCursor = new PageCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new TransactionPageDto(items, nextCursor);
+    }
+    
+    /**
+     * Opaque keyset cursor: Base64url of "createdAt|id"
+     */
+    private record PageCursor(LocalDateTime createdAt, Long id) {
         
-        return userAccounts.stream()
-            .flatMap(account -> getAccountTransactions(account.getAccountNumber()).stream())
-            .sorted((t1, t2) -> t2.getCreatedAt().compareTo(t1.getCreatedAt())) // Sort by date descending
-            .collect(Collectors.toList());
+        String encode() {
+            String raw = createdAt + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+        
+        static PageCursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.lastIndexOf('|');
+                return new PageCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.valueOf(raw.substring(separator + 1)));
+            } catch (RuntimeException e) {
+                throw new BadRequestException("Invalid page cursor");
+            }
+        }
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public List<TransactionTotalDto> getTotalsByType(String accountNumber, LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new BadRequestException("'from' must not be after 'to'");
+        }
+        Long accountId = accountService.findActiveAccountId(accountNumber);
+        return transactionRollupRepository.sumByAccountIdBetween(accountId, from, to);
     }
     
     @Override
@@ -203,6 +510,22 @@ private static final Logger logger = LoggerFactory.getLogger(TransactionServiceI
         return convertToDto(transaction);
     }
     
+    /**
+     * Convert a freshly posted Transaction to DTO without touching its lazy account references
+     */
+    private TransactionDto convertToDto(Transaction transaction, String accountNumber, String targetAccountNumber) {
+        return new TransactionDto(
+            transaction.getId(),
+            transaction.getAmount(),
+            transaction.getType(),
+            transaction.getDescription(),
+            transaction.getCreatedAt(),
+            accountNumber,
+            targetAccountNumber,
+            transaction.getBalanceAfter()
+        );
+    }
+    
     /**
      * Convert Transaction entity to DTO
      */
@@ -214,7 +537,8 @@ private static final Logger logger = LoggerFactory.getLogger(TransactionServiceI
             transaction.getDescription(),
             transaction.getCreatedAt(),
             transaction.getAccount().getAccountNumber(),
-            transaction.getTargetAccount() != null ? transaction.getTargetAccount().getAccountNumber() : null
+            transaction.getTargetAccount() != null ? transaction.getTargetAccount().getAccountNumber() : null,
+            transaction.getBalanceAfter()
         );
     }
 }
@@ -0,0 +1,19 @@
+-- Migration for databases created before the account event outbox. Relay
+-- partition rows are created by the application on first use.
+
+CREATE SEQUENCE IF NOT EXISTS outbox_events_seq INCREMENT BY 1;
+
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id BIGINT NOT NULL PRIMARY KEY,
+    partition_key INTEGER NOT NULL,
+    aggregate_id VARCHAR(255) NOT NULL,
+    event_type VARCHAR(255) NOT NULL,
+    payload VARCHAR(4000) NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_outbox_events_partition_id ON outbox_events (partition_key, id);
+
+CREATE TABLE IF NOT EXISTS outbox_partitions (
+    id INTEGER NOT NULL PRIMARY KEY
+);
@@ -0,0 +1,19 @@
+-- Migration for databases created before end-of-day balance checkpoints.
+-- The checkpoint job fills in every completed day on its first run; job_locks
+-- holds the row a node claims while it runs the job.
+
+CREATE SEQUENCE IF NOT EXISTS balance_checkpoints_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS balance_checkpoints (
+    id BIGINT NOT NULL PRIMARY KEY,
+    account_id BIGINT NOT NULL,
+    as_of TIMESTAMP(6) NOT NULL,
+    balance NUMERIC(15,2) NOT NULL,
+    created_at TIMESTAMP(6),
+    CONSTRAINT uk_balance_checkpoints_account_as_of UNIQUE (account_id, as_of),
+    CONSTRAINT fk_balance_checkpoints_account FOREIGN KEY (account_id) REFERENCES accounts
+);
+
+CREATE TABLE IF NOT EXISTS job_locks (
+    name VARCHAR(255) NOT NULL PRIMARY KEY
+);
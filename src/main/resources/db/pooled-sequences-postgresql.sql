@@ -0,0 +1,22 @@
+-- Migration for databases created while users/accounts/transactions used IDENTITY ids.
+-- Entities now draw ids from pooled sequences (allocationSize = 50), which lets
+-- Hibernate batch INSERTs. Run once, with the application stopped, before deploying.
+--
+-- The pooled optimizer treats each sequence value as the upper bound of a block
+-- of 50 ids, so every sequence is positioned a full block above the current max id.
+
+CREATE SEQUENCE IF NOT EXISTS users_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS accounts_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS transactions_seq INCREMENT BY 50;
+
+SELECT setval('users_seq', COALESCE((SELECT MAX(id) FROM users), 0) + 50);
+SELECT setval('accounts_seq', COALESCE((SELECT MAX(id) FROM accounts), 0) + 50);
+SELECT setval('transactions_seq', COALESCE((SELECT MAX(id) FROM transactions), 0) + 50);
+
+-- Ids are now always supplied by the application
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE accounts ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE transactions ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+-- Optimistic-lock column added to accounts for batched, versioned balance updates
+ALTER TABLE accounts ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,5 @@
+-- Migration for databases created before transactions recorded the balance
+-- after each posting. Existing rows stay NULL until the backfill job
+-- (app.balance-backfill.*) fills them in after startup.
+
+ALTER TABLE transactions ADD COLUMN IF NOT EXISTS balance_after NUMERIC(15,2);
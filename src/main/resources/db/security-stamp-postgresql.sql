@@ -0,0 +1,5 @@
+-- Migration for databases created before users carried a security stamp.
+-- The stamp is copied into every access token and bumped on logout and bulk
+-- session revocation. Run once, with the application stopped, before deploying.
+
+ALTER TABLE users ADD COLUMN IF NOT EXISTS security_stamp BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,7 @@
+-- Indexes for keyset-paginated transaction history (account, created_at, id) and
+-- for the nightly balance checkpoint job (created_at). Built without blocking
+-- postings, so run it outside a transaction block (plain psql does).
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_transactions_account_created_id
+    ON transactions (account_id, created_at, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_transactions_created_at ON transactions (created_at);
@@ -0,0 +1,16 @@
+-- Migration for databases created before daily transaction rollups. The new
+-- table starts empty: run the application once with --rebuild-rollups, with
+-- the other nodes stopped, to fill it from the transactions table.
+
+CREATE SEQUENCE IF NOT EXISTS transaction_rollups_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS transaction_rollups (
+    id BIGINT NOT NULL PRIMARY KEY,
+    account_id BIGINT NOT NULL,
+    type VARCHAR(255) NOT NULL CHECK (type IN ('DEPOSIT', 'WITHDRAWAL', 'TRANSFER_IN', 'TRANSFER_OUT')),
+    bucket_date DATE NOT NULL,
+    transaction_count BIGINT NOT NULL,
+    total NUMERIC(19,2),
+    CONSTRAINT uk_transaction_rollups_account_type_day UNIQUE (account_id, type, bucket_date),
+    CONSTRAINT fk_transaction_rollups_account FOREIGN KEY (account_id) REFERENCES accounts
+);
@@ -0,0 +1,69 @@
+package com.algotutor.securebanking.audit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+class AuditRingBufferTest {
+
+	@Test
+	void rejectsOffersWhenFullAndPreservesOrder() {
+		AuditRingBuffer buffer = new AuditRingBuffer(3);
+		assertEquals(4, buffer.capacity());
+
+		for (int i = 0; i < 4; i++) {
+			assertTrue(buffer.offer(event(i)));
+		}
+		assertFalse(buffer.offer(event(4)));
+
+		List<AuditEvent> drained = new ArrayList<>();
+		assertEquals(4, buffer.drain(drained::add, 10));
+		assertEquals(List.of(0L, 1L, 2L, 3L), drained.stream().map(AuditEvent::timestamp).toList());
+		assertTrue(buffer.offer(event(5)));
+	}
+
+	@Test
+	void concurrentProducersDeliverEveryEventExactlyOnce() throws Exception {
+		AuditRingBuffer buffer = new AuditRingBuffer(64);
+		int producers = 4;
+		int perProducer = 20000;
+		ExecutorService executor = Executors.newFixedThreadPool(producers);
+
+		List<Future<?>> futures = new ArrayList<>();
+		for (int p = 0; p < producers; p++) {
+			long base = (long) p * perProducer;
+			futures.add(executor.submit(() -> {
+				for (int i = 0; i < perProducer; i++) {
+					while (!buffer.offer(event(base + i))) {
+						Thread.onSpinWait();
+					}
+				}
+			}));
+		}
+
+		Set<Long> seen = new HashSet<>();
+		while (seen.size() < producers * perProducer) {
+			buffer.drain(event -> assertTrue(seen.add(event.timestamp())), 32);
+		}
+		for (Future<?> future : futures) {
+			future.get();
+		}
+		executor.shutdown();
+
+		assertEquals(0, buffer.size());
+	}
+
+	private AuditEvent event(long sequence) {
+		return new AuditEvent(sequence, "user", "DEPOSIT", "ACCOUNT", "deposit", "SUCCESS", null);
+	}
+}
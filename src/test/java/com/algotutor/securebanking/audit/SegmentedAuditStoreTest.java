@@ -0,0 +1,141 @@
+package com.algotutor.securebanking.audit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class SegmentedAuditStoreTest {
+
+	private static final long HOUR = Duration.ofHours(1).toMillis();
+	private static final long DAY_START = 1_700_006_400_000L; // midnight UTC
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void queriesByUserAndTimeAcrossSegmentsNewestFirst() throws Exception {
+		SegmentedAuditStore store = open();
+		List<AuditEvent> events = new ArrayList<>();
+		for (int i = 0; i < 300; i++) {
+			// Three hours of events, alternating users
+			events.add(event(DAY_START + i * 36_000L, i % 2 == 0 ? "alice" : "bob", i % 3 == 0 ? "DEPOSIT" : "TRANSFER"));
+		}
+		store.write(events);
+
+		List<AuditEvent> alice = store.query("alice", null, Long.MIN_VALUE, Long.MAX_VALUE, 1000);
+		assertEquals(150, alice.size());
+		assertEquals(events.get(298), alice.get(0));
+
+		long from = DAY_START + HOUR / 2;
+		long to = DAY_START + 2 * HOUR;
+		List<AuditEvent> window = store.query(null, "DEPOSIT", from, to, 1000);
+		long expected = events.stream()
+				.filter(e -> e.timestamp() >= from && e.timestamp() <= to && e.action().equals("DEPOSIT"))
+				.count();
+		assertEquals(expected, window.size());
+		assertTrue(window.get(0).timestamp() >= window.get(window.size() - 1).timestamp());
+
+		assertEquals(5, store.query("bob", "TRANSFER", Long.MIN_VALUE, Long.MAX_VALUE, 5).size());
+		store.close();
+	}
+
+	@Test
+	void reopensDroppingTornTailThenCompactsAndExpires() throws Exception {
+		SegmentedAuditStore store = open();
+		store.write(List.of(event(DAY_START, "alice", "DEPOSIT"), event(DAY_START + HOUR, "alice", "WITHDRAWAL"),
+				event(DAY_START + 2 * HOUR, "bob", "DEPOSIT")));
+		store.close();
+
+		// Simulate a crash in the middle of appending to the newest segment
+		Path newest;
+		try (Stream<Path> files = Files.list(directory)) {
+			newest = files.sorted().reduce((first, second) -> second).orElseThrow();
+		}
+		Files.write(newest, new byte[] { 0, 0, 0, 99, 1, 2 }, StandardOpenOption.APPEND);
+
+		store = open();
+		assertEquals(3, store.query(null, null, Long.MIN_VALUE, Long.MAX_VALUE, 100).size());
+
+		// A later write keeps the earlier day's segments sealed and eligible for maintenance
+		store.write(List.of(event(DAY_START + 30 * HOUR, "carol", "DEPOSIT")));
+		assertEquals(2, store.compact(DAY_START + 24 * HOUR));
+		assertEquals(2, store.query("alice", null, Long.MIN_VALUE, Long.MAX_VALUE, 100).size());
+		store.close();
+
+		store = open();
+		assertEquals(4, store.query(null, null, Long.MIN_VALUE, Long.MAX_VALUE, 100).size());
+		assertEquals(1, store.applyRetention(DAY_START + 24 * HOUR));
+		assertEquals(List.of("carol"),
+				store.query(null, null, Long.MIN_VALUE, Long.MAX_VALUE, 100).stream().map(AuditEvent::username).toList());
+		store.close();
+	}
+
+	@Test
+	void compactionSplitsADayLargerThanTheSegmentCap() throws Exception {
+		SegmentedAuditStore store = open();
+		List<AuditEvent> events = new ArrayList<>();
+		for (int i = 0; i < 120; i++) {
+			// Twelve hourly segments of ten events each
+			events.add(event(DAY_START + (i / 10) * HOUR + i, i % 2 == 0 ? "alice" : "bob", "DEPOSIT"));
+		}
+		store.write(events);
+		store.write(List.of(event(DAY_START + 30 * HOUR, "carol", "DEPOSIT")));
+		store.close();
+
+		long largest = 0;
+		long total = 0;
+		for (Path file : segmentFiles()) {
+			largest = Math.max(largest, Files.size(file));
+			total += Files.size(file);
+		}
+		long cap = 3 * largest;
+		assertTrue(total > cap);
+
+		store = open(cap);
+		assertTrue(store.compact(DAY_START + 24 * HOUR) > 0);
+		store.close();
+
+		List<Path> files = segmentFiles();
+		assertTrue(files.size() > 2);
+		for (Path file : files) {
+			assertTrue(Files.size(file) <= cap);
+		}
+
+		store = open(cap);
+		assertEquals(121, store.query(null, null, Long.MIN_VALUE, Long.MAX_VALUE, 1000).size());
+		assertEquals(60, store.query("alice", null, Long.MIN_VALUE, Long.MAX_VALUE, 1000).size());
+		store.close();
+	}
+
+	private List<Path> segmentFiles() throws Exception {
+		try (Stream<Path> files = Files.list(directory)) {
+			return files.filter(file -> file.getFileName().toString().endsWith(".seg")).toList();
+		}
+	}
+
+	private SegmentedAuditStore open() throws Exception {
+		return open(1 << 20);
+	}
+
+	private SegmentedAuditStore open(long maxSegmentBytes) throws Exception {
+		return new SegmentedAuditStore(objectMapper, directory, Duration.ofHours(1), maxSegmentBytes, false);
+	}
+
+	private AuditEvent event(long timestamp, String username, String action) {
+		return new AuditEvent(timestamp, username, action, "ACCOUNT", action.toLowerCase(), "SUCCESS", null);
+	}
+}
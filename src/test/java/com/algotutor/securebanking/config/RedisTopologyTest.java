@@ -0,0 +1,164 @@
+package com.algotutor.securebanking.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.algotutor.securebanking.entity.RefreshToken;
+import com.algotutor.securebanking.entity.User;
+import com.algotutor.securebanking.metrics.BankingMetrics;
+import com.algotutor.securebanking.repository.UserRepository;
+import com.algotutor.securebanking.service.TokenBlacklistService;
+import com.algotutor.securebanking.service.impl.RefreshTokenServiceImpl;
+
+import io.lettuce.core.cluster.SlotHash;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Key layout checks, plus a refresh token round trip against the Redis
+ * deployment described by the environment: set REDIS_MODE (standalone,
+ * sentinel or cluster) and REDIS_HOST/REDIS_PORT, REDIS_SENTINEL_MASTER and
+ * REDIS_SENTINEL_NODES, or REDIS_CLUSTER_NODES as for the application (see
+ * README). Without REDIS_MODE only the key layout checks run.
+ */
+class RedisTopologyTest {
+
+	private final MockHttpServletRequest request = new MockHttpServletRequest();
+
+	@Test
+	void userTagMatchesScriptHash() {
+		// string.sub(redis.sha1hex('alice'), 1, 4)
+		assertEquals("522b", RedisKeys.userTag("alice"));
+		assertEquals("user_tokens:{522b}alice", RedisKeys.userKey("user_tokens:", "alice"));
+	}
+
+	@Test
+	void userKeysShareOneSlot() {
+		RefreshTokenServiceImpl service = refreshTokenService(null);
+		for (String username : List.of("alice", "bob", "customer-42", "émile")) {
+			int slot = SlotHash.getSlot(RedisKeys.userKey("user_tokens:", username));
+			RefreshToken token = service.newRefreshToken(username, 1L, request);
+			assertEquals(slot, SlotHash.getSlot(RedisKeys.tokenKey("refresh_token:", token.getToken())));
+			assertEquals(slot, SlotHash.getSlot(RedisKeys.tagged("rate_limit:", RedisKeys.userTag(username),
+					"user:" + username)));
+			assertEquals(slot, SlotHash.getSlot(RedisKeys.userKey("account:user:", username)));
+			assertEquals(slot, SlotHash.getSlot(RedisKeys.userKey("account:user-gen:", username)));
+		}
+	}
+
+	@Test
+	@EnabledIfEnvironmentVariable(named = "REDIS_MODE", matches = "standalone|sentinel|cluster")
+	void refreshTokenRoundTrip() {
+		LettuceConnectionFactory connectionFactory = (LettuceConnectionFactory) redisConfig().redisConnectionFactory();
+		connectionFactory.afterPropertiesSet();
+		connectionFactory.start();
+		try {
+			RefreshTokenServiceImpl service = refreshTokenService(connectionFactory);
+			String username = "topology-" + System.nanoTime();
+
+			request.addHeader("User-Agent", "topology-test/" + username);
+			RefreshToken first = service.createRefreshToken(username, request);
+			RefreshToken second = service.createRefreshToken(username, request);
+			assertEquals(request.getHeader("User-Agent"),
+					service.findByToken(first.getToken()).orElseThrow().getUserAgent());
+
+			// User agent keys expire a day after the longest token lifetime
+			@SuppressWarnings("unchecked")
+			RedisTemplate<String, String> stringRedisTemplate = (RedisTemplate<String, String>) ReflectionTestUtils
+					.getField(service, "stringRedisTemplate");
+			long userAgentTtl = stringRedisTemplate.getExpire("user_agent:"
+					+ Long.toHexString(RefreshTokenRedisSerializer.userAgentId(request.getHeader("User-Agent"))));
+			assertTrue(userAgentTtl > 600 && userAgentTtl <= 600 + Duration.ofDays(1).toSeconds());
+
+			RefreshToken rotated = service.rotateRefreshToken(first.getToken(), request).orElseThrow();
+			assertEquals(username, rotated.getUsername());
+			// The session keeps its original issue time
+			assertEquals(first.getCreatedAt().truncatedTo(ChronoUnit.MILLIS), rotated.getCreatedAt());
+			assertFalse(service.findByToken(first.getToken()).isPresent());
+			assertTrue(service.rotateRefreshToken(first.getToken(), request).isEmpty());
+			assertEquals(2, service.getActiveTokensByUsername(username).size());
+
+			service.deleteByToken(second.getToken());
+			assertEquals(List.of(rotated.getToken()),
+					service.getActiveTokensByUsername(username).stream().map(RefreshToken::getToken).toList());
+
+			service.deleteExpiredTokens();
+			// Rotated after the cutoff, but issued before it
+			Map<String, List<String>> revoked = service.revokeTokensIssuedBefore(List.of(username, "nobody"),
+					first.getCreatedAt().plusNanos(1_000_000));
+			assertEquals(Map.of(username, List.of(rotated.getToken())), revoked);
+			assertTrue(service.getActiveTokensByUsername(username).isEmpty());
+		} finally {
+			connectionFactory.destroy();
+		}
+	}
+
+	private RedisConfig redisConfig() {
+		RedisConfig config = new RedisConfig();
+		ReflectionTestUtils.setField(config, "mode", System.getenv("REDIS_MODE"));
+		ReflectionTestUtils.setField(config, "redisHost", env("REDIS_HOST", "localhost"));
+		ReflectionTestUtils.setField(config, "redisPort", Integer.parseInt(env("REDIS_PORT", "6379")));
+		ReflectionTestUtils.setField(config, "redisPassword", env("REDIS_PASSWORD", ""));
+		ReflectionTestUtils.setField(config, "timeout", Duration.ofSeconds(2));
+		ReflectionTestUtils.setField(config, "sentinelMaster", env("REDIS_SENTINEL_MASTER", ""));
+		ReflectionTestUtils.setField(config, "sentinelNodes", list(env("REDIS_SENTINEL_NODES", "")));
+		ReflectionTestUtils.setField(config, "sentinelPassword", "");
+		ReflectionTestUtils.setField(config, "clusterNodes", list(env("REDIS_CLUSTER_NODES", "")));
+		ReflectionTestUtils.setField(config, "clusterMaxRedirects", 3);
+		ReflectionTestUtils.setField(config, "clusterTopologyRefresh", Duration.ofSeconds(30));
+		return config;
+	}
+
+	private RefreshTokenServiceImpl refreshTokenService(LettuceConnectionFactory connectionFactory) {
+		RefreshTokenServiceImpl service = new RefreshTokenServiceImpl();
+		ReflectionTestUtils.setField(service, "refreshTokenDurationMs", 600_000L);
+		ReflectionTestUtils.setField(service, "maxTokensPerUser", 5);
+		ReflectionTestUtils.setField(service, "sweepTimeBudget", Duration.ofSeconds(2));
+		ReflectionTestUtils.setField(service, "sweepScanCount", 500);
+		if (connectionFactory == null) {
+			return service;
+		}
+
+		RedisConfig config = new RedisConfig();
+		RefreshTokenRedisSerializer serializer = config.refreshTokenRedisSerializer();
+		UserRepository userRepository = mock(UserRepository.class);
+		User user = new User();
+		user.setId(42L);
+		when(userRepository.findByUsername(anyString())).thenReturn(Optional.of(user));
+
+		ReflectionTestUtils.setField(service, "refreshTokenRedisTemplate",
+				config.refreshTokenRedisTemplate(connectionFactory, serializer));
+		ReflectionTestUtils.setField(service, "refreshTokenRedisSerializer", serializer);
+		ReflectionTestUtils.setField(service, "stringRedisTemplate", config.stringRedisTemplate(connectionFactory));
+		ReflectionTestUtils.setField(service, "bankingMetrics", new BankingMetrics(new SimpleMeterRegistry()));
+		ReflectionTestUtils.setField(service, "userRepository", userRepository);
+		ReflectionTestUtils.setField(service, "tokenBlacklistService", mock(TokenBlacklistService.class));
+		return service;
+	}
+
+	private static String env(String name, String defaultValue) {
+		String value = System.getenv(name);
+		return value != null ? value : defaultValue;
+	}
+
+	private static List<String> list(String value) {
+		return value.isEmpty() ? List.of() : Arrays.stream(value.split(",")).map(String::trim).toList();
+	}
+}
@@ -0,0 +1,63 @@
+package com.algotutor.securebanking.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import com.algotutor.securebanking.entity.Account;
+import com.algotutor.securebanking.entity.AccountType;
+import com.algotutor.securebanking.entity.Role;
+import com.algotutor.securebanking.entity.User;
+import com.algotutor.securebanking.repository.AccountBalanceRepository.BalanceVersion;
+
+@DataJpaTest
+class AccountBalanceRepositoryTest {
+
+	@Autowired
+	private AccountRepository accountRepository;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Test
+	void postingsReturnBalanceAndVersionFromTheUpdate() {
+		Account account = account("1000000001", "100.00");
+		long version = account.getVersion();
+
+		BalanceVersion credited = accountRepository.creditActive(account.getId(), new BigDecimal("25.50")).orElseThrow();
+		assertEquals(new BigDecimal("125.50"), credited.getBalance());
+		assertEquals(version + 1, credited.getVersion());
+
+		BalanceVersion debited = accountRepository.debitActiveIfSufficient(account.getId(), new BigDecimal("125.50"))
+				.orElseThrow();
+		assertEquals(0, BigDecimal.ZERO.compareTo(debited.getBalance()));
+		assertEquals(version + 2, debited.getVersion());
+
+		assertTrue(accountRepository.debitActiveIfSufficient(account.getId(), new BigDecimal("0.01")).isEmpty());
+		assertEquals(0, BigDecimal.ZERO.compareTo(accountRepository.findActiveBalanceById(account.getId()).orElseThrow()));
+	}
+
+	@Test
+	void inactiveAccountsAreNotPosted() {
+		Account account = account("1000000002", "100.00");
+		account.setActive(false);
+		entityManager.persistAndFlush(account);
+
+		assertTrue(accountRepository.creditActive(account.getId(), BigDecimal.TEN).isEmpty());
+		assertTrue(accountRepository.debitActiveIfSufficient(account.getId(), BigDecimal.TEN).isEmpty());
+	}
+
+	private Account account(String accountNumber, String balance) {
+		User user = entityManager.persist(new User("user" + accountNumber, accountNumber + "@example.com", "Test",
+				"User", "secret", Role.CUSTOMER));
+		Account account = new Account(accountNumber, AccountType.SAVINGS, user);
+		account.setBalance(new BigDecimal(balance));
+		return entityManager.persistAndFlush(account);
+	}
+}
@@ -0,0 +1,59 @@
+package com.algotutor.securebanking.repository;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.algotutor.securebanking.entity.JobLock;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class JobLockRepositoryTest {
+
+	@Autowired
+	private JobLockRepository jobLockRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Test
+	void heldJobIsSkippedUntilItsHolderCommits() throws Exception {
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+		jobLockRepository.save(new JobLock("test-job"));
+
+		CountDownLatch locked = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		CompletableFuture<Void> holder = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+			assertTrue(jobLockRepository.lockIfAvailable("test-job").isPresent());
+			locked.countDown();
+			try {
+				release.await(60, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}));
+
+		assertTrue(locked.await(10, TimeUnit.SECONDS));
+		// SKIP LOCKED returns nothing; H2 ignores the hint and times out waiting instead
+		try {
+			assertTrue(transactionTemplate.execute(status -> jobLockRepository.lockIfAvailable("test-job")).isEmpty());
+		} catch (PessimisticLockingFailureException e) {
+			// Not handed to a second claimant either way
+		}
+
+		release.countDown();
+		holder.get(10, TimeUnit.SECONDS);
+		assertTrue(transactionTemplate.execute(status -> jobLockRepository.lockIfAvailable("test-job")).isPresent());
+	}
+}
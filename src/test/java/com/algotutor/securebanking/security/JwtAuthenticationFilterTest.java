@@ -0,0 +1,67 @@
+package com.algotutor.securebanking.security;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.algotutor.securebanking.entity.Role;
+import com.algotutor.securebanking.entity.User;
+import com.algotutor.securebanking.service.SecurityStampService;
+import com.algotutor.securebanking.service.TokenBlacklistService;
+import com.algotutor.securebanking.service.impl.UserDetailsServiceImpl;
+
+import io.jsonwebtoken.Jwts;
+
+class JwtAuthenticationFilterTest {
+
+	private final JwtUtils jwtUtils = mock(JwtUtils.class);
+
+	private final UserDetailsServiceImpl userDetailsService = mock(UserDetailsServiceImpl.class);
+
+	@AfterEach
+	void clearContext() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void fullModeRejectsTokenWithRevokedStamp() throws Exception {
+		User user = new User("alice", "alice@example.com", "Alice", "Smith", "secret", Role.CUSTOMER);
+		user.setSecurityStamp(3);
+		when(userDetailsService.loadUserByUsername("alice")).thenReturn(user);
+
+		when(jwtUtils.verifyJwtToken("revoked")).thenReturn(Jwts.claims().subject("alice")
+				.add(JwtUtils.STAMP_CLAIM, 2L).build());
+		filter().doFilter(request("revoked"), new MockHttpServletResponse(), new MockFilterChain());
+		assertNull(SecurityContextHolder.getContext().getAuthentication());
+
+		when(jwtUtils.verifyJwtToken("current")).thenReturn(Jwts.claims().subject("alice")
+				.add(JwtUtils.STAMP_CLAIM, 3L).build());
+		filter().doFilter(request("current"), new MockHttpServletResponse(), new MockFilterChain());
+		assertNotNull(SecurityContextHolder.getContext().getAuthentication());
+	}
+
+	private JwtAuthenticationFilter filter() {
+		JwtAuthenticationFilter filter = new JwtAuthenticationFilter();
+		ReflectionTestUtils.setField(filter, "jwtUtils", jwtUtils);
+		ReflectionTestUtils.setField(filter, "userDetailsService", userDetailsService);
+		ReflectionTestUtils.setField(filter, "securityStampService", mock(SecurityStampService.class));
+		ReflectionTestUtils.setField(filter, "tokenBlacklistService", mock(TokenBlacklistService.class));
+		ReflectionTestUtils.setField(filter, "stateless", false);
+		return filter;
+	}
+
+	private MockHttpServletRequest request(String jwt) {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.addHeader("Authorization", "Bearer " + jwt);
+		return request;
+	}
+}
@@ -0,0 +1,81 @@
+package com.algotutor.securebanking.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.algotutor.securebanking.metrics.BankingMetrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class JwtUtilsTest {
+
+	static final String SECRET = "GbtIwv4A0JlG5ibZMEiAKvtDzJ43BRSv3KdOK23oZEBcW6U41nBrxhFRMxjSoJAr";
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private final JwtUtils jwtUtils = jwtUtils(10, meterRegistry);
+
+	@Test
+	void cachedTokenIsRejectedOnceExpired() throws Exception {
+		String token = jwtUtils.generateTokenFromUsername("alice", 1000);
+		assertNotNull(jwtUtils.verifyJwtToken(token));
+		assertNotNull(jwtUtils.verifyJwtToken(token));
+		assertEquals(1, hits());
+
+		// exp has second precision, so the token is expired at most a second after it was issued
+		Thread.sleep(2000);
+		assertNull(jwtUtils.verifyJwtToken(token));
+		assertEquals(1, hits());
+	}
+
+	@Test
+	void tamperedTokenWithCachedPrefixIsRejected() {
+		String token = jwtUtils.generateTokenFromUsername("alice", 60_000);
+		assertEquals("alice", jwtUtils.verifyJwtToken(token).getSubject());
+
+		// Same header and payload, different signature
+		int at = token.length() - 5;
+		String tampered = token.substring(0, at) + (token.charAt(at) == 'A' ? 'B' : 'A') + token.substring(at + 1);
+		assertNull(jwtUtils.verifyJwtToken(tampered));
+
+		// Same header and signature, payload of another user
+		String[] parts = token.split("\\.");
+		String other = jwtUtils.generateTokenFromUsername("mallory", 60_000).split("\\.")[1];
+		assertNull(jwtUtils.verifyJwtToken(parts[0] + "." + other + "." + parts[2]));
+
+		assertEquals("alice", jwtUtils.verifyJwtToken(token).getSubject());
+		assertEquals(1, hits());
+	}
+
+	@Test
+	void cacheIsClearedWhenFull() {
+		for (int i = 0; i < 10; i++) {
+			jwtUtils.verifyJwtToken(jwtUtils.generateTokenFromUsername("user" + i, 60_000));
+		}
+		String token = jwtUtils.generateTokenFromUsername("alice", 60_000);
+		jwtUtils.verifyJwtToken(token);
+		assertEquals(1, ((Map<?, ?>) ReflectionTestUtils.getField(jwtUtils, "verified")).size());
+		assertNotNull(jwtUtils.verifyJwtToken(token));
+		assertEquals(1, hits());
+	}
+
+	static JwtUtils jwtUtils(int verifiedCacheSize, SimpleMeterRegistry meterRegistry) {
+		JwtUtils jwtUtils = new JwtUtils();
+		ReflectionTestUtils.setField(jwtUtils, "jwtSecret", SECRET);
+		ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 86_400_000);
+		ReflectionTestUtils.setField(jwtUtils, "verifiedCacheSize", verifiedCacheSize);
+		ReflectionTestUtils.setField(jwtUtils, "bankingMetrics", new BankingMetrics(meterRegistry));
+		jwtUtils.init();
+		return jwtUtils;
+	}
+
+	private double hits() {
+		return meterRegistry.get("banking.auth.jwt.cache.hits").counter().count();
+	}
+}
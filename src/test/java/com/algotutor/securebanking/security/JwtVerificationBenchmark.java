@@ -0,0 +1,75 @@
+package com.algotutor.securebanking.security;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.SecretKey;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Cost of authenticating one bearer token: the old path (decode the key and
+ * verify twice, as validate-then-parse did), a single verification with the
+ * prebuilt parser, and a verified-token cache hit. Not run by the test suite;
+ * after {@code mvn test-compile} run the main method with the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtVerificationBenchmark {
+
+	private JwtUtils uncached;
+
+	private JwtUtils cached;
+
+	private String token;
+
+	@Setup
+	public void setUp() {
+		uncached = JwtUtilsTest.jwtUtils(0, new SimpleMeterRegistry());
+		cached = JwtUtilsTest.jwtUtils(10_000, new SimpleMeterRegistry());
+		token = cached.generateTokenFromUsername("alice", 3_600_000);
+		cached.verifyJwtToken(token);
+	}
+
+	@Benchmark
+	public Claims decodeKeyAndVerifyTwice() {
+		SecretKey key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(JwtUtilsTest.SECRET));
+		Jwts.parser().verifyWith(key).build().parseSignedClaims(token);
+		return Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload();
+	}
+
+	@Benchmark
+	public Claims verifyOnce() {
+		return uncached.verifyJwtToken(token);
+	}
+
+	@Benchmark
+	public Claims verifiedCacheHit() {
+		return cached.verifyJwtToken(token);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(JwtVerificationBenchmark.class.getSimpleName()).build()).run();
+	}
+}
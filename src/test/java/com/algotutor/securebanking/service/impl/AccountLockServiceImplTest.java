@@ -0,0 +1,50 @@
+package com.algotutor.securebanking.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.algotutor.securebanking.metrics.BankingMetrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AccountLockServiceImplTest {
+
+	private final AccountLockServiceImpl lockService = new AccountLockServiceImpl(64, 5000,
+			new BankingMetrics(new SimpleMeterRegistry()));
+
+	@Test
+	void stripeCountIsRoundedToPowerOfTwo() {
+		assertEquals(64, lockService.getStripeCount());
+		assertEquals(128, new AccountLockServiceImpl(100, 5000, new BankingMetrics(new SimpleMeterRegistry()))
+				.getStripeCount());
+	}
+
+	@Test
+	void oppositeDirectionTransfersDoNotDeadlock() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		int iterations = 2000;
+		CountDownLatch done = new CountDownLatch(iterations);
+		long[] balance = new long[1];
+
+		for (int i = 0; i < iterations; i++) {
+			boolean forward = i % 2 == 0;
+			executor.submit(() -> {
+				String from = forward ? "1000000001" : "1000000002";
+				String to = forward ? "1000000002" : "1000000001";
+				lockService.withAccountLocks(from, to, () -> balance[0]++);
+				done.countDown();
+			});
+		}
+
+		assertTrue(done.await(30, TimeUnit.SECONDS));
+		executor.shutdown();
+		assertEquals(iterations, balance[0]);
+	}
+}
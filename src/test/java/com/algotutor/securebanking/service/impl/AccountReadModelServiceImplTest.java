@@ -0,0 +1,125 @@
+package com.algotutor.securebanking.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.algotutor.securebanking.config.RedisConfig;
+import com.algotutor.securebanking.entity.Account;
+import com.algotutor.securebanking.entity.AccountType;
+import com.algotutor.securebanking.metrics.BankingMetrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * The version floor check runs against the Redis given by REDIS_HOST and
+ * REDIS_PORT when REDIS_MODE=standalone (see README).
+ */
+class AccountReadModelServiceImplTest {
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void versionFloorIsReadAsMiss() {
+		RedisTemplate<String, String> redisTemplate = mock(RedisTemplate.class);
+		HashOperations<String, Object, Object> hashOperations = mock(HashOperations.class);
+		when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+		when(hashOperations.entries(anyString())).thenReturn(Map.of("version", "4"));
+		AccountReadModelServiceImpl service = readModelService(redisTemplate);
+
+		AtomicInteger loads = new AtomicInteger();
+		Account account = account("1000000001", 150, 4);
+		assertEquals(new BigDecimal("150"), service.getAccount("1000000001", () -> {
+			loads.incrementAndGet();
+			return account;
+		}).getBalance());
+		assertEquals(1, loads.get());
+	}
+
+	@Test
+	@EnabledIfEnvironmentVariable(named = "REDIS_MODE", matches = "standalone")
+	void fillReadBeforePostingIsRejected() {
+		LettuceConnectionFactory connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(
+				env("REDIS_HOST", "localhost"), Integer.parseInt(env("REDIS_PORT", "6379"))));
+		connectionFactory.afterPropertiesSet();
+		connectionFactory.start();
+		try {
+			RedisTemplate<String, String> redisTemplate = new RedisConfig().stringRedisTemplate(connectionFactory);
+			AccountReadModelServiceImpl service = readModelService(redisTemplate);
+			String accountNumber = String.valueOf(System.nanoTime());
+			Account stale = account(accountNumber, 100, 3);
+			Account fresh = account(accountNumber, 150, 4);
+
+			// The posting commits while the entry is not cached ...
+			TransactionSynchronizationManager.initSynchronization();
+			try {
+				service.balanceChanged(accountNumber, fresh.getBalance(), fresh.getVersion());
+				TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+				TransactionSynchronizationManager.getSynchronizations()
+						.forEach(synchronization -> synchronization.afterCompletion(
+								TransactionSynchronization.STATUS_COMMITTED));
+			} finally {
+				TransactionSynchronizationManager.clearSynchronization();
+			}
+
+			// ... and a fill from a read taken before it lands afterwards
+			service.getAccount(accountNumber, () -> stale);
+			assertFalse(redisTemplate.opsForHash().hasKey("account:" + accountNumber, "id"));
+
+			assertEquals(fresh.getBalance(), service.getAccount(accountNumber, () -> fresh).getBalance());
+			Supplier<Account> unreachable = () -> {
+				throw new AssertionError("Expected a cache hit");
+			};
+			assertEquals(0, fresh.getBalance().compareTo(service.getAccount(accountNumber, unreachable).getBalance()));
+			assertTrue(redisTemplate.getExpire("account:" + accountNumber) > Duration.ofMinutes(1).toSeconds());
+			redisTemplate.delete("account:" + accountNumber);
+		} finally {
+			connectionFactory.destroy();
+		}
+	}
+
+	private AccountReadModelServiceImpl readModelService(RedisTemplate<String, String> redisTemplate) {
+		AccountReadModelServiceImpl service = new AccountReadModelServiceImpl();
+		ReflectionTestUtils.setField(service, "stringRedisTemplate", redisTemplate);
+		ReflectionTestUtils.setField(service, "bankingMetrics", new BankingMetrics(new SimpleMeterRegistry()));
+		ReflectionTestUtils.setField(service, "enabled", true);
+		ReflectionTestUtils.setField(service, "ttl", Duration.ofMinutes(30));
+		ReflectionTestUtils.setField(service, "versionFloorTtl", Duration.ofMinutes(1));
+		return service;
+	}
+
+	private Account account(String accountNumber, long balance, long version) {
+		Account account = new Account();
+		account.setId(1L);
+		account.setAccountNumber(accountNumber);
+		account.setAccountType(AccountType.SAVINGS);
+		account.setBalance(BigDecimal.valueOf(balance));
+		account.setCreatedAt(LocalDateTime.of(2026, 1, 1, 0, 0));
+		account.setVersion(version);
+		return account;
+	}
+
+	private static String env(String name, String defaultValue) {
+		String value = System.getenv(name);
+		return value != null ? value : defaultValue;
+	}
+}
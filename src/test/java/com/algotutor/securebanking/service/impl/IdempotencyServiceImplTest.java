@@ -0,0 +1,120 @@
+package com.algotutor.securebanking.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.algotutor.securebanking.exception.IdempotencyConflictException;
+import com.algotutor.securebanking.exception.IdempotencyUnavailableException;
+import com.algotutor.securebanking.metrics.BankingMetrics;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class IdempotencyServiceImplTest {
+
+	@SuppressWarnings("unchecked")
+	private final RedisTemplate<String, String> redisTemplate = mock(RedisTemplate.class);
+
+	@SuppressWarnings("unchecked")
+	private final ValueOperations<String, String> valueOperations = mock(ValueOperations.class);
+
+	@Test
+	void failedStoreReturnsResponseAndRetryDoesNotRunAgain() {
+		IdempotencyServiceImpl service = idempotencyService();
+		when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+		// The lock taken by the first attempt is still held when the client retries
+		when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(true, false);
+		when(redisTemplate.hasKey(anyString())).thenReturn(true);
+		doThrow(new RedisConnectionFailureException("Redis down")).when(valueOperations)
+				.set(anyString(), anyString(), any(Duration.class));
+
+		AtomicInteger executions = new AtomicInteger();
+		Map<String, Object> request = Map.of("accountNumber", "1000000001", "amount", 100);
+
+		Map<String, Object> response = service.execute("deposit", "key-1", request,
+				new TypeReference<Map<String, Object>>() {
+				}, () -> Map.of("posting", executions.incrementAndGet()));
+		assertEquals(Map.of("posting", 1), response);
+		verify(redisTemplate, never()).delete(eq("idempotency:lock:deposit:key-1"));
+
+		assertThrows(IdempotencyConflictException.class, () -> service.execute("deposit", "key-1", request,
+				new TypeReference<Map<String, Object>>() {
+				}, () -> Map.of("posting", executions.incrementAndGet())));
+		assertEquals(1, executions.get());
+	}
+
+	@Test
+	void responseThatCannotBeStoredLeavesATombstoneForRetries() {
+		IdempotencyServiceImpl service = idempotencyService();
+		Map<String, String> redis = new HashMap<>();
+		when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+		when(valueOperations.get(anyString())).thenAnswer(invocation -> redis.get(invocation.getArgument(0)));
+		when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenAnswer(
+				invocation -> redis.putIfAbsent(invocation.getArgument(0), invocation.getArgument(1)) == null);
+		when(redisTemplate.delete(anyString())).thenAnswer(invocation -> redis.remove(invocation.getArgument(0)) != null);
+		// The response write fails, the smaller tombstone write that follows succeeds
+		doThrow(new RedisConnectionFailureException("Redis timeout")).doAnswer(invocation -> {
+			redis.put(invocation.getArgument(0), invocation.getArgument(1));
+			return null;
+		}).when(valueOperations).set(anyString(), anyString(), any(Duration.class));
+
+		AtomicInteger executions = new AtomicInteger();
+		Map<String, Object> request = Map.of("accountNumber", "1000000001", "amount", 100);
+		Map<String, Object> response = service.execute("deposit", "key-2", request,
+				new TypeReference<Map<String, Object>>() {
+				}, () -> Map.of("posting", executions.incrementAndGet()));
+		assertEquals(Map.of("posting", 1), response);
+		// The lock is released once the tombstone is in place
+		assertFalse(redis.containsKey("idempotency:lock:deposit:key-2"));
+
+		assertThrows(IdempotencyConflictException.class, () -> service.execute("deposit", "key-2", request,
+				new TypeReference<Map<String, Object>>() {
+				}, () -> Map.of("posting", executions.incrementAndGet())));
+		assertEquals(1, executions.get());
+	}
+
+	@Test
+	void unreachableRedisRejectsInsteadOfRunningUnprotected() {
+		IdempotencyServiceImpl service = idempotencyService();
+		when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+		when(valueOperations.get(anyString())).thenThrow(new RedisConnectionFailureException("Redis down"));
+
+		AtomicInteger executions = new AtomicInteger();
+		assertThrows(IdempotencyUnavailableException.class, () -> service.execute("deposit", "key-3",
+				Map.of("amount", 100), new TypeReference<Map<String, Object>>() {
+				}, () -> Map.of("posting", executions.incrementAndGet())));
+		assertEquals(0, executions.get());
+	}
+
+	private IdempotencyServiceImpl idempotencyService() {
+		IdempotencyServiceImpl service = new IdempotencyServiceImpl();
+		ReflectionTestUtils.setField(service, "ttl", Duration.ofHours(24));
+		ReflectionTestUtils.setField(service, "lockTtl", Duration.ofSeconds(30));
+		ReflectionTestUtils.setField(service, "waitTimeout", Duration.ofMillis(200));
+		ReflectionTestUtils.setField(service, "stringRedisTemplate", redisTemplate);
+		ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper());
+		ReflectionTestUtils.setField(service, "bankingMetrics", new BankingMetrics(new SimpleMeterRegistry()));
+		return service;
+	}
+}
@@ -0,0 +1,69 @@
+package com.algotutor.securebanking.service.impl;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.algotutor.securebanking.dto.admin.SessionRevocationRequest;
+import com.algotutor.securebanking.repository.UserRepository;
+import com.algotutor.securebanking.service.RefreshTokenService;
+import com.algotutor.securebanking.service.SecurityStampService;
+
+class SessionRevocationServiceImplTest {
+
+	@SuppressWarnings("unchecked")
+	private final RedisTemplate<String, String> redisTemplate = mock(RedisTemplate.class);
+
+	@SuppressWarnings("unchecked")
+	private final HashOperations<String, Object, Object> hashOperations = mock(HashOperations.class);
+
+	private final RefreshTokenService refreshTokenService = mock(RefreshTokenService.class);
+
+	private final SecurityStampService securityStampService = mock(SecurityStampService.class);
+
+	private final SessionRevocationServiceImpl service = new SessionRevocationServiceImpl();
+
+	@AfterEach
+	void shutdown() {
+		service.shutdown();
+	}
+
+	@Test
+	void listedUsersLoseEverySessionEvenWithoutOldRefreshTokens() {
+		when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+		when(hashOperations.entries(anyString())).thenReturn(Map.of("status", "QUEUED"));
+		// bob refreshed after the job was queued, so nothing older than any cutoff is left
+		when(refreshTokenService.revokeTokensIssuedBefore(any(), isNull()))
+				.thenReturn(Map.of("alice", List.of("token-a")));
+		ReflectionTestUtils.setField(service, "chunkSize", 500);
+		ReflectionTestUtils.setField(service, "statusTtl", Duration.ofDays(7));
+		ReflectionTestUtils.setField(service, "stringRedisTemplate", redisTemplate);
+		ReflectionTestUtils.setField(service, "refreshTokenService", refreshTokenService);
+		ReflectionTestUtils.setField(service, "securityStampService", securityStampService);
+		ReflectionTestUtils.setField(service, "userRepository", mock(UserRepository.class));
+
+		service.startRevocation(new SessionRevocationRequest(List.of("alice", "bob"), LocalDateTime.now().minusDays(1)),
+				"admin");
+
+		verify(refreshTokenService, timeout(5000)).revokeTokensIssuedBefore(eq(List.of("alice", "bob")), isNull());
+		verify(securityStampService, timeout(5000)).revokeAll(List.of("alice", "bob"));
+		verify(hashOperations, timeout(5000)).putAll(anyString(), eq(Map.of("usersProcessed", "2", "usersAffected",
+				"1", "tokensRevoked", "1")));
+	}
+}
@@ -0,0 +1,78 @@
+package com.algotutor.securebanking.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.algotutor.securebanking.entity.RefreshToken;
+import com.algotutor.securebanking.exception.TokenRefreshException;
+import com.algotutor.securebanking.metrics.BankingMetrics;
+import com.algotutor.securebanking.service.TokenBlacklistService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class TieredRefreshTokenServiceTest {
+
+	private final RefreshTokenServiceImpl redisStore = mock(RefreshTokenServiceImpl.class);
+
+	private final TokenBlacklistService tokenBlacklistService = mock(TokenBlacklistService.class);
+
+	private final MockHttpServletRequest request = new MockHttpServletRequest();
+
+	@Test
+	void localTierRefusesTokensRemovedOnOtherNodes() {
+		TieredRefreshTokenService service = tieredService();
+		RefreshToken loggedOut = token("522b0001-logged-out");
+		RefreshToken live = token("522b0002-live");
+		when(redisStore.findByToken(loggedOut.getToken())).thenReturn(Optional.of(loggedOut));
+		when(redisStore.findByToken(live.getToken())).thenReturn(Optional.of(live));
+		service.findByToken(loggedOut.getToken());
+		service.findByToken(live.getToken());
+
+		// Redis goes down; the logged out token was blacklisted by another node, so the filter
+		// reports a possible hit that Redis cannot confirm
+		when(redisStore.findByToken(anyString())).thenThrow(new RedisConnectionFailureException("Redis down"));
+		when(redisStore.rotateRefreshToken(anyString(), any())).thenThrow(
+				new RedisConnectionFailureException("Redis down"));
+		when(tokenBlacklistService.isRevoked(loggedOut.getToken())).thenThrow(
+				new RedisConnectionFailureException("Redis down"));
+		when(redisStore.newRefreshToken(anyString(), any(), any())).thenReturn(token("522b0003-replacement"));
+
+		assertTrue(service.findByToken(loggedOut.getToken()).isEmpty());
+		assertThrows(TokenRefreshException.class, () -> service.rotateRefreshToken(loggedOut.getToken(), request));
+		assertEquals(TieredRefreshTokenService.BreakerState.OPEN, service.getBreakerState());
+		assertEquals("522b0003-replacement",
+				service.rotateRefreshToken(live.getToken(), request).orElseThrow().getToken());
+	}
+
+	private TieredRefreshTokenService tieredService() {
+		TieredRefreshTokenService service = new TieredRefreshTokenService();
+		ReflectionTestUtils.setField(service, "localMaxSize", 100);
+		ReflectionTestUtils.setField(service, "failureThreshold", 1);
+		ReflectionTestUtils.setField(service, "openDuration", Duration.ofMinutes(1));
+		ReflectionTestUtils.setField(service, "slowCallThreshold", Duration.ofSeconds(1));
+		ReflectionTestUtils.setField(service, "maxBacklog", 100);
+		ReflectionTestUtils.setField(service, "redisStore", redisStore);
+		ReflectionTestUtils.setField(service, "tokenBlacklistService", tokenBlacklistService);
+		ReflectionTestUtils.setField(service, "bankingMetrics", new BankingMetrics(new SimpleMeterRegistry()));
+		service.init();
+		return service;
+	}
+
+	private RefreshToken token(String token) {
+		return new RefreshToken(token, "alice", 42L, LocalDateTime.now().plusDays(1), "127.0.0.1", null);
+	}
+}